@@ -0,0 +1,109 @@
+package coroutines
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Factory
+import io.micronaut.context.annotation.Requires
+import io.micronaut.tracing.annotation.NewSpan
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.context.Context
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.ReadWriteSpan
+import io.opentelemetry.sdk.trace.ReadableSpan
+import io.opentelemetry.sdk.trace.SpanProcessor
+import jakarta.inject.Singleton
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import kotlinx.coroutines.yield
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OperationsPerInvocation
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures the cost of a suspension inside a `@NewSpan` suspend function, whose propagated
+ * context is restored every time the coroutine resumes, compared to the same suspension
+ * without tracing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class SuspensionBenchmark {
+
+    private lateinit var context: ApplicationContext
+    private lateinit var service: SuspendingService
+
+    @Setup
+    fun setup() {
+        context = ApplicationContext.run(mapOf(
+            "suspensionbenchmark.enabled" to "true",
+            "otel.traces.exporter" to "none"
+        ))
+        service = context.getBean(SuspendingService::class.java)
+    }
+
+    @TearDown
+    fun tearDown() {
+        context.close()
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SUSPENSIONS)
+    fun traced(): String = runBlocking { service.traced(SUSPENSIONS) }
+
+    @Benchmark
+    @OperationsPerInvocation(SUSPENSIONS)
+    fun untraced(): String = runBlocking { service.untraced(SUSPENSIONS) }
+
+    companion object {
+        const val SUSPENSIONS = 1_000
+    }
+}
+
+@Requires(property = "suspensionbenchmark.enabled")
+@Singleton
+open class SuspendingService {
+
+    @NewSpan
+    open suspend fun traced(suspensions: Int): String = suspendRepeatedly(suspensions)
+
+    open suspend fun untraced(suspensions: Int): String = suspendRepeatedly(suspensions)
+
+    private suspend fun suspendRepeatedly(suspensions: Int): String {
+        withContext(Dispatchers.Default) {
+            repeat(suspensions) {
+                yield()
+            }
+        }
+        return Span.current().spanContext.traceId
+    }
+}
+
+@Requires(property = "suspensionbenchmark.enabled")
+@Factory
+class SuspensionBenchmarkFactory {
+
+    /**
+     * Records the spans without exporting them, so the benchmark only measures the tracing.
+     */
+    @Singleton
+    fun spanProcessor(): SpanProcessor = object : SpanProcessor {
+        override fun onStart(parentContext: Context, span: ReadWriteSpan) = Unit
+        override fun isStartRequired(): Boolean = false
+        override fun onEnd(span: ReadableSpan) = Unit
+        override fun isEndRequired(): Boolean = false
+        override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+    }
+}
@@ -0,0 +1,99 @@
+package coroutines
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Factory
+import io.micronaut.context.annotation.Requires
+import io.micronaut.tracing.annotation.NewSpan
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.SpanProcessor
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import jakarta.inject.Singleton
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import kotlinx.coroutines.yield
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class CoroutineTracingSpec {
+
+    private lateinit var context: ApplicationContext
+    private lateinit var service: CoroutineService
+    private lateinit var exporter: InMemorySpanExporter
+
+    @BeforeEach
+    fun setup() {
+        context = ApplicationContext.run(mapOf("coroutinetracing.enabled" to "true"))
+        service = context.getBean(CoroutineService::class.java)
+        exporter = context.getBean(InMemorySpanExporter::class.java)
+    }
+
+    @AfterEach
+    fun cleanup() {
+        context.close()
+    }
+
+    @Test
+    fun testContextSurvivesThreadSwitches() {
+        val traceId = runBlocking { service.traced(10) }
+
+        val spans = exporter.finishedSpanItems
+        assertEquals(1, spans.size)
+        assertEquals("CoroutineService.traced", spans[0].name)
+        assertEquals(traceId, spans[0].traceId)
+    }
+
+    @Test
+    fun testCancellationEndsSpan() {
+        runBlocking {
+            val job = launch(Dispatchers.Default) { service.suspended() }
+            delay(100)
+            job.cancel()
+            job.join()
+        }
+
+        val spans = exporter.finishedSpanItems
+        assertEquals(1, spans.size)
+        assertEquals(true, spans[0].attributes.get(AttributeKey.booleanKey("micronaut.cancelled")))
+    }
+}
+
+@Requires(property = "coroutinetracing.enabled")
+@Singleton
+open class CoroutineService {
+
+    @NewSpan
+    open suspend fun traced(suspensions: Int): String {
+        val traceId = Span.current().spanContext.traceId
+        withContext(Dispatchers.Default) {
+            repeat(suspensions) {
+                yield()
+                check(Span.current().spanContext.traceId == traceId)
+            }
+        }
+        check(Span.current().spanContext.traceId == traceId)
+        return traceId
+    }
+
+    @NewSpan
+    open suspend fun suspended() {
+        delay(10_000)
+    }
+}
+
+@Requires(property = "coroutinetracing.enabled")
+@Factory
+class CoroutineTracingFactory {
+
+    @Singleton
+    fun spanProcessor(spanExporter: InMemorySpanExporter): SpanProcessor = SimpleSpanProcessor.create(spanExporter)
+
+    @Singleton
+    fun inMemorySpanExporter(): InMemorySpanExporter = InMemorySpanExporter.create()
+}
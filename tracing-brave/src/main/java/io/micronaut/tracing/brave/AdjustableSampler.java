@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.brave;
+
+import brave.sampler.CountingSampler;
+import brave.sampler.Sampler;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+
+/**
+ * A {@code CountingSampler} based {@link Sampler} whose probability can be overridden at runtime.
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class AdjustableSampler extends Sampler {
+
+    private volatile float probability;
+    private volatile Float probabilityOverride;
+    private volatile Sampler delegate;
+
+    /**
+     * @param probability the configured probability
+     */
+    AdjustableSampler(float probability) {
+        this.probability = probability;
+        this.delegate = CountingSampler.create(probability);
+    }
+
+    @Override
+    public boolean isSampled(long traceId) {
+        return delegate.isSampled(traceId);
+    }
+
+    /**
+     * @return the configured probability
+     */
+    public float getProbability() {
+        return probability;
+    }
+
+    /**
+     * @return the probability override, or {@code null} if the configured probability is used
+     */
+    @Nullable
+    public Float getProbabilityOverride() {
+        return probabilityOverride;
+    }
+
+    /**
+     * Sets the configured probability.
+     *
+     * @param probability the probability
+     */
+    synchronized void setProbability(float probability) {
+        this.probability = probability;
+        if (probabilityOverride == null) {
+            delegate = CountingSampler.create(probability);
+        }
+    }
+
+    /**
+     * Overrides the configured probability.
+     *
+     * @param probability the probability
+     */
+    public synchronized void overrideProbability(float probability) {
+        this.probabilityOverride = probability;
+        delegate = CountingSampler.create(probability);
+    }
+
+    /**
+     * Restores the configured probability.
+     */
+    public synchronized void resetProbability() {
+        this.probabilityOverride = null;
+        delegate = CountingSampler.create(probability);
+    }
+
+    @Override
+    public String toString() {
+        return "AdjustableSampler{probability=" + probability + ", probabilityOverride=" + probabilityOverride + '}';
+    }
+}
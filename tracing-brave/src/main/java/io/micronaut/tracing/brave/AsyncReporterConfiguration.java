@@ -40,6 +40,8 @@ public class AsyncReporterConfiguration {
     @ConfigurationBuilder(prefixes = "")
     private final AsyncReporter.Builder builder;
 
+    private final ReporterQueueMetrics queueMetrics = new ReporterQueueMetrics();
+
     /**
      * Create a configuration for async reporting on {@code zipkin2.Span} instances.
      *
@@ -50,7 +52,7 @@ public class AsyncReporterConfiguration {
         if (configuration == null) {
             throw new IllegalArgumentException("Argument [configuration] cannot be null");
         }
-        builder = AsyncReporter.builder(sender);
+        builder = AsyncReporter.builder(sender).metrics(queueMetrics);
     }
 
     /**
@@ -65,8 +67,14 @@ public class AsyncReporterConfiguration {
      */
     @Inject
     public void setReporterMetrics(@Nullable ReporterMetrics metrics) {
-        if (metrics != null) {
-            builder.metrics(metrics);
-        }
+        queueMetrics.setDelegate(metrics);
+    }
+
+    /**
+     * @return the queue state of the reporter
+     * @since 6.9.0
+     */
+    public ReporterQueueMetrics getQueueMetrics() {
+        return queueMetrics;
     }
 }
@@ -58,13 +58,17 @@ public class BraveTracerConfiguration implements Toggleable {
 
     private boolean enabled = DEFAULT_ENABLED;
 
+    private final AdjustableSampler adjustableSampler = new AdjustableSampler(DEFAULT_SAMPLER_PROBABILITY);
+    private boolean customSampler;
+    private TraceBudgetConfiguration traceBudgetConfiguration;
+
     /**
      * Constructs a new {@code BraveTracerConfiguration}.
      *
      * @param configuration the application configuration
      */
     public BraveTracerConfiguration(ApplicationConfiguration configuration) {
-        tracingBuilder.sampler(CountingSampler.create(DEFAULT_SAMPLER_PROBABILITY));
+        tracingBuilder.sampler(adjustableSampler);
         if (configuration != null) {
             tracingBuilder.localServiceName(configuration.getName().orElse(DEFAULT_NAME));
         } else {
@@ -95,7 +99,7 @@ public class BraveTracerConfiguration implements Toggleable {
     @Inject
     public void setSamplerConfiguration(@Nullable SamplerConfiguration samplerConfiguration) {
         if (samplerConfiguration != null) {
-            tracingBuilder.sampler(CountingSampler.create(samplerConfiguration.getProbability()));
+            adjustableSampler.setProbability(samplerConfiguration.getProbability());
         }
     }
 
@@ -113,9 +117,19 @@ public class BraveTracerConfiguration implements Toggleable {
     public void setSampler(@Nullable Sampler sampler) {
         if (sampler != null) {
             tracingBuilder.sampler(sampler);
+            customSampler = true;
         }
     }
 
+    /**
+     * @return the sampler whose probability can be changed at runtime, or {@code null} if a custom {@code Sampler} bean is used
+     * @since 6.9.0
+     */
+    @Nullable
+    public AdjustableSampler getAdjustableSampler() {
+        return customSampler ? null : adjustableSampler;
+    }
+
     /**
      * @param propagationFactory the factory
      */
@@ -189,4 +203,202 @@ public class BraveTracerConfiguration implements Toggleable {
             this.probability = probability;
         }
     }
+
+    /**
+     * @param traceBudgetConfiguration the trace budget configuration
+     * @since 6.9.0
+     */
+    @Inject
+    public void setTraceBudgetConfiguration(@Nullable TraceBudgetConfiguration traceBudgetConfiguration) {
+        this.traceBudgetConfiguration = traceBudgetConfiguration;
+    }
+
+    /**
+     * @return the trace budget configuration, or {@code null} if the trace budget is disabled
+     * @since 6.9.0
+     */
+    @Nullable
+    public TraceBudgetConfiguration getTraceBudgetConfiguration() {
+        return traceBudgetConfiguration;
+    }
+
+    /**
+     * Used to configure the metrics computed from ended spans under the {@code tracing.zipkin.span-metrics} namespace.
+     *
+     * @since 6.9.0
+     */
+    @ConfigurationProperties("span-metrics")
+    @Requires(property = SpanMetricsConfiguration.PREFIX + ".enabled", value = TRUE)
+    public static class SpanMetricsConfiguration {
+
+        public static final String PREFIX = BraveTracerConfiguration.PREFIX + ".span-metrics";
+
+        /**
+         * The default maximum number of span names.
+         */
+        @SuppressWarnings("WeakerAccess")
+        public static final int DEFAULT_MAX_SPAN_NAMES = 1000;
+
+        /**
+         * The default record unsampled value.
+         */
+        @SuppressWarnings("WeakerAccess")
+        public static final boolean DEFAULT_RECORD_UNSAMPLED = true;
+
+        /**
+         * The default percentile histogram value.
+         */
+        @SuppressWarnings("WeakerAccess")
+        public static final boolean DEFAULT_PERCENTILE_HISTOGRAM = false;
+
+        private boolean enabled;
+        private int maxSpanNames = DEFAULT_MAX_SPAN_NAMES;
+        private boolean recordUnsampled = DEFAULT_RECORD_UNSAMPLED;
+        private boolean percentileHistogram = DEFAULT_PERCENTILE_HISTOGRAM;
+
+        /**
+         * @return whether span metrics are enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether metrics are computed from ended spans. Requires a Micrometer {@code MeterRegistry}. Default value false.
+         *
+         * @param enabled true if span metrics are enabled
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * @return the maximum number of distinct span names
+         */
+        public int getMaxSpanNames() {
+            return maxSpanNames;
+        }
+
+        /**
+         * Sets the maximum number of distinct span names that get their own metrics. The spans of
+         * other names are aggregated under the {@code other} name. Default value ({@value #DEFAULT_MAX_SPAN_NAMES}).
+         *
+         * @param maxSpanNames the maximum number of span names
+         */
+        public void setMaxSpanNames(int maxSpanNames) {
+            this.maxSpanNames = maxSpanNames;
+        }
+
+        /**
+         * @return whether the spans that are not sampled are recorded
+         */
+        public boolean isRecordUnsampled() {
+            return recordUnsampled;
+        }
+
+        /**
+         * Sets whether the spans that are not sampled are recorded locally, without being reported,
+         * so that the metrics cover every span. Every span then pays the full recording cost. Set it to false to
+         * only measure the sampled spans. Default value ({@value #DEFAULT_RECORD_UNSAMPLED}).
+         *
+         * @param recordUnsampled true if unsampled spans are recorded
+         */
+        public void setRecordUnsampled(boolean recordUnsampled) {
+            this.recordUnsampled = recordUnsampled;
+        }
+
+        /**
+         * @return whether the span durations are published with a percentile histogram
+         */
+        public boolean isPercentileHistogram() {
+            return percentileHistogram;
+        }
+
+        /**
+         * Sets whether the span durations are published with a percentile histogram. Every span name,
+         * kind and status then gets its own histogram buckets. Default value ({@value #DEFAULT_PERCENTILE_HISTOGRAM}).
+         *
+         * @param percentileHistogram true if a percentile histogram is published
+         */
+        public void setPercentileHistogram(boolean percentileHistogram) {
+            this.percentileHistogram = percentileHistogram;
+        }
+    }
+
+    /**
+     * Used to configure the per-trace span budget under the {@code tracing.zipkin.trace-budget} namespace.
+     *
+     * @since 6.9.0
+     */
+    @ConfigurationProperties("trace-budget")
+    @Requires(property = TraceBudgetConfiguration.PREFIX + ".enabled", value = TRUE)
+    public static class TraceBudgetConfiguration {
+
+        public static final String PREFIX = BraveTracerConfiguration.PREFIX + ".trace-budget";
+
+        /**
+         * The default maximum number of spans of a trace.
+         */
+        @SuppressWarnings("WeakerAccess")
+        public static final int DEFAULT_MAX_SPANS = 10_000;
+
+        /**
+         * The default maximum size of the tags of a trace.
+         */
+        @SuppressWarnings("WeakerAccess")
+        public static final long DEFAULT_MAX_ATTRIBUTE_BYTES = 4 * 1024 * 1024;
+
+        private boolean enabled;
+        private int maxSpans = DEFAULT_MAX_SPANS;
+        private long maxAttributeBytes = DEFAULT_MAX_ATTRIBUTE_BYTES;
+
+        /**
+         * @return whether the trace budget is enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether the number and size of the spans of a trace are limited. Default value false.
+         *
+         * @param enabled true if the trace budget is enabled
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * @return the maximum number of spans of a trace
+         */
+        public int getMaxSpans() {
+            return maxSpans;
+        }
+
+        /**
+         * Sets the maximum number of reported spans of a trace, in this process. Default value ({@value #DEFAULT_MAX_SPANS}).
+         *
+         * @param maxSpans the maximum number of spans
+         */
+        public void setMaxSpans(int maxSpans) {
+            this.maxSpans = maxSpans;
+        }
+
+        /**
+         * @return the maximum size of the tags of a trace
+         */
+        public long getMaxAttributeBytes() {
+            return maxAttributeBytes;
+        }
+
+        /**
+         * Sets the maximum estimated size, in bytes, of the tags of the spans of a trace, in this
+         * process. Default value ({@value #DEFAULT_MAX_ATTRIBUTE_BYTES}).
+         *
+         * @param maxAttributeBytes the maximum size of the tags
+         */
+        public void setMaxAttributeBytes(long maxAttributeBytes) {
+            this.maxAttributeBytes = maxAttributeBytes;
+        }
+    }
 }
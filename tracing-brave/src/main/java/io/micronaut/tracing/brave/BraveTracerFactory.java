@@ -34,6 +34,8 @@ import zipkin2.reporter.AsyncReporter;
 import zipkin2.reporter.Reporter;
 import zipkin2.reporter.brave.ZipkinSpanHandler;
 
+import java.util.List;
+
 import static zipkin2.reporter.Reporter.NOOP;
 
 /**
@@ -59,14 +61,25 @@ public class BraveTracerFactory {
      * The {@code Tracing} bean.
      *
      * @param reporter an optional {@code Reporter}
+     * @param spanHandlers the additional {@code SpanHandler} beans
      * @return the {@code Tracing} bean
      */
     @Bean(preDestroy = "close")
     @Singleton
     @Requires(classes = Tracing.class)
-    Tracing braveTracing(@Nullable Reporter<Span> reporter) {
+    Tracing braveTracing(@Nullable Reporter<Span> reporter, List<SpanHandler> spanHandlers) {
         SpanHandler spanHandler = ZipkinSpanHandler.newBuilder(reporter == null ? NOOP : reporter).build();
-        return configuration.getTracingBuilder()
+        Tracing.Builder builder = configuration.getTracingBuilder();
+        for (SpanHandler handler : spanHandlers) {
+            builder.addSpanHandler(handler);
+            if (handler instanceof SpanMetricsHandler spanMetricsHandler && spanMetricsHandler.isRecordUnsampled()) {
+                builder.alwaysSampleLocal();
+            }
+        }
+        if (configuration.getTraceBudgetConfiguration() != null) {
+            builder.addSpanHandler(new TraceBudgetHandler(configuration.getTraceBudgetConfiguration()));
+        }
+        return builder
                 .addSpanHandler(spanHandler)
                 .build();
     }
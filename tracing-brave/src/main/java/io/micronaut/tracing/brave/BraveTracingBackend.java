@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.brave;
+
+import brave.Tracing;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.util.CollectionUtils;
+import io.micronaut.tracing.management.TracingBackend;
+import io.micronaut.tracing.opentracing.instrument.http.TracingExclusionsConfiguration;
+import jakarta.inject.Singleton;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the Brave tracer to the {@link io.micronaut.tracing.management.TracingEndpoint}.
+ *
+ * @since 6.9.0
+ */
+@Internal
+@Singleton
+@Requires(beans = BraveTracerConfiguration.class)
+@Requires(classes = Tracing.class)
+final class BraveTracingBackend implements TracingBackend {
+
+    private final BraveTracerConfiguration configuration;
+    @Nullable
+    private final AsyncReporterConfiguration reporterConfiguration;
+    @Nullable
+    private final TracingExclusionsConfiguration exclusionsConfiguration;
+
+    BraveTracingBackend(BraveTracerConfiguration configuration,
+                        @Nullable AsyncReporterConfiguration reporterConfiguration,
+                        @Nullable TracingExclusionsConfiguration exclusionsConfiguration) {
+        this.configuration = configuration;
+        this.reporterConfiguration = reporterConfiguration;
+        this.exclusionsConfiguration = exclusionsConfiguration;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return "brave";
+    }
+
+    @Override
+    @NonNull
+    public Map<String, Object> getSampler() {
+        Map<String, Object> sampler = new LinkedHashMap<>();
+        AdjustableSampler adjustableSampler = configuration.getAdjustableSampler();
+        if (adjustableSampler == null) {
+            sampler.put("type", "custom");
+            return sampler;
+        }
+        sampler.put("type", "counting");
+        sampler.put("probability", adjustableSampler.getProbability());
+        Float override = adjustableSampler.getProbabilityOverride();
+        sampler.put("effectiveProbability", override == null ? adjustableSampler.getProbability() : override);
+        return sampler;
+    }
+
+    @Override
+    @NonNull
+    public Map<String, Object> getExporter() {
+        Map<String, Object> exporter = new LinkedHashMap<>();
+        if (reporterConfiguration != null) {
+            exporter.put("type", "async");
+            exporter.putAll(reporterConfiguration.getQueueMetrics().toMap());
+        }
+        return exporter;
+    }
+
+    @Override
+    @NonNull
+    public List<String> getExclusions() {
+        if (exclusionsConfiguration == null || CollectionUtils.isEmpty(exclusionsConfiguration.getExclusions())) {
+            return Collections.emptyList();
+        }
+        return exclusionsConfiguration.getExclusions();
+    }
+
+    @Override
+    public boolean isSamplingAdjustable() {
+        return configuration.getAdjustableSampler() != null;
+    }
+
+    @Override
+    public void setSamplingProbability(double probability) {
+        AdjustableSampler adjustableSampler = configuration.getAdjustableSampler();
+        if (adjustableSampler == null) {
+            throw new UnsupportedOperationException("A custom Brave sampler is configured");
+        }
+        adjustableSampler.overrideProbability((float) probability);
+    }
+
+    @Override
+    public void resetSamplingProbability() {
+        AdjustableSampler adjustableSampler = configuration.getAdjustableSampler();
+        if (adjustableSampler != null) {
+            adjustableSampler.resetProbability();
+        }
+    }
+
+    @Override
+    @Nullable
+    public Double getSamplingProbabilityOverride() {
+        AdjustableSampler adjustableSampler = configuration.getAdjustableSampler();
+        if (adjustableSampler == null || adjustableSampler.getProbabilityOverride() == null) {
+            return null;
+        }
+        return adjustableSampler.getProbabilityOverride().doubleValue();
+    }
+}
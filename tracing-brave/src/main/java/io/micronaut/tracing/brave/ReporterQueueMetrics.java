@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.brave;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import zipkin2.reporter.ReporterMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the {@code AsyncReporter} queue state and forwards all events to
+ * an optional user supplied {@link ReporterMetrics}.
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class ReporterQueueMetrics implements ReporterMetrics {
+
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder messagesDropped = new LongAdder();
+    private final LongAdder spans = new LongAdder();
+    private final LongAdder spansDropped = new LongAdder();
+    private volatile int queuedSpans;
+    private volatile int queuedBytes;
+    private volatile ReporterMetrics delegate = ReporterMetrics.NOOP_METRICS;
+
+    /**
+     * @param delegate the metrics to forward the events to
+     */
+    void setDelegate(@Nullable ReporterMetrics delegate) {
+        this.delegate = delegate == null ? ReporterMetrics.NOOP_METRICS : delegate;
+    }
+
+    @Override
+    public void incrementMessages() {
+        messages.increment();
+        delegate.incrementMessages();
+    }
+
+    @Override
+    public void incrementMessagesDropped(Throwable cause) {
+        messagesDropped.increment();
+        delegate.incrementMessagesDropped(cause);
+    }
+
+    @Override
+    public void incrementSpans(int quantity) {
+        spans.add(quantity);
+        delegate.incrementSpans(quantity);
+    }
+
+    @Override
+    public void incrementSpanBytes(int quantity) {
+        delegate.incrementSpanBytes(quantity);
+    }
+
+    @Override
+    public void incrementMessageBytes(int quantity) {
+        delegate.incrementMessageBytes(quantity);
+    }
+
+    @Override
+    public void incrementSpansDropped(int quantity) {
+        spansDropped.add(quantity);
+        delegate.incrementSpansDropped(quantity);
+    }
+
+    @Override
+    public void updateQueuedSpans(int update) {
+        queuedSpans = update;
+        delegate.updateQueuedSpans(update);
+    }
+
+    @Override
+    public void updateQueuedBytes(int update) {
+        queuedBytes = update;
+        delegate.updateQueuedBytes(update);
+    }
+
+    /**
+     * @return the current queue state and the reporting counters
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queuedSpans", queuedSpans);
+        result.put("queuedBytes", queuedBytes);
+        result.put("spans", spans.sum());
+        result.put("spansDropped", spansDropped.sum());
+        result.put("messages", messages.sum());
+        result.put("messagesDropped", messagesDropped.sum());
+        return result;
+    }
+}
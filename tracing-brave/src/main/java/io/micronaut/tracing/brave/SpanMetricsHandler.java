@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.brave;
+
+import brave.Span.Kind;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.tracing.brave.BraveTracerConfiguration.SpanMetricsConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Singleton;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link SpanHandler} that computes request rate, error rate and duration metrics from ended
+ * spans and publishes them to Micrometer. The metrics are tagged with the span name, kind and
+ * status. The number of span names is bounded by {@link SpanMetricsConfiguration#getMaxSpanNames()}.
+ *
+ * @since 6.9.0
+ */
+@Singleton
+@Requires(classes = MeterRegistry.class)
+@Requires(beans = {MeterRegistry.class, SpanMetricsConfiguration.class})
+public final class SpanMetricsHandler extends SpanHandler {
+
+    public static final String DURATION = "span.duration";
+    public static final String ERRORS = "span.errors";
+    public static final String TAG_NAME = "span.name";
+    public static final String TAG_KIND = "span.kind";
+    public static final String TAG_STATUS = "status.code";
+    public static final String OVERFLOW_SPAN_NAME = "other";
+    public static final String UNKNOWN_SPAN_NAME = "unknown";
+
+    private static final String[] KINDS = {"internal", "client", "server", "producer", "consumer"};
+    private static final String[] STATUSES = {"unset", "error"};
+
+    private final MeterRegistry meterRegistry;
+    private final int maxSpanNames;
+    private final boolean recordUnsampled;
+    private final boolean percentileHistogram;
+    private final Map<String, SpanNameMeters> meters = new ConcurrentHashMap<>();
+    private final AtomicInteger spanNames = new AtomicInteger();
+
+    /**
+     * @param meterRegistry the meter registry
+     * @param configuration the span metrics configuration
+     */
+    public SpanMetricsHandler(MeterRegistry meterRegistry, SpanMetricsConfiguration configuration) {
+        this.meterRegistry = meterRegistry;
+        this.maxSpanNames = configuration.getMaxSpanNames();
+        this.recordUnsampled = configuration.isRecordUnsampled();
+        this.percentileHistogram = configuration.isPercentileHistogram();
+    }
+
+    /**
+     * @return whether the spans that are not sampled must be recorded for this handler
+     */
+    public boolean isRecordUnsampled() {
+        return recordUnsampled;
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED) {
+            return true;
+        }
+        long durationMicros = span.finishTimestamp() - span.startTimestamp();
+        if (durationMicros < 0) {
+            return true;
+        }
+        String name = span.name();
+        boolean error = span.error() != null || span.tag("error") != null;
+        meters(name == null ? UNKNOWN_SPAN_NAME : name).record(kindIndex(span.kind()), error, durationMicros);
+        return true;
+    }
+
+    private static int kindIndex(Kind kind) {
+        return kind == null ? 0 : kind.ordinal() + 1;
+    }
+
+    private SpanNameMeters meters(String name) {
+        SpanNameMeters spanNameMeters = meters.get(name);
+        if (spanNameMeters != null) {
+            return spanNameMeters;
+        }
+        if (spanNames.get() >= maxSpanNames) {
+            name = OVERFLOW_SPAN_NAME;
+        }
+        return meters.computeIfAbsent(name, n -> {
+            spanNames.incrementAndGet();
+            return new SpanNameMeters(n);
+        });
+    }
+
+    /**
+     * The meters of a span name, created lazily for each kind and status.
+     */
+    private final class SpanNameMeters {
+
+        private final String name;
+        private final AtomicReferenceArray<Timer> timers = new AtomicReferenceArray<>(KINDS.length * STATUSES.length);
+        private final AtomicReferenceArray<Counter> errors = new AtomicReferenceArray<>(KINDS.length);
+
+        SpanNameMeters(String name) {
+            this.name = name;
+        }
+
+        void record(int kind, boolean error, long durationMicros) {
+            int status = error ? 1 : 0;
+            int index = kind * STATUSES.length + status;
+            Timer timer = timers.get(index);
+            if (timer == null) {
+                timer = Timer.builder(DURATION)
+                    .description("Duration of the spans")
+                    .tag(TAG_NAME, name)
+                    .tag(TAG_KIND, KINDS[kind])
+                    .tag(TAG_STATUS, STATUSES[status])
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(meterRegistry);
+                timers.set(index, timer);
+            }
+            timer.record(durationMicros, TimeUnit.MICROSECONDS);
+            if (error) {
+                Counter counter = errors.get(kind);
+                if (counter == null) {
+                    counter = Counter.builder(ERRORS)
+                        .description("Number of spans that ended with an error")
+                        .tag(TAG_NAME, name)
+                        .tag(TAG_KIND, KINDS[kind])
+                        .register(meterRegistry);
+                    errors.set(kind, counter);
+                }
+                counter.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.brave;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.tracing.brave.BraveTracerConfiguration.TraceBudgetConfiguration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link SpanHandler} that limits the number of spans of a trace and the size of their tags. The
+ * budget of a trace is tracked from the start to the end of its local root span. The spans are
+ * counted when they start and their tags when they finish. Spans over budget are not handed to the
+ * handlers added after this one, and the local root span gets the {@link #TRUNCATED} tag with the
+ * number of dropped spans.
+ *
+ * <p>At most {@link #MAX_TRACES} traces are tracked at a time. When the limit is reached, the
+ * budgets of the traces whose local root span started more than {@link #EXPIRY_NANOS ten minutes}
+ * ago without finishing are released, and the traces started while there is no room are not
+ * limited.</p>
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class TraceBudgetHandler extends SpanHandler {
+
+    /**
+     * The tag of the local root span holding the number of spans dropped from the trace.
+     */
+    static final String TRUNCATED = "micronaut.trace.truncated";
+
+    /**
+     * The maximum number of traces whose budget is tracked at a time.
+     */
+    static final int MAX_TRACES = 10_000;
+
+    /**
+     * The time after which the budget of a trace can be released before its local root span finishes.
+     */
+    static final long EXPIRY_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    /**
+     * The tag marking the spans that were over budget when they started, until they finish.
+     */
+    private static final String OVER_BUDGET = "micronaut.trace.over_budget";
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxSpans;
+    private final long maxAttributeBytes;
+    private final Map<Long, Budget> budgets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param configuration the trace budget configuration
+     */
+    TraceBudgetHandler(TraceBudgetConfiguration configuration) {
+        this.maxSpans = configuration.getMaxSpans();
+        this.maxAttributeBytes = configuration.getMaxAttributeBytes();
+    }
+
+    @Override
+    public boolean begin(TraceContext context, MutableSpan span, TraceContext parent) {
+        if (context.isLocalRoot()) {
+            track(context.localRootId());
+            return true;
+        }
+        Budget budget = budgets.get(context.localRootId());
+        if (budget != null && budget.spans.incrementAndGet() > maxSpans) {
+            budget.dropped.incrementAndGet();
+            span.tag(OVER_BUDGET, "true");
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (context.isLocalRoot()) {
+            Budget budget = budgets.remove(context.localRootId());
+            if (budget != null && budget.dropped.get() > 0) {
+                span.tag(TRUNCATED, String.valueOf(budget.dropped.get()));
+            }
+            return true;
+        }
+        if (span.tag(OVER_BUDGET) != null) {
+            return false;
+        }
+        Budget budget = budgets.get(context.localRootId());
+        if (budget == null || cause != Cause.FINISHED) {
+            return true;
+        }
+        if (budget.tagBytes.addAndGet(tagBytes(span)) > maxAttributeBytes) {
+            budget.dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceBudgetHandler{maxSpans=" + maxSpans + ", maxAttributeBytes=" + maxAttributeBytes + '}';
+    }
+
+    /**
+     * Starts tracking the budget of a trace, with the local root span counted.
+     */
+    private void track(long localRootId) {
+        long now = System.nanoTime();
+        if (budgets.size() >= MAX_TRACES) {
+            long nextSweep = nextSweepNanos.get();
+            if (now - nextSweep >= 0 && nextSweepNanos.compareAndSet(nextSweep, now + SWEEP_INTERVAL_NANOS)) {
+                budgets.values().removeIf(budget -> now - budget.startNanos > EXPIRY_NANOS);
+            }
+            if (budgets.size() >= MAX_TRACES) {
+                return;
+            }
+        }
+        budgets.put(localRootId, new Budget(now));
+    }
+
+    private static long tagBytes(MutableSpan span) {
+        long bytes = 0;
+        for (int i = 0, count = span.tagCount(); i < count; i++) {
+            bytes += span.tagKeyAt(i).length() + span.tagValueAt(i).length();
+        }
+        return bytes;
+    }
+
+    /**
+     * The budget consumed by a trace.
+     */
+    private static final class Budget {
+
+        private final long startNanos;
+        private final AtomicLong spans = new AtomicLong(1);
+        private final AtomicLong tagBytes = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        Budget(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+}
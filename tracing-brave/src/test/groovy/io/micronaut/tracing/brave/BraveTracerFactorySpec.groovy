@@ -2,6 +2,7 @@ package io.micronaut.tracing.brave
 
 
 import io.micronaut.context.ApplicationContext
+import io.micronaut.tracing.management.TracingBackend
 import io.opentracing.Scope
 import io.opentracing.Span
 import io.opentracing.Tracer
@@ -52,4 +53,45 @@ class BraveTracerFactorySpec extends Specification {
         cleanup:
         context.close()
     }
+
+    void 'test brave sampling probability can be overridden at runtime'() {
+
+        given:
+        ApplicationContext context = ApplicationContext
+                .builder('tracing.zipkin.enabled': true,
+                         'tracing.zipkin.sampler.probability': 0)
+                .singletons(new TestReporter())
+                .start()
+        TestReporter reporter = context.getBean(TestReporter)
+        Tracer tracer = context.getBean(Tracer)
+        TracingBackend backend = context.getBean(TracingBackend)
+
+        when:
+        tracer.buildSpan('unsampled').start().finish()
+
+        then:
+        reporter.spans.empty
+        backend.name == 'brave'
+        backend.samplingAdjustable
+        backend.sampler.probability == 0f
+
+        when:
+        backend.setSamplingProbability(1)
+        tracer.buildSpan('sampled').start().finish()
+
+        then:
+        reporter.spans.size() == 1
+        backend.samplingProbabilityOverride == 1d
+
+        when:
+        backend.resetSamplingProbability()
+        tracer.buildSpan('unsampled').start().finish()
+
+        then:
+        reporter.spans.size() == 1
+        backend.samplingProbabilityOverride == null
+
+        cleanup:
+        context.close()
+    }
 }
@@ -0,0 +1,38 @@
+package io.micronaut.tracing.brave
+
+import brave.Tracing
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.micronaut.context.ApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+class SpanMetricsHandlerSpec extends Specification {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry()
+    TestReporter reporter = new TestReporter()
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext
+            .builder('tracing.zipkin.enabled': true,
+                     'tracing.zipkin.sampler.probability': 0,
+                     'tracing.zipkin.span-metrics.enabled': true)
+            .singletons(registry, reporter)
+            .start()
+
+    void 'metrics are computed from spans that are not sampled'() {
+        given:
+        Tracing tracing = context.getBean(Tracing)
+
+        when:
+        3.times {
+            tracing.tracer().nextSpan().name('work').kind(brave.Span.Kind.SERVER).start().finish()
+        }
+        tracing.tracer().nextSpan().name('work').kind(brave.Span.Kind.SERVER).start().error(new IllegalStateException()).finish()
+
+        then:
+        reporter.spans.empty
+        registry.get('span.duration').tags('span.name', 'work', 'span.kind', 'server', 'status.code', 'unset').timer().count() == 3
+        registry.get('span.duration').tags('span.name', 'work', 'span.kind', 'server', 'status.code', 'error').timer().count() == 1
+        registry.get('span.errors').tags('span.name', 'work', 'span.kind', 'server').counter().count() == 1
+    }
+}
@@ -0,0 +1,53 @@
+package io.micronaut.tracing.brave
+
+import brave.Span
+import brave.Tracer
+import brave.Tracing
+import io.micronaut.context.ApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+class TraceBudgetHandlerSpec extends Specification {
+
+    TestReporter reporter = new TestReporter()
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext
+            .builder('tracing.zipkin.enabled': true,
+                     'tracing.zipkin.sampler.probability': 1,
+                     'tracing.zipkin.trace-budget.enabled': true,
+                     'tracing.zipkin.trace-budget.max-spans': 3)
+            .singletons(reporter)
+            .start()
+
+    void 'spans over the span budget are not reported'() {
+        given:
+        Tracer tracer = context.getBean(Tracing).tracer()
+        Span root = tracer.nextSpan().name('root').start()
+
+        when:
+        5.times {
+            tracer.newChild(root.context()).name('child').start().finish()
+        }
+        root.finish()
+
+        then:
+        reporter.spans.size() == 3
+        reporter.spans.find { it.name() == 'root' }.tags()[TraceBudgetHandler.TRUNCATED] == '3'
+    }
+
+    void 'spans are counted when they start'() {
+        given:
+        Tracer tracer = context.getBean(Tracing).tracer()
+        Span root = tracer.nextSpan().name('root').start()
+
+        when:
+        List<Span> children = (1..4).collect { tracer.newChild(root.context()).name("child-$it").start() }
+        children.reverse()*.finish()
+        root.finish()
+
+        then:
+        reporter.spans*.name().sort() == ['child-1', 'child-2', 'root']
+        reporter.spans.find { it.name() == 'root' }.tags()[TraceBudgetHandler.TRUNCATED] == '2'
+    }
+}
@@ -6,6 +6,9 @@ import io.micronaut.core.async.annotation.SingleResult
 import io.micronaut.tracing.annotation.ContinueSpan
 import io.micronaut.tracing.annotation.NewSpan
 import io.micronaut.tracing.annotation.SpanTag
+import io.micronaut.tracing.opentracing.SpanRecordingResolver
+import io.opentracing.Span
+import io.opentracing.Tracer
 import jakarta.inject.Inject
 import jakarta.inject.Singleton
 import org.reactivestreams.Publisher
@@ -75,10 +78,61 @@ class TraceInterceptorSpec extends Specification {
         reporter.spans[0].tags()['method'] == 'noArgNewSpan'
     }
 
-    private void buildContext() {
+    void 'test unsampled spans are not recording'() {
+        when:
+        buildContext(0)
+        SpanRecordingResolver resolver = applicationContext.getBean(SpanRecordingResolver)
+        Span span = applicationContext.getBean(Tracer).buildSpan('unsampled').start()
+        String result = tracedService.methodOne('test')
+
+        then:
+        result == 'test'
+        !resolver.isRecording(span)
+        reporter.spans.empty
+
+        cleanup:
+        span?.finish()
+    }
+
+    void 'test SpanTag arguments are not evaluated for unsampled spans'() {
+        given:
+        CountingTag newSpanTag = new CountingTag('new')
+        CountingTag continueSpanTag = new CountingTag('continue')
+
+        when:
+        buildContext(0)
+        String result = tracedService.countedNewSpan(newSpanTag, continueSpanTag)
+
+        then:
+        result == 'continue'
+        newSpanTag.evaluations == 0
+        continueSpanTag.evaluations == 0
+        reporter.spans.empty
+    }
+
+    void 'test SpanTag arguments are evaluated for sampled spans'() {
+        given:
+        CountingTag newSpanTag = new CountingTag('new')
+        CountingTag continueSpanTag = new CountingTag('continue')
+
+        when:
+        buildContext()
+        String result = tracedService.countedNewSpan(newSpanTag, continueSpanTag)
+
+        then:
+        result == 'continue'
+        newSpanTag.evaluations == 1
+        continueSpanTag.evaluations == 1
+        reporter.spans.size() == 1
+        reporter.spans[0].tags()['new.tag'] == 'new'
+        reporter.spans[0].tags()['continue.tag'] == 'continue'
+        reporter.spans[0].tags()['class'] == 'TracedService'
+    }
+
+    private void buildContext(float probability = 1) {
         applicationContext = ApplicationContext
                 .builder('tracing.zipkin.enabled': true,
-                         'tracing.zipkin.sampler.probability': 1)
+                         'tracing.zipkin.sampler.probability': probability)
                 .singletons(new TestReporter())
                 .start()
         tracedService = applicationContext.getBean(TracedService)
@@ -113,6 +167,16 @@ class TraceInterceptorSpec extends Specification {
             return name
         }
 
+        @NewSpan('counted')
+        String countedNewSpan(@SpanTag('new.tag') CountingTag newSpanTag, CountingTag continueSpanTag) {
+            countedContinueSpan(continueSpanTag)
+        }
+
+        @ContinueSpan
+        String countedContinueSpan(@SpanTag('continue.tag') CountingTag continueSpanTag) {
+            continueSpanTag.name
+        }
+
         @NewSpan('trace-cs')
         CompletableFuture<String> futureTrace(@SpanTag('more.stuff') String name) {
             return CompletableFuture.completedFuture(name).thenApply({ String v ->
@@ -121,4 +185,23 @@ class TraceInterceptorSpec extends Specification {
             })
         }
     }
+
+    /**
+     * A tag value counting how many times it is converted to a tag.
+     */
+    static class CountingTag {
+
+        final String name
+        int evaluations
+
+        CountingTag(String name) {
+            this.name = name
+        }
+
+        @Override
+        String toString() {
+            evaluations++
+            name
+        }
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.management;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes a tracing backend (Brave, Jaeger, OpenTelemetry) to the {@link TracingEndpoint}
+ * and exposes runtime control over its sampling probability.
+ *
+ * @since 6.9.0
+ */
+public interface TracingBackend {
+
+    /**
+     * @return the name of the backend, for example {@code opentelemetry}
+     */
+    @NonNull
+    String getName();
+
+    /**
+     * @return the sampler description, including the configured and the effective rates
+     */
+    @NonNull
+    Map<String, Object> getSampler();
+
+    /**
+     * @return the exporter (reporter) description, including the queue state where available
+     */
+    @NonNull
+    Map<String, Object> getExporter();
+
+    /**
+     * @return the URI patterns excluded from tracing by this backend
+     */
+    @NonNull
+    List<String> getExclusions();
+
+    /**
+     * @return whether the sampling probability can be changed at runtime
+     */
+    boolean isSamplingAdjustable();
+
+    /**
+     * Overrides the configured sampling probability of this instance until
+     * {@link #resetSamplingProbability()} is called.
+     *
+     * @param probability the probability between 0.0 and 1.0
+     * @throws UnsupportedOperationException if the sampler is not adjustable
+     */
+    void setSamplingProbability(double probability);
+
+    /**
+     * Restores the configured sampler.
+     */
+    void resetSamplingProbability();
+
+    /**
+     * @return the sampling probability override, or {@code null} if the configured sampler is used
+     */
+    @Nullable
+    Double getSamplingProbabilityOverride();
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.management;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.util.CollectionUtils;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.management.endpoint.annotation.Delete;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.management.endpoint.annotation.Write;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import jakarta.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * A management endpoint that shows the active tracing backends, their samplers, exclusion rules
+ * and exporter state, and allows the sampling probability of this instance to be changed
+ * at runtime.
+ *
+ * <p>A {@code POST} with a {@code probability} (and optionally a {@code duration} after which the
+ * configured sampler is restored) overrides the sampling probability; a {@code DELETE} restores
+ * the configured sampler immediately.</p>
+ *
+ * @since 6.9.0
+ */
+@Endpoint(id = TracingEndpoint.NAME, defaultSensitive = true)
+@Requires(classes = Endpoint.class)
+public class TracingEndpoint {
+
+    /**
+     * The endpoint id.
+     */
+    public static final String NAME = "tracing";
+
+    private static final Logger LOG = LoggerFactory.getLogger(TracingEndpoint.class);
+
+    private final List<TracingBackend> backends;
+    private final TaskScheduler taskScheduler;
+    /**
+     * The pending resets of the overridden backends, by backend.
+     */
+    private final Map<TracingBackend, ScheduledFuture<?>> scheduledResets = new HashMap<>();
+
+    /**
+     * @param backends      the tracing backends
+     * @param taskScheduler the scheduler used to restore the configured sampler
+     */
+    public TracingEndpoint(List<TracingBackend> backends,
+                           @Named(TaskExecutors.SCHEDULED) TaskScheduler taskScheduler) {
+        this.backends = backends;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * @return the state of all tracing backends
+     */
+    @Read
+    public Map<String, Object> tracing() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<Map<String, Object>> descriptions = new ArrayList<>(backends.size());
+        for (TracingBackend backend : backends) {
+            descriptions.add(describe(backend));
+        }
+        result.put("backends", descriptions);
+        return result;
+    }
+
+    /**
+     * Overrides the sampling probability of the tracing backends of this instance.
+     *
+     * @param probability the probability between 0.0 and 1.0
+     * @param backend     the name of the backend to update, all adjustable backends if not set
+     * @param duration    the duration after which the configured sampler is restored, never if not set
+     * @return the state of all tracing backends
+     */
+    @Write
+    public synchronized Map<String, Object> updateSampling(double probability,
+                                                           @Nullable String backend,
+                                                           @Nullable Duration duration) {
+        if (probability < 0.0 || probability > 1.0) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "The sampling probability must be between 0.0 and 1.0");
+        }
+        List<TracingBackend> selected = select(backend);
+        if (CollectionUtils.isEmpty(selected)) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "No tracing backend with an adjustable sampler found");
+        }
+        for (TracingBackend tracingBackend : selected) {
+            cancelScheduledReset(tracingBackend);
+            LOG.info("Overriding the sampling probability of tracing backend [{}] with {}", tracingBackend.getName(), probability);
+            tracingBackend.setSamplingProbability(probability);
+            if (duration != null) {
+                scheduleReset(tracingBackend, duration);
+            }
+        }
+        return tracing();
+    }
+
+    /**
+     * Restores the configured samplers of all tracing backends of this instance.
+     *
+     * @return the state of all tracing backends
+     */
+    @Delete
+    public synchronized Map<String, Object> resetSampling() {
+        for (TracingBackend backend : select(null)) {
+            cancelScheduledReset(backend);
+            reset(backend);
+        }
+        return tracing();
+    }
+
+    @NonNull
+    private List<TracingBackend> select(@Nullable String name) {
+        List<TracingBackend> selected = new ArrayList<>(backends.size());
+        for (TracingBackend backend : backends) {
+            if (backend.isSamplingAdjustable() && (name == null || name.equalsIgnoreCase(backend.getName()))) {
+                selected.add(backend);
+            }
+        }
+        return selected;
+    }
+
+    private void reset(TracingBackend backend) {
+        if (backend.getSamplingProbabilityOverride() != null) {
+            LOG.info("Restoring the configured sampler of tracing backend [{}]", backend.getName());
+            backend.resetSamplingProbability();
+        }
+    }
+
+    private void scheduleReset(TracingBackend backend, Duration duration) {
+        ScheduledReset scheduledReset = new ScheduledReset(backend);
+        scheduledReset.future = taskScheduler.schedule(duration, scheduledReset);
+        scheduledResets.put(backend, scheduledReset.future);
+    }
+
+    private void cancelScheduledReset(TracingBackend backend) {
+        ScheduledFuture<?> scheduledReset = scheduledResets.remove(backend);
+        if (scheduledReset != null) {
+            scheduledReset.cancel(false);
+        }
+    }
+
+    private Map<String, Object> describe(TracingBackend backend) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("name", backend.getName());
+        Map<String, Object> sampler = new LinkedHashMap<>(backend.getSampler());
+        sampler.put("adjustable", backend.isSamplingAdjustable());
+        Double override = backend.getSamplingProbabilityOverride();
+        if (override != null) {
+            sampler.put("probabilityOverride", override);
+        }
+        description.put("sampler", sampler);
+        description.put("exclusions", backend.getExclusions());
+        description.put("exporter", backend.getExporter());
+        return description;
+    }
+
+    /**
+     * Restores the configured sampler of a backend, unless its override was replaced or reset since
+     * the reset was scheduled.
+     */
+    private final class ScheduledReset implements Runnable {
+
+        private final TracingBackend backend;
+        private volatile ScheduledFuture<?> future;
+
+        private ScheduledReset(TracingBackend backend) {
+            this.backend = backend;
+        }
+
+        @Override
+        public void run() {
+            synchronized (TracingEndpoint.this) {
+                if (future == null || scheduledResets.get(backend) != future) {
+                    return;
+                }
+                scheduledResets.remove(backend);
+                reset(backend);
+            }
+        }
+    }
+}
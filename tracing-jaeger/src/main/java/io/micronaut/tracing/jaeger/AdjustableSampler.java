@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.jaeger;
+
+import io.jaegertracing.Configuration.SamplerConfiguration;
+import io.jaegertracing.internal.samplers.ConstSampler;
+import io.jaegertracing.internal.samplers.ProbabilisticSampler;
+import io.jaegertracing.internal.samplers.RateLimitingSampler;
+import io.jaegertracing.internal.samplers.SamplingStatus;
+import io.jaegertracing.spi.Sampler;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+
+/**
+ * A Jaeger {@link Sampler} built from the static sampler configuration ({@code const},
+ * {@code probabilistic} or {@code ratelimiting}) whose decision can be overridden at runtime
+ * with a probabilistic sampler. Remote controlled samplers are not wrapped.
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class AdjustableSampler implements Sampler {
+
+    private volatile String type;
+    private volatile Number param;
+    private volatile Sampler configured;
+    private volatile Double probabilityOverride;
+    private volatile Sampler delegate;
+
+    /**
+     * Creates the configured sampler from the given configuration.
+     *
+     * @param samplerConfiguration the sampler configuration
+     * @return {@code false} if the configuration describes a remote controlled sampler
+     */
+    synchronized boolean configure(SamplerConfiguration samplerConfiguration) {
+        String samplerType = samplerConfiguration.getType();
+        Number samplerParam = samplerConfiguration.getParam() == null
+            ? Double.valueOf(ProbabilisticSampler.DEFAULT_SAMPLING_PROBABILITY)
+            : samplerConfiguration.getParam();
+        Sampler sampler;
+        if (ConstSampler.TYPE.equals(samplerType)) {
+            sampler = new ConstSampler(samplerParam.intValue() != 0);
+        } else if (ProbabilisticSampler.TYPE.equals(samplerType)) {
+            sampler = new ProbabilisticSampler(samplerParam.doubleValue());
+        } else if (RateLimitingSampler.TYPE.equals(samplerType)) {
+            sampler = new RateLimitingSampler(samplerParam.doubleValue());
+        } else {
+            return false;
+        }
+        type = samplerType;
+        param = samplerParam;
+        configured = sampler;
+        if (probabilityOverride == null) {
+            delegate = sampler;
+        }
+        return true;
+    }
+
+    @Override
+    public SamplingStatus sample(String operation, long id) {
+        return delegate.sample(operation, id);
+    }
+
+    @Override
+    public void close() {
+        Sampler sampler = configured;
+        if (sampler != null) {
+            sampler.close();
+        }
+    }
+
+    /**
+     * @return whether the sampler has been configured and is in use
+     */
+    public boolean isConfigured() {
+        return configured != null;
+    }
+
+    /**
+     * @return the configured sampler type
+     */
+    @Nullable
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return the configured sampler parameter
+     */
+    @Nullable
+    public Number getParam() {
+        return param;
+    }
+
+    /**
+     * @return the probability override, or {@code null} if the configured sampler is used
+     */
+    @Nullable
+    public Double getProbabilityOverride() {
+        return probabilityOverride;
+    }
+
+    /**
+     * Overrides the configured sampler with a probabilistic one.
+     *
+     * @param probability the probability
+     */
+    public synchronized void overrideProbability(double probability) {
+        probabilityOverride = probability;
+        delegate = new ProbabilisticSampler(probability);
+    }
+
+    /**
+     * Restores the configured sampler.
+     */
+    public synchronized void resetProbability() {
+        probabilityOverride = null;
+        delegate = configured;
+    }
+}
@@ -60,6 +60,7 @@ public class JaegerConfiguration implements Toggleable {
     private boolean enabled = DEFAULT_ENABLED;
     private boolean expandExceptionLogs;
     private boolean zipkinSharedRpcSpan;
+    private final AdjustableSampler adjustableSampler = new AdjustableSampler();
 
     /**
      * @param applicationConfiguration the common configurations
@@ -118,6 +119,15 @@ public class JaegerConfiguration implements Toggleable {
         this.enabled = enabled;
     }
 
+    /**
+     * @return the sampler whose probability can be changed at runtime, only used for
+     *         {@code const}, {@code probabilistic} and {@code ratelimiting} samplers
+     * @since 6.9.0
+     */
+    public AdjustableSampler getAdjustableSampler() {
+        return adjustableSampler;
+    }
+
     /**
      * @return the Jaeger {@code Configuration}
      */
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.jaeger;
+
+import io.jaegertracing.internal.JaegerSpan;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.tracing.opentracing.SpanRecordingResolver;
+import io.opentracing.Span;
+import jakarta.inject.Singleton;
+
+/**
+ * Treats Jaeger spans that are not sampled as not recording.
+ *
+ * @since 6.9.0
+ */
+@Internal
+@Singleton
+final class JaegerSpanRecordingResolver implements SpanRecordingResolver {
+
+    @Override
+    public boolean isRecording(Span span) {
+        if (span instanceof JaegerSpan jaegerSpan) {
+            return jaegerSpan.context().isSampled();
+        }
+        return DEFAULT.isRecording(span);
+    }
+}
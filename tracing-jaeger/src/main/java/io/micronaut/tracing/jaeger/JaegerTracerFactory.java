@@ -122,6 +122,11 @@ public class JaegerTracerFactory implements Closeable {
         }
         if (sampler != null) {
             tracerBuilder.withSampler(sampler);
+        } else {
+            AdjustableSampler adjustableSampler = this.configuration.getAdjustableSampler();
+            if (configuration.getSampler() != null && adjustableSampler.configure(configuration.getSampler())) {
+                tracerBuilder.withSampler(adjustableSampler);
+            }
         }
         tracerBuilder.withScopeManager(scopeManager);
         return tracerBuilder;
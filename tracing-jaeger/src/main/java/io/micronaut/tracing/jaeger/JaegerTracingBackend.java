@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.jaeger;
+
+import io.jaegertracing.Configuration;
+import io.jaegertracing.Configuration.ReporterConfiguration;
+import io.jaegertracing.Configuration.SamplerConfiguration;
+import io.jaegertracing.internal.JaegerTracer;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.util.CollectionUtils;
+import io.micronaut.tracing.management.TracingBackend;
+import io.micronaut.tracing.opentracing.instrument.http.TracingExclusionsConfiguration;
+import jakarta.inject.Singleton;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the Jaeger tracer to the {@link io.micronaut.tracing.management.TracingEndpoint}.
+ *
+ * @since 6.9.0
+ */
+@Internal
+@Singleton
+@Requires(classes = JaegerTracer.Builder.class)
+@Requires(beans = JaegerConfiguration.class)
+final class JaegerTracingBackend implements TracingBackend {
+
+    private final JaegerConfiguration configuration;
+    @Nullable
+    private final TracingExclusionsConfiguration exclusionsConfiguration;
+
+    JaegerTracingBackend(JaegerConfiguration configuration,
+                         @Nullable TracingExclusionsConfiguration exclusionsConfiguration) {
+        this.configuration = configuration;
+        this.exclusionsConfiguration = exclusionsConfiguration;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return "jaeger";
+    }
+
+    @Override
+    @NonNull
+    public Map<String, Object> getSampler() {
+        Map<String, Object> sampler = new LinkedHashMap<>();
+        AdjustableSampler adjustableSampler = configuration.getAdjustableSampler();
+        if (adjustableSampler.isConfigured()) {
+            sampler.put("type", adjustableSampler.getType());
+            sampler.put("param", adjustableSampler.getParam());
+            Double override = adjustableSampler.getProbabilityOverride();
+            if (override != null) {
+                sampler.put("effectiveType", "probabilistic");
+                sampler.put("effectiveParam", override);
+            }
+            return sampler;
+        }
+        SamplerConfiguration samplerConfiguration = configuration.getConfiguration().getSampler();
+        if (samplerConfiguration != null) {
+            sampler.put("type", samplerConfiguration.getType() == null ? "remote" : samplerConfiguration.getType());
+            sampler.put("param", samplerConfiguration.getParam());
+            sampler.put("managerHostPort", samplerConfiguration.getManagerHostPort());
+        }
+        return sampler;
+    }
+
+    @Override
+    @NonNull
+    public Map<String, Object> getExporter() {
+        Map<String, Object> exporter = new LinkedHashMap<>();
+        Configuration jaegerConfiguration = configuration.getConfiguration();
+        ReporterConfiguration reporterConfiguration = jaegerConfiguration.getReporter();
+        if (reporterConfiguration != null) {
+            exporter.put("maxQueueSize", reporterConfiguration.getMaxQueueSize());
+            exporter.put("flushIntervalMs", reporterConfiguration.getFlushIntervalMs());
+            exporter.put("logSpans", reporterConfiguration.getLogSpans());
+        }
+        return exporter;
+    }
+
+    @Override
+    @NonNull
+    public List<String> getExclusions() {
+        if (exclusionsConfiguration == null || CollectionUtils.isEmpty(exclusionsConfiguration.getExclusions())) {
+            return Collections.emptyList();
+        }
+        return exclusionsConfiguration.getExclusions();
+    }
+
+    @Override
+    public boolean isSamplingAdjustable() {
+        return configuration.getAdjustableSampler().isConfigured();
+    }
+
+    @Override
+    public void setSamplingProbability(double probability) {
+        if (!isSamplingAdjustable()) {
+            throw new UnsupportedOperationException("A custom or remote controlled Jaeger sampler is configured");
+        }
+        configuration.getAdjustableSampler().overrideProbability(probability);
+    }
+
+    @Override
+    public void resetSamplingProbability() {
+        if (isSamplingAdjustable()) {
+            configuration.getAdjustableSampler().resetProbability();
+        }
+    }
+
+    @Override
+    @Nullable
+    public Double getSamplingProbabilityOverride() {
+        return configuration.getAdjustableSampler().getProbabilityOverride();
+    }
+}
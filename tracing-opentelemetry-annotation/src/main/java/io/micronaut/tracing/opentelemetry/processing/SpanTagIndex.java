@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.processing;
+
+import io.micronaut.core.annotation.Internal;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Index of the {@link io.micronaut.tracing.annotation.SpanTag} arguments of a method, computed at
+ * compilation time by {@link SpanTagIndexVisitor}. The members are parallel arrays.
+ *
+ * @since 6.9.0
+ */
+@Internal
+@Documented
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface SpanTagIndex {
+
+    String TYPE_STRING = "STRING";
+    String TYPE_LONG = "LONG";
+    String TYPE_DOUBLE = "DOUBLE";
+    String TYPE_BOOLEAN = "BOOLEAN";
+
+    /**
+     * @return the indexes of the arguments annotated with {@code SpanTag}
+     */
+    int[] indexes();
+
+    /**
+     * @return the attribute names of the arguments
+     */
+    String[] names();
+
+    /**
+     * @return the attribute types of the arguments, one of {@code STRING}, {@code LONG}, {@code DOUBLE} or {@code BOOLEAN}
+     */
+    String[] types();
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.processing;
+
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.inject.ast.ClassElement;
+import io.micronaut.inject.ast.MethodElement;
+import io.micronaut.inject.ast.ParameterElement;
+import io.micronaut.inject.visitor.TypeElementVisitor;
+import io.micronaut.inject.visitor.VisitorContext;
+import io.micronaut.tracing.annotation.ContinueSpan;
+import io.micronaut.tracing.annotation.NewSpan;
+import io.micronaut.tracing.annotation.SpanTag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds {@link SpanTagIndex} to the {@link NewSpan} and {@link ContinueSpan} methods with {@link SpanTag}
+ * parameters, so that the interceptors don't have to inspect every argument at runtime.
+ *
+ * @since 6.9.0
+ */
+public class SpanTagIndexVisitor implements TypeElementVisitor<Object, Object> {
+
+    @Override
+    public void visitMethod(MethodElement element, VisitorContext context) {
+        if (!element.hasAnnotation(NewSpan.class) && !element.hasAnnotation(ContinueSpan.class)) {
+            return;
+        }
+        ParameterElement[] parameters = element.getParameters();
+        if (parameters.length == 0) {
+            return;
+        }
+        List<Integer> indexes = new ArrayList<>(parameters.length);
+        List<String> names = new ArrayList<>(parameters.length);
+        List<String> types = new ArrayList<>(parameters.length);
+        for (int i = 0; i < parameters.length; i++) {
+            ParameterElement parameter = parameters[i];
+            if (parameter.hasAnnotation(SpanTag.class)) {
+                indexes.add(i);
+                names.add(parameter.stringValue(SpanTag.class).orElse(parameter.getName()));
+                types.add(attributeType(parameter.getType()));
+            }
+        }
+        if (indexes.isEmpty()) {
+            return;
+        }
+        element.annotate(SpanTagIndex.class, builder -> builder
+            .member("indexes", indexes.stream().mapToInt(Integer::intValue).toArray())
+            .member("names", names.toArray(StringUtils.EMPTY_STRING_ARRAY))
+            .member("types", types.toArray(StringUtils.EMPTY_STRING_ARRAY)));
+    }
+
+    @Override
+    public VisitorKind getVisitorKind() {
+        return VisitorKind.ISOLATING;
+    }
+
+    private static String attributeType(ClassElement type) {
+        if (type.isArray()) {
+            return SpanTagIndex.TYPE_STRING;
+        }
+        return switch (type.getName()) {
+            case "long", "int", "short", "byte",
+                 "java.lang.Long", "java.lang.Integer", "java.lang.Short", "java.lang.Byte" -> SpanTagIndex.TYPE_LONG;
+            case "double", "float", "java.lang.Double", "java.lang.Float" -> SpanTagIndex.TYPE_DOUBLE;
+            case "boolean", "java.lang.Boolean" -> SpanTagIndex.TYPE_BOOLEAN;
+            default -> SpanTagIndex.TYPE_STRING;
+        };
+    }
+}
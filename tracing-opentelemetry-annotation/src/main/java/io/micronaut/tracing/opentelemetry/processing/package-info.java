@@ -17,6 +17,7 @@
  * Classes related to annotation mapping.
  * {@link io.opentelemetry.instrumentation.annotations.SpanAttribute} to {@link io.micronaut.tracing.annotation.SpanTag}.
  * {@link io.opentelemetry.instrumentation.annotations.WithSpan} to {@link io.micronaut.tracing.annotation.NewSpan}.
+ * {@link io.micronaut.tracing.annotation.SpanTag} parameters to {@link io.micronaut.tracing.opentelemetry.processing.SpanTagIndex}.
  * @author Sergio del Amo
  * @since 4.2.0
  */
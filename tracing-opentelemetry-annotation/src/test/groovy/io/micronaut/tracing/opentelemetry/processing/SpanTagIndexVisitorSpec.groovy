@@ -0,0 +1,49 @@
+package io.micronaut.tracing.opentelemetry.processing
+
+import io.micronaut.annotation.processing.test.AbstractTypeElementSpec
+import io.micronaut.core.annotation.AnnotationValue
+
+class SpanTagIndexVisitorSpec extends AbstractTypeElementSpec {
+
+    void 'test SpanTag arguments are indexed at compilation time'() {
+        given:
+        def definition = buildBeanDefinition('test.Test', '''
+package test;
+
+import io.micronaut.context.annotation.Executable;
+import io.micronaut.tracing.annotation.NewSpan;
+import io.micronaut.tracing.annotation.SpanTag;
+import io.opentelemetry.instrumentation.annotations.SpanAttribute;
+
+import jakarta.inject.Singleton;
+
+@Singleton
+class Test {
+
+    @NewSpan
+    public void tagged(String ignored, @SpanTag("count") int count, @SpanAttribute("ratio") Double ratio,
+                       @SpanTag boolean flag, @SpanTag("name") String name) {
+    }
+
+    @NewSpan
+    public void untagged(String ignored) {
+    }
+
+    @Executable
+    public void untraced(@SpanTag("count") int count) {
+    }
+}
+''')
+        def tagged = definition.getRequiredMethod('tagged', String, int, Double, boolean, String)
+        def untagged = definition.getRequiredMethod('untagged', String)
+        def untraced = definition.getRequiredMethod('untraced', int)
+        AnnotationValue<SpanTagIndex> index = tagged.getAnnotation(SpanTagIndex)
+
+        expect:
+        index.intValues('indexes') == [1, 2, 3, 4] as int[]
+        index.stringValues('names') == ['count', 'ratio', 'flag', 'name'] as String[]
+        index.stringValues('types') == ['LONG', 'DOUBLE', 'BOOLEAN', 'STRING'] as String[]
+        !untagged.hasAnnotation(SpanTagIndex)
+        !untraced.hasAnnotation(SpanTagIndex)
+    }
+}
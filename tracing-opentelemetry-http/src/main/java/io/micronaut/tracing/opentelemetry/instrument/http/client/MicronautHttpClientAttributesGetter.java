@@ -20,6 +20,7 @@ import io.micronaut.core.annotation.Nullable;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpVersion;
 import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.tracing.opentelemetry.utils.AttributeValueCache;
 import io.opentelemetry.instrumentation.api.instrumenter.http.HttpClientAttributesGetter;
 
 import java.util.List;
@@ -36,10 +37,11 @@ enum MicronautHttpClientAttributesGetter implements HttpClientAttributesGetter<M
     INSTANCE;
 
     private static final Map<HttpVersion, String> PROTOCOL_VERSION = Map.of(HTTP_1_0, "1.0", HTTP_1_1, "1.1", HTTP_2_0, "2.0");
+    private static final AttributeValueCache VALUES = new AttributeValueCache();
 
     @Override
     public String getHttpRequestMethod(MutableHttpRequest<Object> request) {
-        return request.getMethodName();
+        return VALUES.get(request.getMethodName());
     }
 
     @Override
@@ -71,9 +73,9 @@ enum MicronautHttpClientAttributesGetter implements HttpClientAttributesGetter<M
     @Override
     @Nullable
     public String getServerAddress(MutableHttpRequest<Object> request) {
-        return request.getAttribute(SERVICE_ID, String.class)
+        return VALUES.get(request.getAttribute(SERVICE_ID, String.class)
             .filter(serviceId -> !serviceId.contains("/"))
-            .orElseGet(() -> request.getRemoteAddress().getHostString());
+            .orElseGet(() -> request.getRemoteAddress().getHostString()));
     }
 
     @Override
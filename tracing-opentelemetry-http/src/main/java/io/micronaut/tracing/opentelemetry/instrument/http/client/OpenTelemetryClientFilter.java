@@ -27,13 +27,16 @@ import io.micronaut.http.filter.HttpClientFilter;
 import io.micronaut.tracing.annotation.ContinueSpan;
 import io.micronaut.tracing.opentelemetry.OpenTelemetryPropagationContext;
 import io.micronaut.tracing.opentelemetry.instrument.http.AbstractOpenTelemetryFilter;
+import io.micronaut.tracing.opentelemetry.instrument.util.ExceptionRecorder;
 import io.micronaut.tracing.opentelemetry.instrument.util.OpenTelemetryExclusionsConfiguration;
 import io.micronaut.tracing.opentelemetry.interceptor.AbstractOpenTelemetryTraceInterceptor;
+import io.micronaut.tracing.opentelemetry.interceptor.ContinueSpanOpenTelemetryTraceInterceptor;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
+import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
@@ -52,6 +55,9 @@ import static io.micronaut.tracing.opentelemetry.instrument.http.client.OpenTele
 public final class OpenTelemetryClientFilter extends AbstractOpenTelemetryFilter implements HttpClientFilter {
 
     private final Instrumenter<MutableHttpRequest<?>, Object> instrumenter;
+    private final ExceptionRecorder exceptionRecorder;
+    @Nullable
+    private final ContinueSpanOpenTelemetryTraceInterceptor continueSpanInterceptor;
 
     /**
      * Initialize the open tracing client filter with tracer and exclusion configuration.
@@ -61,8 +67,27 @@ public final class OpenTelemetryClientFilter extends AbstractOpenTelemetryFilter
      */
     public OpenTelemetryClientFilter(@Nullable OpenTelemetryExclusionsConfiguration exclusionsConfig,
                                      @Named("micronautHttpClientTelemetryInstrumenter") Instrumenter<MutableHttpRequest<?>, Object> instrumenter) {
+        this(exclusionsConfig, instrumenter, ExceptionRecorder.DEFAULT, null);
+    }
+
+    /**
+     * Initialize the open tracing client filter with tracer, exclusion configuration and exception recorder.
+     *
+     * @param exclusionsConfig The {@link OpenTelemetryExclusionsConfiguration}
+     * @param instrumenter The {@link OpenTelemetryHttpClientConfig}
+     * @param exceptionRecorder The {@link ExceptionRecorder}
+     * @param continueSpanInterceptor The interceptor caching the {@code SpanTag} arguments of {@code ContinueSpan} methods
+     * @since 6.9.0
+     */
+    @Inject
+    public OpenTelemetryClientFilter(@Nullable OpenTelemetryExclusionsConfiguration exclusionsConfig,
+                                     @Named("micronautHttpClientTelemetryInstrumenter") Instrumenter<MutableHttpRequest<?>, Object> instrumenter,
+                                     ExceptionRecorder exceptionRecorder,
+                                     @Nullable ContinueSpanOpenTelemetryTraceInterceptor continueSpanInterceptor) {
         super(exclusionsConfig == null ? null : exclusionsConfig.exclusionTest());
         this.instrumenter = instrumenter;
+        this.exceptionRecorder = exceptionRecorder;
+        this.continueSpanInterceptor = continueSpanInterceptor;
     }
 
     @Override
@@ -81,7 +106,7 @@ public final class OpenTelemetryClientFilter extends AbstractOpenTelemetryFilter
         Context context = instrumenter.start(parentContext, request);
 
         try (Scope ignored = context.makeCurrent()) {
-            handleContinueSpan(request);
+            handleContinueSpan(request, context);
 
             try (PropagatedContext.Scope ignore = PropagatedContext.getOrEmpty()
                 .plus(new OpenTelemetryPropagationContext(context))
@@ -90,21 +115,26 @@ public final class OpenTelemetryClientFilter extends AbstractOpenTelemetryFilter
                 return Mono.from(chain.proceed(request))
                     .doOnNext(mutableHttpResponse -> instrumenter.end(context, request, mutableHttpResponse, null))
                     .doOnError(throwable -> {
-                        Span span = Span.fromContext(context);
-                        span.recordException(throwable);
-                        span.setStatus(StatusCode.ERROR);
-                        instrumenter.end(context, request, null, throwable);
+                        Span.fromContext(context).setStatus(StatusCode.ERROR);
+                        instrumenter.end(exceptionRecorder.onEnd(context, throwable), request, null, throwable);
                     });
 
             }
         }
     }
 
-    private void handleContinueSpan(MutableHttpRequest<?> request) {
+    private void handleContinueSpan(MutableHttpRequest<?> request, Context otelContext) {
+        if (!Span.fromContext(otelContext).isRecording()) {
+            return;
+        }
         Object invocationContext = request.getAttribute(INVOCATION_CONTEXT).orElse(null);
         if (invocationContext instanceof MethodInvocationContext<?, ?> context) {
             if (context.hasAnnotation(ContinueSpan.class)) {
-                AbstractOpenTelemetryTraceInterceptor.tagArguments(context);
+                if (continueSpanInterceptor != null) {
+                    continueSpanInterceptor.tagCurrentSpan(context);
+                } else {
+                    AbstractOpenTelemetryTraceInterceptor.tagArguments(context);
+                }
             }
         }
     }
@@ -26,6 +26,7 @@ import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpVersion;
 import io.micronaut.http.uri.UriMatchTemplate;
+import io.micronaut.tracing.opentelemetry.utils.AttributeValueCache;
 import io.micronaut.web.router.UriRouteInfo;
 import io.opentelemetry.instrumentation.api.instrumenter.http.HttpServerAttributesGetter;
 
@@ -39,10 +40,11 @@ enum MicronautHttpServerAttributesGetter implements HttpServerAttributesGetter<H
     INSTANCE;
 
     private static final Map<HttpVersion, String> PROTOCOL_VERSION = Map.of(HTTP_1_0, "1.0", HTTP_1_1, "1.1", HTTP_2_0, "2.0");
+    private static final AttributeValueCache VALUES = new AttributeValueCache();
 
     @Override
     public String getHttpRequestMethod(HttpRequest<Object> request) {
-        return request.getMethodName();
+        return VALUES.get(request.getMethodName());
     }
 
     @Override
@@ -84,15 +86,15 @@ enum MicronautHttpServerAttributesGetter implements HttpServerAttributesGetter<H
             .map(ri -> (UriRouteInfo<?, ?>) ri)
             .map(UriRouteInfo::getUriMatchTemplate)
             .map(UriMatchTemplate::toPathString);
-        return routeInfo.orElseGet(() ->
+        return VALUES.get(routeInfo.orElseGet(() ->
             request.getAttribute(HttpAttributes.URI_TEMPLATE)
                 .map(Object::toString)
                 .orElse(null)
-        );
+        ));
     }
 
     @Override
     public String getUrlScheme(HttpRequest<Object> request) {
-        return request.getUri().getScheme();
+        return VALUES.get(request.getUri().getScheme());
     }
 }
@@ -28,12 +28,14 @@ import io.micronaut.http.filter.HttpServerFilter;
 import io.micronaut.http.filter.ServerFilterChain;
 import io.micronaut.tracing.opentelemetry.OpenTelemetryPropagationContext;
 import io.micronaut.tracing.opentelemetry.instrument.http.AbstractOpenTelemetryFilter;
+import io.micronaut.tracing.opentelemetry.instrument.util.ExceptionRecorder;
 import io.micronaut.tracing.opentelemetry.instrument.util.OpenTelemetryExclusionsConfiguration;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
+import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
@@ -55,6 +57,7 @@ public final class OpenTelemetryServerFilter extends AbstractOpenTelemetryFilter
     private static final String CONTINUE = OpenTelemetryServerFilter.class.getName() + "-continue";
 
     private final Instrumenter<HttpRequest<?>, Object> instrumenter;
+    private final ExceptionRecorder exceptionRecorder;
 
     /**
      * @param exclusionsConfig The {@link OpenTelemetryExclusionsConfiguration}
@@ -62,9 +65,23 @@ public final class OpenTelemetryServerFilter extends AbstractOpenTelemetryFilter
      */
     public OpenTelemetryServerFilter(@Nullable OpenTelemetryExclusionsConfiguration exclusionsConfig,
                                      @Named("micronautHttpServerTelemetryInstrumenter") Instrumenter<HttpRequest<?>, Object> instrumenter) {
+        this(exclusionsConfig, instrumenter, ExceptionRecorder.DEFAULT);
+    }
+
+    /**
+     * @param exclusionsConfig  The {@link OpenTelemetryExclusionsConfiguration}
+     * @param instrumenter      The {@link OpenTelemetryHttpServerConfig}
+     * @param exceptionRecorder The {@link ExceptionRecorder}
+     * @since 6.9.0
+     */
+    @Inject
+    public OpenTelemetryServerFilter(@Nullable OpenTelemetryExclusionsConfiguration exclusionsConfig,
+                                     @Named("micronautHttpServerTelemetryInstrumenter") Instrumenter<HttpRequest<?>, Object> instrumenter,
+                                     ExceptionRecorder exceptionRecorder) {
         super(exclusionsConfig == null ? null : exclusionsConfig.exclusionTest());
 
         this.instrumenter = instrumenter;
+        this.exceptionRecorder = exceptionRecorder;
     }
 
     @Override
@@ -107,12 +124,8 @@ public final class OpenTelemetryServerFilter extends AbstractOpenTelemetryFilter
 
     private void onError(HttpRequest<?> request, Context context,
                          @Nullable MutableHttpResponse<?> mutableHttpResponse, @Nullable Throwable e) {
-        Span span = Span.fromContext(context);
-        if (e != null) {
-            span.recordException(e);
-        }
-        span.setStatus(StatusCode.ERROR);
-        instrumenter.end(context, request, mutableHttpResponse, e);
+        Span.fromContext(context).setStatus(StatusCode.ERROR);
+        instrumenter.end(exceptionRecorder.onEnd(context, e), request, mutableHttpResponse, e);
         request.setAttribute(CONTINUE, true);
     }
 }
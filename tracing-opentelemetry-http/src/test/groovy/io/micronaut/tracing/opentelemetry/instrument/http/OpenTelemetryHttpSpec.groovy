@@ -214,6 +214,7 @@ class OpenTelemetryHttpSpec extends Specification {
         conditions.eventually {
             hasSpans(spanCount - 1, Math.max(spanCount - 1, 1), 0)
             exporter.finishedSpanItems.events.any { it.size() > 0 && it.get(0).name == "exception" }
+            exporter.finishedSpanItems.every { span -> span.events.count { it.name == "exception" } <= 1 }
             exporter.finishedSpanItems.stream().allMatch(span -> span.status.statusCode == StatusCode.ERROR)
             hasHttpSemanticAttributes(e.status)
         }
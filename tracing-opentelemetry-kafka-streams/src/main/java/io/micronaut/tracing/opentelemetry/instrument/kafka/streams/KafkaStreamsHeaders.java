@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Reads and writes the propagated trace context in Kafka record headers.
+ *
+ * @since 6.9.0
+ */
+@Internal
+enum KafkaStreamsHeaders implements TextMapGetter<Headers>, TextMapSetter<Headers> {
+
+    INSTANCE;
+
+    @Override
+    public Iterable<String> keys(Headers headers) {
+        List<String> keys = new ArrayList<>();
+        for (Header header : headers) {
+            keys.add(header.key());
+        }
+        return keys;
+    }
+
+    @Override
+    @Nullable
+    public String get(@Nullable Headers headers, String key) {
+        if (headers == null) {
+            return null;
+        }
+        Header header = headers.lastHeader(key);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void set(@Nullable Headers headers, String key, String value) {
+        if (headers == null) {
+            return;
+        }
+        headers.remove(key);
+        headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
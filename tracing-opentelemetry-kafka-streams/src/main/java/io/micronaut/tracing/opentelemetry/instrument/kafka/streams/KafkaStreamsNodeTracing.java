@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.propagation.PropagatedContext;
+import io.micronaut.tracing.opentelemetry.OpenTelemetryPropagationContext;
+import io.micronaut.tracing.opentelemetry.utils.AttributeValueCache;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.streams.processor.api.ProcessingContext;
+import org.apache.kafka.streams.processor.api.RecordMetadata;
+
+/**
+ * Traces the records processed by a processor node. A source node extracts the trace context from
+ * the record headers and starts a consumer span when the upstream trace is sampled, or, for records
+ * without a trace context, when the task sampler allows it. The span is injected in the headers, so
+ * that the downstream nodes and the sinks continue the trace. Other nodes continue
+ * the current trace context, or the one of the record headers, and only start a span when node spans
+ * are enabled and the record is traced. A processor node is used by a single thread at a time, so the
+ * state of the record being processed is kept in fields.
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class KafkaStreamsNodeTracing {
+
+    static final AttributeKey<String> APPLICATION_ID = AttributeKey.stringKey("messaging.kafka.streams.application_id");
+    static final AttributeKey<String> NODE_NAME = AttributeKey.stringKey("messaging.kafka.streams.node.name");
+    static final AttributeKey<String> TASK_ID = AttributeKey.stringKey("messaging.kafka.streams.task.id");
+    /**
+     * Shares the topic names between the spans waiting to be exported.
+     */
+    static final AttributeValueCache TOPICS = new AttributeValueCache();
+
+    private static final AttributeKey<String> MESSAGING_SYSTEM = AttributeKey.stringKey("messaging.system");
+    private static final AttributeKey<String> MESSAGING_OPERATION = AttributeKey.stringKey("messaging.operation");
+    private static final AttributeKey<String> DESTINATION_NAME = AttributeKey.stringKey("messaging.destination.name");
+    private static final AttributeKey<String> PARTITION_ID = AttributeKey.stringKey("messaging.destination.partition.id");
+    private static final AttributeKey<Long> MESSAGE_OFFSET = AttributeKey.longKey("messaging.kafka.message.offset");
+    private static final AttributeKey<String> CONSUMER_GROUP = AttributeKey.stringKey("messaging.kafka.consumer.group");
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final KafkaStreamsTelemetry telemetry;
+    private final String name;
+    private final boolean source;
+
+    private ProcessingContext context;
+    private String taskId;
+    @Nullable
+    private KafkaStreamsTaskSampler sampler;
+    @Nullable
+    private Attributes metricAttributes;
+
+    private long startNanos;
+    @Nullable
+    private Span span;
+    @Nullable
+    private PropagatedContext.Scope scope;
+
+    /**
+     * @param telemetry the Kafka Streams telemetry
+     * @param name the name of the processor node
+     * @param source whether the node is a source of the traces
+     */
+    KafkaStreamsNodeTracing(KafkaStreamsTelemetry telemetry, String name, boolean source) {
+        this.telemetry = telemetry;
+        this.name = name;
+        this.source = source;
+    }
+
+    /**
+     * @param context the context of the processor node
+     */
+    void init(ProcessingContext context) {
+        this.context = context;
+        taskId = context.taskId().toString();
+        if (source) {
+            sampler = telemetry.taskSampler(context.applicationId(), taskId);
+        }
+        if (telemetry.nodeDuration() != null) {
+            metricAttributes = Attributes.of(APPLICATION_ID, context.applicationId(), NODE_NAME, name);
+        }
+    }
+
+    /**
+     * Starts the processing of a record.
+     *
+     * @param headers the headers of the record
+     */
+    void start(Headers headers) {
+        if (metricAttributes != null) {
+            startNanos = System.nanoTime();
+        }
+        Context current = Context.current();
+        Context nodeContext;
+        if (source) {
+            nodeContext = telemetry.propagator().extract(current, headers, KafkaStreamsHeaders.INSTANCE);
+            SpanContext upstream = Span.fromContext(nodeContext).getSpanContext();
+            // only new traces use the budget of the task, upstream decisions are kept
+            if (upstream.isValid() ? upstream.isSampled() : sampler.sample(System.nanoTime())) {
+                span = sourceSpan(nodeContext);
+                nodeContext = nodeContext.with(span);
+                telemetry.propagator().inject(nodeContext, headers, KafkaStreamsHeaders.INSTANCE);
+            }
+        } else {
+            nodeContext = current;
+            if (!Span.fromContext(current).getSpanContext().isValid()) {
+                nodeContext = telemetry.propagator().extract(current, headers, KafkaStreamsHeaders.INSTANCE);
+            }
+            if (telemetry.configuration().isNodeSpans() && isTraced(nodeContext)) {
+                span = telemetry.tracer().spanBuilder(name)
+                    .setParent(nodeContext)
+                    .setSpanKind(SpanKind.INTERNAL)
+                    .setAttribute(NODE_NAME, name)
+                    .setAttribute(TASK_ID, taskId)
+                    .startSpan();
+                nodeContext = nodeContext.with(span);
+            }
+        }
+        if (nodeContext != current) {
+            scope = PropagatedContext.getOrEmpty()
+                .plus(new OpenTelemetryPropagationContext(nodeContext))
+                .propagate();
+        }
+    }
+
+    /**
+     * Ends the processing of the record.
+     *
+     * @param error the error thrown by the processor, if any
+     */
+    void end(@Nullable Throwable error) {
+        if (scope != null) {
+            scope.close();
+            scope = null;
+        }
+        if (span != null) {
+            if (error != null) {
+                span.recordException(error);
+                span.setStatus(StatusCode.ERROR);
+            }
+            span.end();
+            span = null;
+        }
+        if (metricAttributes != null) {
+            telemetry.nodeDuration().record((System.nanoTime() - startNanos) / NANOS_PER_SECOND, metricAttributes);
+        }
+    }
+
+    /**
+     * @param context the context
+     * @return whether the context holds a span of a record traced by this process
+     */
+    static boolean isTraced(Context context) {
+        SpanContext spanContext = Span.fromContext(context).getSpanContext();
+        return spanContext.isSampled() && !spanContext.isRemote();
+    }
+
+    private Span sourceSpan(Context parentContext) {
+        RecordMetadata metadata = context.recordMetadata().orElse(null);
+        String topic = metadata != null ? metadata.topic() : null;
+        SpanBuilder builder = telemetry.tracer().spanBuilder((topic != null ? topic : name) + " process")
+            .setParent(parentContext)
+            .setSpanKind(SpanKind.CONSUMER)
+            .setAttribute(MESSAGING_SYSTEM, "kafka")
+            .setAttribute(MESSAGING_OPERATION, "process")
+            .setAttribute(CONSUMER_GROUP, context.applicationId())
+            .setAttribute(NODE_NAME, name)
+            .setAttribute(TASK_ID, taskId);
+        if (topic != null) {
+            builder.setAttribute(DESTINATION_NAME, TOPICS.get(topic))
+                .setAttribute(PARTITION_ID, String.valueOf(metadata.partition()))
+                .setAttribute(MESSAGE_OFFSET, metadata.offset());
+        }
+        return builder.startSpan();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams;
+
+import io.micronaut.core.annotation.Internal;
+
+/**
+ * Decides which records of a stream task are traced, so that at most a given number of records
+ * are traced per task and second, whatever the throughput of the task. A task is processed by a
+ * single stream thread at a time, so the sampler is not synchronized.
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class KafkaStreamsTaskSampler {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final long intervalNanos;
+    private final boolean disabled;
+    private long nextNanos;
+
+    /**
+     * @param rate the maximum number of records traced per second
+     * @param nowNanos the current {@link System#nanoTime()}
+     */
+    KafkaStreamsTaskSampler(double rate, long nowNanos) {
+        disabled = !(rate > 0);
+        intervalNanos = disabled ? Long.MAX_VALUE : (long) (NANOS_PER_SECOND / rate);
+        nextNanos = nowNanos;
+    }
+
+    /**
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return whether the record processed now is traced
+     */
+    boolean sample(long nowNanos) {
+        if (disabled || nowNanos - nextNanos < 0) {
+            return false;
+        }
+        nextNanos = nowNanos + intervalNanos;
+        return true;
+    }
+}
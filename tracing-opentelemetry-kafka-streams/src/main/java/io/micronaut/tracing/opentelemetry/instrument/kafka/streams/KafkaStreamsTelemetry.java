@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorSupplier;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.state.StoreBuilder;
+
+import jakarta.inject.Singleton;
+
+/**
+ * Entrypoint to trace Kafka Streams topologies. Kafka Streams has no hook to wrap the processor nodes
+ * of a topology, so the traced nodes are added to the topology explicitly:
+ *
+ * <pre>{@code
+ * builder.stream("orders")
+ *     .processValues(kafkaStreamsTelemetry.source("orders"))
+ *     .processValues(kafkaStreamsTelemetry.wrapValues("enrich", EnrichProcessor::new))
+ *     .to("enriched-orders");
+ * }</pre>
+ *
+ * <p>The source starts the traces, at most {@link KafkaStreamsTelemetryConfiguration#getTaskSampleRate()}
+ * per stream task and second, and the sinks of the {@code ConfiguredStreamBuilder} beans add a
+ * producer span to the records of these traces.</p>
+ *
+ * @since 6.9.0
+ */
+@Singleton
+public final class KafkaStreamsTelemetry {
+
+    static final String INSTRUMENTATION_NAME = "io.micronaut.tracing.kafka-streams";
+    static final String NODE_DURATION = "messaging.kafka.streams.node.duration";
+
+    private final KafkaStreamsTelemetryConfiguration configuration;
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+    @Nullable
+    private final DoubleHistogram nodeDuration;
+    private final Map<String, KafkaStreamsTaskSampler> taskSamplers = new ConcurrentHashMap<>();
+
+    /**
+     * @param openTelemetry the openTelemetry
+     * @param configuration the Kafka Streams instrumentation configuration
+     */
+    public KafkaStreamsTelemetry(OpenTelemetry openTelemetry, KafkaStreamsTelemetryConfiguration configuration) {
+        this.configuration = configuration;
+        tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        propagator = openTelemetry.getPropagators().getTextMapPropagator();
+        nodeDuration = configuration.isNodeMetrics()
+            ? openTelemetry.getMeter(INSTRUMENTATION_NAME).histogramBuilder(NODE_DURATION)
+                .setDescription("The time a processor node takes to process a record, including the downstream nodes it forwards the record to")
+                .setUnit("s")
+                .build()
+            : null;
+    }
+
+    /**
+     * Creates a processor that forwards the records unchanged, and starts the traces of the sampled records.
+     *
+     * @param name the name of the source, used when the topic of a record is unknown
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the processor supplier
+     */
+    public <K, V> FixedKeyProcessorSupplier<K, V, V> source(String name) {
+        return () -> new TracingFixedKeyProcessor<>(new ForwardingProcessor<>(), new KafkaStreamsNodeTracing(this, name, true));
+    }
+
+    /**
+     * Wraps the processors of a node, so that they run in the trace context of the records, get a span
+     * when node spans are enabled, and record their processing time when node metrics are enabled.
+     *
+     * @param name the name of the node
+     * @param supplier the processor supplier
+     * @param <KIn> the input key type
+     * @param <VIn> the input value type
+     * @param <KOut> the output key type
+     * @param <VOut> the output value type
+     * @return the wrapped processor supplier
+     */
+    public <KIn, VIn, KOut, VOut> ProcessorSupplier<KIn, VIn, KOut, VOut> wrap(String name, ProcessorSupplier<KIn, VIn, KOut, VOut> supplier) {
+        return new ProcessorSupplier<>() {
+            @Override
+            public Processor<KIn, VIn, KOut, VOut> get() {
+                return new TracingProcessor<>(supplier.get(), new KafkaStreamsNodeTracing(KafkaStreamsTelemetry.this, name, false));
+            }
+
+            @Override
+            public Set<StoreBuilder<?>> stores() {
+                return supplier.stores();
+            }
+        };
+    }
+
+    /**
+     * Wraps the processors of a node that doesn't change the keys, like {@link #wrap(String, ProcessorSupplier)}.
+     *
+     * @param name the name of the node
+     * @param supplier the processor supplier
+     * @param <KIn> the key type
+     * @param <VIn> the input value type
+     * @param <VOut> the output value type
+     * @return the wrapped processor supplier
+     */
+    public <KIn, VIn, VOut> FixedKeyProcessorSupplier<KIn, VIn, VOut> wrapValues(String name, FixedKeyProcessorSupplier<KIn, VIn, VOut> supplier) {
+        return new FixedKeyProcessorSupplier<>() {
+            @Override
+            public FixedKeyProcessor<KIn, VIn, VOut> get() {
+                return new TracingFixedKeyProcessor<>(supplier.get(), new KafkaStreamsNodeTracing(KafkaStreamsTelemetry.this, name, false));
+            }
+
+            @Override
+            public Set<StoreBuilder<?>> stores() {
+                return supplier.stores();
+            }
+        };
+    }
+
+    KafkaStreamsTelemetryConfiguration configuration() {
+        return configuration;
+    }
+
+    Tracer tracer() {
+        return tracer;
+    }
+
+    TextMapPropagator propagator() {
+        return propagator;
+    }
+
+    @Nullable
+    DoubleHistogram nodeDuration() {
+        return nodeDuration;
+    }
+
+    /**
+     * @param applicationId the application ID
+     * @param taskId the task ID
+     * @return the sampler shared by the sources of the task
+     */
+    KafkaStreamsTaskSampler taskSampler(String applicationId, String taskId) {
+        return taskSamplers.computeIfAbsent(applicationId + '/' + taskId,
+            key -> new KafkaStreamsTaskSampler(configuration.getTaskSampleRate(), System.nanoTime()));
+    }
+
+    /**
+     * Forwards the records unchanged.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    private static final class ForwardingProcessor<K, V> implements FixedKeyProcessor<K, V, V> {
+
+        private FixedKeyProcessorContext<K, V> context;
+
+        @Override
+        public void init(FixedKeyProcessorContext<K, V> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void process(FixedKeyRecord<K, V> record) {
+            context.forward(record);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+
+/**
+ * Configuration of the Kafka Streams instrumentation.
+ *
+ * @since 6.9.0
+ */
+@Requires(property = KafkaStreamsTelemetryConfiguration.PREFIX + ".enabled", notEquals = StringUtils.FALSE)
+@ConfigurationProperties(KafkaStreamsTelemetryConfiguration.PREFIX)
+public class KafkaStreamsTelemetryConfiguration {
+
+    /**
+     * The prefix used for Kafka Streams instrumentation configuration.
+     */
+    public static final String PREFIX = "otel.instrumentation.kafka-streams";
+
+    /**
+     * The default maximum number of records traced per task and second.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_TASK_SAMPLE_RATE = 1;
+
+    private double taskSampleRate = DEFAULT_TASK_SAMPLE_RATE;
+    private boolean sinkSpans = true;
+    private boolean nodeSpans;
+    private boolean nodeMetrics;
+
+    /**
+     * @return the maximum number of records traced per task and second
+     */
+    public double getTaskSampleRate() {
+        return taskSampleRate;
+    }
+
+    /**
+     * The maximum number of records traced per stream task and second. Fractions are allowed: 0.1 traces a
+     * record of each task every 10 seconds, and 0 only propagates the trace context. Default: {@value #DEFAULT_TASK_SAMPLE_RATE}.
+     *
+     * @param taskSampleRate the maximum number of records traced per task and second
+     */
+    public void setTaskSampleRate(double taskSampleRate) {
+        this.taskSampleRate = taskSampleRate;
+    }
+
+    /**
+     * @return whether the records sent by the sinks of traced records get producer spans
+     */
+    public boolean isSinkSpans() {
+        return sinkSpans;
+    }
+
+    /**
+     * Whether the records sent by the sinks of traced records get producer spans. Default: true.
+     *
+     * @param sinkSpans whether the records sent by the sinks of traced records get producer spans
+     */
+    public void setSinkSpans(boolean sinkSpans) {
+        this.sinkSpans = sinkSpans;
+    }
+
+    /**
+     * @return whether the wrapped processor nodes get a span for the traced records
+     */
+    public boolean isNodeSpans() {
+        return nodeSpans;
+    }
+
+    /**
+     * Whether the wrapped processor nodes get a span for the traced records. By default, only the sources
+     * and the sinks are traced. Default: false.
+     *
+     * @param nodeSpans whether the wrapped processor nodes get a span for the traced records
+     */
+    public void setNodeSpans(boolean nodeSpans) {
+        this.nodeSpans = nodeSpans;
+    }
+
+    /**
+     * @return whether the processing time of the wrapped processor nodes is recorded
+     */
+    public boolean isNodeMetrics() {
+        return nodeMetrics;
+    }
+
+    /**
+     * Whether the processing time of every record by the wrapped processor nodes is recorded in a histogram.
+     * Default: false.
+     *
+     * @param nodeMetrics whether the processing time of the wrapped processor nodes is recorded
+     */
+    public void setNodeMetrics(boolean nodeMetrics) {
+        this.nodeMetrics = nodeMetrics;
+    }
+}
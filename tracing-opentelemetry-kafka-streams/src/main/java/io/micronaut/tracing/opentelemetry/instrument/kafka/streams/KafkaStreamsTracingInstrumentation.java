@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import io.micronaut.configuration.kafka.streams.ConfiguredStreamBuilder;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.streams.StreamsConfig;
+
+import jakarta.inject.Singleton;
+
+/**
+ * Registers {@link TracingStreamsProducerInterceptor} in the producer configuration of the Kafka
+ * Streams created by Micronaut, so that their sinks continue the traces of the records.
+ *
+ * @since 6.9.0
+ */
+@Singleton
+public class KafkaStreamsTracingInstrumentation implements BeanCreatedEventListener<ConfiguredStreamBuilder> {
+
+    private final KafkaStreamsTelemetry kafkaStreamsTelemetry;
+
+    /**
+     * @param kafkaStreamsTelemetry The Kafka Streams telemetry
+     */
+    public KafkaStreamsTracingInstrumentation(KafkaStreamsTelemetry kafkaStreamsTelemetry) {
+        this.kafkaStreamsTelemetry = kafkaStreamsTelemetry;
+    }
+
+    @Override
+    public ConfiguredStreamBuilder onCreated(BeanCreatedEvent<ConfiguredStreamBuilder> event) {
+        ConfiguredStreamBuilder builder = event.getBean();
+        Properties config = builder.getConfiguration();
+        String key = StreamsConfig.producerPrefix(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG);
+        Object interceptors = config.get(key);
+        if (interceptors == null) {
+            // the prefixed property overrides the one shared by all the clients
+            interceptors = config.get(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG);
+        }
+        config.put(key, withInterceptor(interceptors));
+        config.put(StreamsConfig.producerPrefix(TracingStreamsProducerInterceptor.CONFIG_KEY_TELEMETRY), kafkaStreamsTelemetry);
+        return builder;
+    }
+
+    /**
+     * Appends the interceptor to the configured interceptors, which can be a comma separated list of
+     * class names, a list of class names and classes, or a single class.
+     *
+     * @param interceptors the configured interceptors, if any
+     * @return the interceptors including {@link TracingStreamsProducerInterceptor}
+     */
+    private static List<Object> withInterceptor(@Nullable Object interceptors) {
+        List<Object> classes = new ArrayList<>();
+        if (interceptors instanceof Class<?>) {
+            classes.add(interceptors);
+        } else if (interceptors != null) {
+            classes.addAll((List<?>) ConfigDef.parseType(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, interceptors, ConfigDef.Type.LIST));
+        }
+        String interceptor = TracingStreamsProducerInterceptor.class.getName();
+        for (Object configured : classes) {
+            if (interceptor.equals(configured instanceof Class<?> type ? type.getName() : configured.toString().trim())) {
+                return classes;
+            }
+        }
+        classes.add(interceptor);
+        return classes;
+    }
+}
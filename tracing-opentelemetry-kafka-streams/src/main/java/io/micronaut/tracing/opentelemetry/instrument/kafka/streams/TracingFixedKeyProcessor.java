@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams;
+
+import io.micronaut.core.annotation.Internal;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+/**
+ * A fixed key processor traced by {@link KafkaStreamsNodeTracing}.
+ *
+ * @param <KIn> the key type
+ * @param <VIn> the input value type
+ * @param <VOut> the output value type
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class TracingFixedKeyProcessor<KIn, VIn, VOut> implements FixedKeyProcessor<KIn, VIn, VOut> {
+
+    private final FixedKeyProcessor<KIn, VIn, VOut> delegate;
+    private final KafkaStreamsNodeTracing tracing;
+
+    TracingFixedKeyProcessor(FixedKeyProcessor<KIn, VIn, VOut> delegate, KafkaStreamsNodeTracing tracing) {
+        this.delegate = delegate;
+        this.tracing = tracing;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<KIn, VOut> context) {
+        tracing.init(context);
+        delegate.init(context);
+    }
+
+    @Override
+    public void process(FixedKeyRecord<KIn, VIn> record) {
+        tracing.start(record.headers());
+        Throwable error = null;
+        try {
+            delegate.process(record);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            tracing.end(error);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
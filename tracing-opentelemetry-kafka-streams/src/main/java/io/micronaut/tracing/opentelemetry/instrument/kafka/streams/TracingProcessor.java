@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams;
+
+import io.micronaut.core.annotation.Internal;
+
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+/**
+ * A processor traced by {@link KafkaStreamsNodeTracing}.
+ *
+ * @param <KIn> the input key type
+ * @param <VIn> the input value type
+ * @param <KOut> the output key type
+ * @param <VOut> the output value type
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class TracingProcessor<KIn, VIn, KOut, VOut> implements Processor<KIn, VIn, KOut, VOut> {
+
+    private final Processor<KIn, VIn, KOut, VOut> delegate;
+    private final KafkaStreamsNodeTracing tracing;
+
+    TracingProcessor(Processor<KIn, VIn, KOut, VOut> delegate, KafkaStreamsNodeTracing tracing) {
+        this.delegate = delegate;
+        this.tracing = tracing;
+    }
+
+    @Override
+    public void init(ProcessorContext<KOut, VOut> context) {
+        tracing.init(context);
+        delegate.init(context);
+    }
+
+    @Override
+    public void process(Record<KIn, VIn> record) {
+        tracing.start(record.headers());
+        Throwable error = null;
+        try {
+            delegate.process(record);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            tracing.end(error);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams;
+
+import java.util.Map;
+import java.util.Objects;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+/**
+ * Adds a producer span to the records sent by the sinks of a Kafka Streams topology while a traced
+ * record is processed. The records of the other traces keep the headers of the records they derive
+ * from, so their trace context is propagated without a span. The spans end when the records are sent,
+ * because the acknowledgements can't be correlated with the records.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class TracingStreamsProducerInterceptor<K, V> implements ProducerInterceptor<K, V> {
+
+    /**
+     * The client configuration key of the {@link KafkaStreamsTelemetry}.
+     */
+    static final String CONFIG_KEY_TELEMETRY = "micronaut.otel.kafka-streams.telemetry";
+
+    private static final AttributeKey<String> MESSAGING_SYSTEM = AttributeKey.stringKey("messaging.system");
+    private static final AttributeKey<String> MESSAGING_OPERATION = AttributeKey.stringKey("messaging.operation");
+    private static final AttributeKey<String> DESTINATION_NAME = AttributeKey.stringKey("messaging.destination.name");
+    private static final AttributeKey<String> CLIENT_ID = AttributeKey.stringKey("messaging.client_id");
+
+    @Nullable
+    private KafkaStreamsTelemetry telemetry;
+    @Nullable
+    private String clientId;
+
+    @Override
+    public ProducerRecord<K, V> onSend(ProducerRecord<K, V> record) {
+        if (telemetry == null) {
+            return record;
+        }
+        Context context = Context.current();
+        if (!KafkaStreamsNodeTracing.isTraced(context)) {
+            return record;
+        }
+        SpanBuilder builder = telemetry.tracer().spanBuilder(record.topic() + " publish")
+            .setParent(context)
+            .setSpanKind(SpanKind.PRODUCER)
+            .setAttribute(MESSAGING_SYSTEM, "kafka")
+            .setAttribute(MESSAGING_OPERATION, "publish")
+            .setAttribute(DESTINATION_NAME, KafkaStreamsNodeTracing.TOPICS.get(record.topic()));
+        if (clientId != null) {
+            builder.setAttribute(CLIENT_ID, clientId);
+        }
+        Span span = builder.startSpan();
+        telemetry.propagator().inject(context.with(span), record.headers(), KafkaStreamsHeaders.INSTANCE);
+        span.end();
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object kafkaStreamsTelemetry = configs.get(CONFIG_KEY_TELEMETRY);
+        if (kafkaStreamsTelemetry instanceof KafkaStreamsTelemetry streamsTelemetry && streamsTelemetry.configuration().isSinkSpans()) {
+            telemetry = streamsTelemetry;
+        }
+        clientId = Objects.toString(configs.get(ProducerConfig.CLIENT_ID_CONFIG), null);
+    }
+}
@@ -0,0 +1,220 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka.streams
+
+import io.micronaut.configuration.kafka.streams.ConfiguredStreamBuilder
+import io.micronaut.context.event.BeanCreatedEvent
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator
+import io.opentelemetry.context.propagation.ContextPropagators
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.metrics.SdkMeterProvider
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import org.apache.kafka.clients.producer.ProducerConfig
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.apache.kafka.common.header.internals.RecordHeaders
+import org.apache.kafka.common.serialization.Serdes
+import org.apache.kafka.streams.StreamsBuilder
+import org.apache.kafka.streams.StreamsConfig
+import org.apache.kafka.streams.TopologyTestDriver
+import org.apache.kafka.streams.kstream.Consumed
+import org.apache.kafka.streams.kstream.Produced
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorSupplier
+import org.apache.kafka.streams.processor.api.FixedKeyRecord
+import org.apache.kafka.streams.test.TestRecord
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.TimeUnit
+
+class KafkaStreamsTelemetrySpec extends Specification {
+
+    def spanExporter = InMemorySpanExporter.create()
+    def metricReader = InMemoryMetricReader.create()
+
+    @AutoCleanup
+    def openTelemetry = OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(spanExporter)).build())
+            .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(metricReader).build())
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build()
+
+    void "the source traces one record per task and second and injects its context"() {
+        given:
+        def driver = driver(new KafkaStreamsTelemetryConfiguration())
+
+        when:
+        def input = driver.createInputTopic("in", Serdes.String().serializer(), Serdes.String().serializer())
+        3.times { input.pipeInput("key", "value") }
+        def output = driver.createOutputTopic("out", Serdes.String().deserializer(), Serdes.String().deserializer()).readRecordsToList()
+        def spans = spanExporter.finishedSpanItems
+
+        then:
+        output*.value() == ["VALUE", "VALUE", "VALUE"]
+        spans.size() == 1
+        spans[0].name == "in process"
+        spans[0].kind == SpanKind.CONSUMER
+        new String(output[0].headers().lastHeader("traceparent").value(), StandardCharsets.UTF_8).contains(spans[0].traceId)
+        output[1].headers().lastHeader("traceparent") == null
+
+        cleanup:
+        driver.close()
+    }
+
+    void "the source keeps the sampling decision of the upstream trace without using the task budget"() {
+        given:
+        def driver = driver(new KafkaStreamsTelemetryConfiguration(taskSampleRate: 0))
+        def sampled = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01"
+        def unsampled = "00-0af7651916cd43dd8448eb211c80319d-b7ad6b7169203332-00"
+
+        when:
+        def input = driver.createInputTopic("in", Serdes.String().serializer(), Serdes.String().serializer())
+        [sampled, sampled, unsampled].each {
+            def headers = new RecordHeaders().add("traceparent", it.getBytes(StandardCharsets.UTF_8))
+            input.pipeInput(new TestRecord<String, String>("key", "value", headers))
+        }
+        def output = driver.createOutputTopic("out", Serdes.String().deserializer(), Serdes.String().deserializer()).readRecordsToList()
+        def spans = spanExporter.finishedSpanItems
+
+        then:
+        spans.size() == 2
+        spans.every { it.name == "in process" && it.traceId == "0af7651916cd43dd8448eb211c80319c" && it.parentSpanId == "b7ad6b7169203331" }
+        new String(output[2].headers().lastHeader("traceparent").value(), StandardCharsets.UTF_8) == unsampled
+
+        cleanup:
+        driver.close()
+    }
+
+    void "node spans are children of the source span"() {
+        given:
+        def driver = driver(new KafkaStreamsTelemetryConfiguration(nodeSpans: true))
+
+        when:
+        def input = driver.createInputTopic("in", Serdes.String().serializer(), Serdes.String().serializer())
+        2.times { input.pipeInput("key", "value") }
+        def spans = spanExporter.finishedSpanItems
+
+        then:
+        spans*.name == ["upper-case", "in process"]
+        spans[0].parentSpanId == spans[1].spanId
+
+        cleanup:
+        driver.close()
+    }
+
+    void "node metrics are recorded instead of spans"() {
+        given:
+        def driver = driver(new KafkaStreamsTelemetryConfiguration(taskSampleRate: 0, nodeMetrics: true))
+
+        when:
+        def input = driver.createInputTopic("in", Serdes.String().serializer(), Serdes.String().serializer())
+        5.times { input.pipeInput("key", "value") }
+        def metrics = metricReader.collectAllMetrics()
+
+        then:
+        spanExporter.finishedSpanItems.isEmpty()
+        metrics*.name == [KafkaStreamsTelemetry.NODE_DURATION]
+        metrics[0].histogramData.points*.count == [5L]
+        metrics[0].histogramData.points[0].attributes.get(KafkaStreamsNodeTracing.NODE_NAME) == "upper-case"
+
+        cleanup:
+        driver.close()
+    }
+
+    void "the task sampler traces at most the configured number of records per second"() {
+        given:
+        def halfSecond = TimeUnit.MILLISECONDS.toNanos(500)
+        def sampler = new KafkaStreamsTaskSampler(2, 0)
+
+        expect:
+        sampler.sample(0)
+        !sampler.sample(halfSecond - 1)
+        sampler.sample(halfSecond)
+        !new KafkaStreamsTaskSampler(0, 0).sample(0)
+    }
+
+    void "the sink interceptor only adds a producer span to traced records"() {
+        given:
+        def telemetry = new KafkaStreamsTelemetry(openTelemetry, new KafkaStreamsTelemetryConfiguration())
+        def interceptor = new TracingStreamsProducerInterceptor<String, String>()
+        interceptor.configure((TracingStreamsProducerInterceptor.CONFIG_KEY_TELEMETRY): telemetry)
+        def untraced = new ProducerRecord<String, String>("out", "value")
+        def traced = new ProducerRecord<String, String>("out", "value")
+
+        when:
+        interceptor.onSend(untraced)
+        def span = telemetry.tracer().spanBuilder("process").startSpan()
+        def scope = span.makeCurrent()
+        interceptor.onSend(traced)
+        scope.close()
+        span.end()
+        def spans = spanExporter.finishedSpanItems
+
+        then:
+        untraced.headers().lastHeader("traceparent") == null
+        traced.headers().lastHeader("traceparent") != null
+        spans*.name == ["out publish", "process"]
+        spans[0].kind == SpanKind.PRODUCER
+        spans[0].parentSpanId == span.spanContext.spanId
+    }
+
+    @Unroll
+    void "the sink interceptor is appended to the configured interceptors #interceptors"() {
+        given:
+        def instrumentation = new KafkaStreamsTracingInstrumentation(new KafkaStreamsTelemetry(openTelemetry, new KafkaStreamsTelemetryConfiguration()))
+        def properties = new Properties()
+        if (interceptors != null) {
+            properties.put(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, interceptors)
+        }
+        def builder = new ConfiguredStreamBuilder(properties)
+
+        when:
+        instrumentation.onCreated(Mock(BeanCreatedEvent) {
+            getBean() >> builder
+        })
+
+        then:
+        builder.configuration.get(StreamsConfig.producerPrefix(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG)) == result
+
+        where:
+        interceptors                                                        | result
+        null                                                                | [TracingStreamsProducerInterceptor.name]
+        "com.example.Interceptor"                                           | ["com.example.Interceptor", TracingStreamsProducerInterceptor.name]
+        "com.example.Interceptor," + TracingStreamsProducerInterceptor.name | ["com.example.Interceptor", TracingStreamsProducerInterceptor.name]
+        ["com.example.Interceptor", UpperCase]                              | ["com.example.Interceptor", UpperCase, TracingStreamsProducerInterceptor.name]
+        UpperCase                                                           | [UpperCase, TracingStreamsProducerInterceptor.name]
+    }
+
+    private TopologyTestDriver driver(KafkaStreamsTelemetryConfiguration configuration) {
+        def telemetry = new KafkaStreamsTelemetry(openTelemetry, configuration)
+        def builder = new StreamsBuilder()
+        builder.stream("in", Consumed.with(Serdes.String(), Serdes.String()))
+                .processValues(telemetry.source("source"))
+                .processValues(telemetry.wrapValues("upper-case", { -> new UpperCase() } as FixedKeyProcessorSupplier<String, String, String>))
+                .to("out", Produced.with(Serdes.String(), Serdes.String()))
+        def properties = new Properties()
+        properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "test")
+        properties.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092")
+        return new TopologyTestDriver(builder.build(), properties)
+    }
+
+    static class UpperCase implements FixedKeyProcessor<String, String, String> {
+
+        FixedKeyProcessorContext<String, String> context
+
+        @Override
+        void init(FixedKeyProcessorContext<String, String> context) {
+            this.context = context
+        }
+
+        @Override
+        void process(FixedKeyRecord<String, String> record) {
+            context.forward(record.withValue(record.value().toUpperCase()))
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the overhead of {@link MicronautOtelKafkaConsumer} on a poll and the iteration of the
+ * polled records, compared to the plain consumer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsumerPollBenchmark {
+
+    private static final String TOPIC = "benchmark";
+
+    @Param({"1000", "10000", "100000"})
+    int recordsPerPoll;
+
+    @Param({"on", "off", "excluded"})
+    String sampling;
+
+    private OpenTelemetrySdk openTelemetry;
+    private Consumer<String, String> plainConsumer;
+    private Consumer<String, String> tracingConsumer;
+
+    @Setup
+    public void setup() {
+        openTelemetry = OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder()
+                .setSampler("off".equals(sampling) ? Sampler.alwaysOff() : Sampler.alwaysOn())
+                .build())
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build();
+        KafkaTelemetryConfiguration configuration = new KafkaTelemetryConfiguration();
+        if ("excluded".equals(sampling)) {
+            configuration.setExcludedTopics(Collections.singleton(TOPIC));
+        }
+        KafkaTelemetry kafkaTelemetry = KafkaTelemetry.create(openTelemetry, configuration, Collections.emptyList(), Collections.emptyList());
+
+        ConsumerRecords<String, String> records = records(recordsPerPoll);
+        plainConsumer = new FixedPollConsumer(records);
+        tracingConsumer = new MicronautOtelKafkaConsumer<>(new FixedPollConsumer(records), kafkaTelemetry);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tracingConsumer.close();
+        openTelemetry.close();
+    }
+
+    @Benchmark
+    public void plain(Blackhole blackhole) {
+        consume(plainConsumer, blackhole);
+    }
+
+    @Benchmark
+    public void traced(Blackhole blackhole) {
+        consume(tracingConsumer, blackhole);
+    }
+
+    private static void consume(Consumer<String, String> consumer, Blackhole blackhole) {
+        for (ConsumerRecord<String, String> record : consumer.poll(Duration.ZERO)) {
+            blackhole.consume(record);
+        }
+    }
+
+    private static ConsumerRecords<String, String> records(int count) {
+        int partitions = 8;
+        Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new HashMap<>();
+        for (int p = 0; p < partitions; p++) {
+            List<ConsumerRecord<String, String>> partitionRecords = new ArrayList<>(count / partitions);
+            for (int i = p; i < count; i += partitions) {
+                ConsumerRecord<String, String> record = new ConsumerRecord<>(TOPIC, p, i, "key-" + i, "value-" + i);
+                record.headers().add("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01".getBytes());
+                partitionRecords.add(record);
+            }
+            records.put(new TopicPartition(TOPIC, p), partitionRecords);
+        }
+        return new ConsumerRecords<>(records);
+    }
+
+    /**
+     * A {@link MockConsumer} that returns the same records on every poll, so that the benchmark
+     * does not measure the mock's bookkeeping.
+     */
+    private static final class FixedPollConsumer extends MockConsumer<String, String> {
+
+        private final ConsumerRecords<String, String> records;
+
+        FixedPollConsumer(ConsumerRecords<String, String> records) {
+            super(OffsetResetStrategy.EARLIEST);
+            this.records = records;
+        }
+
+        @Override
+        public synchronized ConsumerRecords<String, String> poll(Duration timeout) {
+            return records;
+        }
+    }
+}
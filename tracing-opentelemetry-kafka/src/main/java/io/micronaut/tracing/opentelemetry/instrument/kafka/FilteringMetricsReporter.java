@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.micronaut.core.annotation.Internal;
+import io.opentelemetry.instrumentation.kafka.internal.OpenTelemetryMetricsReporter;
+
+import org.apache.kafka.common.metrics.KafkaMetric;
+import org.apache.kafka.common.metrics.MetricsReporter;
+
+/**
+ * A {@link MetricsReporter} that only passes the metrics accepted by a {@link KafkaMetricFilter}
+ * to {@link OpenTelemetryMetricsReporter}. It is instantiated by the Kafka clients, and the filter
+ * is passed in the client configuration.
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class FilteringMetricsReporter implements MetricsReporter {
+
+    /**
+     * The client configuration key of the {@link KafkaMetricFilter}.
+     */
+    static final String CONFIG_KEY_METRIC_FILTER = "micronaut.otel.kafka.metric-filter";
+
+    private final OpenTelemetryMetricsReporter delegate = new OpenTelemetryMetricsReporter();
+    private KafkaMetricFilter filter;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object metricFilter = configs.get(CONFIG_KEY_METRIC_FILTER);
+        if (!(metricFilter instanceof KafkaMetricFilter kafkaMetricFilter)) {
+            throw new IllegalStateException("Configuration property " + CONFIG_KEY_METRIC_FILTER + " is not a KafkaMetricFilter: " + metricFilter);
+        }
+        filter = kafkaMetricFilter;
+        delegate.configure(configs);
+    }
+
+    @Override
+    public void init(List<KafkaMetric> metrics) {
+        List<KafkaMetric> accepted = new ArrayList<>(metrics.size());
+        for (KafkaMetric metric : metrics) {
+            if (filter.accept(metric.metricName())) {
+                accepted.add(metric);
+            }
+        }
+        delegate.init(accepted);
+    }
+
+    @Override
+    public void metricChange(KafkaMetric metric) {
+        if (filter.accept(metric.metricName())) {
+            delegate.metricChange(metric);
+        }
+    }
+
+    @Override
+    public void metricRemoval(KafkaMetric metric) {
+        if (filter.accept(metric.metricName())) {
+            delegate.metricRemoval(metric);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
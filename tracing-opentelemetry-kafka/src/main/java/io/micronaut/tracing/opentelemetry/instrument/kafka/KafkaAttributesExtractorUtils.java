@@ -15,17 +15,9 @@
  */
 package io.micronaut.tracing.opentelemetry.instrument.kafka;
 
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
 import io.micronaut.core.annotation.Internal;
 import io.opentelemetry.api.common.AttributesBuilder;
 
-import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
 
 /**
@@ -36,86 +28,18 @@ import org.apache.kafka.common.header.Headers;
 @Internal
 public final class KafkaAttributesExtractorUtils {
 
-    private static final String[] EMPTY_STRING_ARRAY = new String[0];
-    private static final String DOT = ".";
-
     private KafkaAttributesExtractorUtils() {
     }
 
     /**
-     * Add message headers as span attributes.
+     * Add message headers as span attributes. The instrumentation reuses the compiled header
+     * configuration instead of calling this method for every record.
      *
      * @param kafkaTelemetryConfiguration kafkaTelemetryProperties
      * @param attributes attributes builder
      * @param headers kafka message headers
      */
     public static void putAttributes(KafkaTelemetryConfiguration kafkaTelemetryConfiguration, AttributesBuilder attributes, Headers headers) {
-        Set<String> capturedHeaders = kafkaTelemetryConfiguration.getCapturedHeaders();
-        if (capturedHeaders.contains(KafkaTelemetryConfiguration.ALL_HEADERS)) {
-            Map<String, Integer> counterMap = new HashMap<>();
-            for (Header header : headers) {
-                processHeader(kafkaTelemetryConfiguration, attributes, header, counterMap);
-            }
-        } else {
-            applyHeaders(kafkaTelemetryConfiguration, attributes, headers);
-        }
+        new KafkaHeaderAttributes(kafkaTelemetryConfiguration).capture(attributes, headers);
     }
-
-    private static void applyHeaders(KafkaTelemetryConfiguration kafkaTelemetryConfiguration, AttributesBuilder attributes, Headers headers) {
-        Set<String> capturedHeaders = kafkaTelemetryConfiguration.getCapturedHeaders();
-        if (kafkaTelemetryConfiguration.isHeadersAsLists()) {
-            applyHeadersAsList(kafkaTelemetryConfiguration, attributes, headers, capturedHeaders);
-        } else {
-            Map<String, Integer> counterMap = new HashMap<>();
-            for (String headerName : capturedHeaders) {
-                Header header = headers.lastHeader(headerName);
-                if (header != null) {
-                    processHeader(kafkaTelemetryConfiguration, attributes, header, counterMap);
-                }
-            }
-        }
-    }
-
-    private static void applyHeadersAsList(KafkaTelemetryConfiguration kafkaTelemetryConfiguration, AttributesBuilder attributes, Headers headers, Set<String> capturedHeaders) {
-        for (String headerName : capturedHeaders) {
-            List<String> values = null;
-            Iterable<Header> headersByName = headers.headers(headerName);
-            for (Header header : headersByName) {
-                if (values == null) {
-                    values = new ArrayList<>();
-                }
-                values.add(new String(header.value(), StandardCharsets.UTF_8));
-            }
-            if (values != null) {
-                String spanAttrName;
-                if (kafkaTelemetryConfiguration.isAttributeWithPrefix()) {
-                    spanAttrName = kafkaTelemetryConfiguration.getAttributePrefix() + headerName;
-                } else {
-                    spanAttrName = headerName;
-                }
-                attributes.put(spanAttrName, values.toArray(EMPTY_STRING_ARRAY));
-            }
-        }
-    }
-
-    private static void processHeader(KafkaTelemetryConfiguration kafkaTelemetryConfiguration, AttributesBuilder attributes, Header header, Map<String, Integer> counterMap) {
-        String headerValue = header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
-        if (headerValue == null) {
-            return;
-        }
-        String spanAttrName;
-        if (kafkaTelemetryConfiguration.isAttributeWithPrefix()) {
-            spanAttrName = kafkaTelemetryConfiguration.getAttributePrefix() + header.key();
-        } else {
-            spanAttrName = header.key();
-        }
-        Integer counter = counterMap.getOrDefault(spanAttrName, 0);
-        if (counter > 0) {
-            spanAttrName += DOT + counter;
-        }
-        counter++;
-        counterMap.put(spanAttrName, counter);
-        attributes.put(spanAttrName, headerValue);
-    }
-
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.logs.LoggerProvider;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TracerProvider;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import io.opentelemetry.instrumentation.kafka.internal.KafkaProcessRequest;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Propagates the span context through a compact binary Kafka header instead of the W3C
+ * {@code traceparent} text header. The header holds the 16-byte trace ID, the 8-byte span ID and
+ * the trace flags byte. The other fields of the wrapped propagator, such as {@code tracestate} and
+ * {@code baggage}, are propagated as before.
+ *
+ * <p>The binary header is only injected when enabled, but it is always understood on extraction.
+ * A {@code traceparent} text header takes precedence, so records produced without the binary
+ * format are still understood.</p>
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class KafkaBinaryTraceContextPropagator implements TextMapPropagator {
+
+    /**
+     * The name of the binary header.
+     */
+    static final String HEADER = "tpb";
+
+    private static final String TRACE_PARENT = "traceparent";
+    private static final String VERSION = "00";
+    private static final int TRACE_ID_BYTES = 16;
+    private static final int SPAN_ID_BYTES = 8;
+    private static final int LENGTH = TRACE_ID_BYTES + SPAN_ID_BYTES + 1;
+
+    private final TextMapPropagator delegate;
+    private final boolean injectBinary;
+
+    KafkaBinaryTraceContextPropagator(TextMapPropagator delegate, boolean injectBinary) {
+        this.delegate = delegate;
+        this.injectBinary = injectBinary;
+    }
+
+    /**
+     * Returns an {@link OpenTelemetry} that understands the binary header of Kafka records.
+     *
+     * @param openTelemetry the OpenTelemetry instance
+     * @param injectBinary whether the span context is injected in the binary header
+     *
+     * @return the OpenTelemetry instance with the binary propagation
+     */
+    static OpenTelemetry wrap(OpenTelemetry openTelemetry, boolean injectBinary) {
+        ContextPropagators propagators = ContextPropagators.create(
+            new KafkaBinaryTraceContextPropagator(openTelemetry.getPropagators().getTextMapPropagator(), injectBinary));
+        return new OpenTelemetry() {
+            @Override
+            public TracerProvider getTracerProvider() {
+                return openTelemetry.getTracerProvider();
+            }
+
+            @Override
+            public MeterProvider getMeterProvider() {
+                return openTelemetry.getMeterProvider();
+            }
+
+            @Override
+            public LoggerProvider getLogsBridge() {
+                return openTelemetry.getLogsBridge();
+            }
+
+            @Override
+            public ContextPropagators getPropagators() {
+                return propagators;
+            }
+        };
+    }
+
+    @Override
+    public Collection<String> fields() {
+        return delegate.fields();
+    }
+
+    @Override
+    public <C> void inject(Context context, @Nullable C carrier, TextMapSetter<C> setter) {
+        if (!injectBinary || !(carrier instanceof Headers headers)) {
+            delegate.inject(context, carrier, setter);
+            return;
+        }
+        SpanContext spanContext = Span.fromContext(context).getSpanContext();
+        if (!spanContext.isValid()) {
+            delegate.inject(context, carrier, setter);
+            return;
+        }
+        byte[] value = new byte[LENGTH];
+        System.arraycopy(spanContext.getTraceIdBytes(), 0, value, 0, TRACE_ID_BYTES);
+        System.arraycopy(spanContext.getSpanIdBytes(), 0, value, TRACE_ID_BYTES, SPAN_ID_BYTES);
+        value[LENGTH - 1] = spanContext.getTraceFlags().asByte();
+        headers.remove(TRACE_PARENT);
+        headers.remove(HEADER);
+        headers.add(HEADER, value);
+        delegate.inject(context, carrier, (c, key, v) -> {
+            if (!TRACE_PARENT.equals(key)) {
+                setter.set(c, key, v);
+            }
+        });
+    }
+
+    @Override
+    public <C> Context extract(Context context, @Nullable C carrier, TextMapGetter<C> getter) {
+        Headers headers = headers(carrier);
+        if (headers == null) {
+            return delegate.extract(context, carrier, getter);
+        }
+        return delegate.extract(context, carrier, new TextMapGetter<>() {
+            @Override
+            public Iterable<String> keys(C c) {
+                return getter.keys(c);
+            }
+
+            @Override
+            @Nullable
+            public String get(@Nullable C c, String key) {
+                String value = getter.get(c, key);
+                if (value == null && TRACE_PARENT.equals(key)) {
+                    return traceParent(headers);
+                }
+                return value;
+            }
+        });
+    }
+
+    @Nullable
+    private static Headers headers(@Nullable Object carrier) {
+        if (carrier instanceof Headers headers) {
+            return headers;
+        }
+        if (carrier instanceof ConsumerRecord<?, ?> record) {
+            return record.headers();
+        }
+        if (carrier instanceof KafkaProcessRequest request) {
+            // the carrier of the consumer process instrumenter
+            return request.getRecord().headers();
+        }
+        return null;
+    }
+
+    /**
+     * Converts the binary header to a W3C {@code traceparent} value.
+     *
+     * @param headers the record headers
+     *
+     * @return the traceparent value, or null if the record has no valid binary header
+     */
+    @Nullable
+    static String traceParent(Headers headers) {
+        Header header = headers.lastHeader(HEADER);
+        if (header == null || header.value() == null || header.value().length != LENGTH) {
+            return null;
+        }
+        byte[] value = header.value();
+        String traceId = TraceId.fromBytes(Arrays.copyOfRange(value, 0, TRACE_ID_BYTES));
+        String spanId = SpanId.fromBytes(Arrays.copyOfRange(value, TRACE_ID_BYTES, TRACE_ID_BYTES + SPAN_ID_BYTES));
+        if (!TraceId.isValid(traceId) || !SpanId.isValid(spanId)) {
+            return null;
+        }
+        return VERSION + '-' + traceId + '-' + spanId + '-' + TraceFlags.fromByte(value[LENGTH - 1]).asHex();
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.tracing.opentelemetry.instrument.kafka.KafkaTelemetryConfiguration.BinaryHeaderEncoding;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.AttributesBuilder;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Adds the captured record headers as span attributes. The attribute keys are created once per
+ * header name, header values are capped per value and per record, and values that are not UTF-8
+ * text are rendered as hex or base64.
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class KafkaHeaderAttributes {
+
+    private static final String DOT = ".";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    /**
+     * Upper bound of the cached keys when all headers are captured, to guard against header names
+     * generated without bound.
+     */
+    private static final int MAX_CACHED_KEYS = 1024;
+    /**
+     * Up to this number of headers, repeated headers are detected by scanning the preceding headers
+     * instead of counting the header names in a map.
+     */
+    private static final int MAX_SCANNED_HEADERS = 16;
+
+    private final boolean allHeaders;
+    private final HeaderKeys[] capturedHeaders;
+    private final Map<String, HeaderKeys> allHeaderKeys = new ConcurrentHashMap<>();
+    private final String prefix;
+    private final boolean headersAsLists;
+    private final int maxValueLength;
+    private final int maxHeaderBytes;
+    private final BinaryHeaderEncoding binaryEncoding;
+
+    KafkaHeaderAttributes(KafkaTelemetryConfiguration configuration) {
+        Set<String> headerNames = configuration.getCapturedHeaders();
+        allHeaders = headerNames != null && headerNames.contains(KafkaTelemetryConfiguration.ALL_HEADERS);
+        prefix = configuration.isAttributeWithPrefix() && configuration.getAttributePrefix() != null ? configuration.getAttributePrefix() : "";
+        List<HeaderKeys> keys = new ArrayList<>();
+        if (!allHeaders && headerNames != null) {
+            for (String headerName : headerNames) {
+                if (StringUtils.isNotEmpty(headerName)) {
+                    keys.add(new HeaderKeys(headerName, prefix + headerName));
+                }
+            }
+        }
+        capturedHeaders = keys.toArray(new HeaderKeys[0]);
+        headersAsLists = configuration.isHeadersAsLists();
+        maxValueLength = Math.max(0, configuration.getMaxHeaderValueLength());
+        maxHeaderBytes = Math.max(0, configuration.getMaxHeaderBytes());
+        binaryEncoding = configuration.getBinaryHeaderEncoding() != null ? configuration.getBinaryHeaderEncoding() : BinaryHeaderEncoding.BASE64;
+    }
+
+    /**
+     * @return whether no headers are captured
+     */
+    boolean isEmpty() {
+        return !allHeaders && capturedHeaders.length == 0;
+    }
+
+    /**
+     * Adds the captured headers as span attributes.
+     *
+     * @param attributes attributes builder
+     * @param headers the record headers
+     */
+    void capture(AttributesBuilder attributes, Headers headers) {
+        if (allHeaders) {
+            captureAll(attributes, headers);
+        } else if (headersAsLists) {
+            captureLists(attributes, headers);
+        } else {
+            int remaining = maxHeaderBytes;
+            for (HeaderKeys keys : capturedHeaders) {
+                Header header = headers.lastHeader(keys.headerName);
+                if (header != null) {
+                    remaining = put(attributes, keys.key(0), header.value(), remaining);
+                }
+            }
+        }
+    }
+
+    private void captureAll(AttributesBuilder attributes, Headers headers) {
+        int remaining = maxHeaderBytes;
+        int index = 0;
+        Map<String, Integer> occurrences = null;
+        for (Header header : headers) {
+            String headerName = header.key();
+            // repeated headers are added with the index of the occurrence as suffix
+            int occurrence;
+            if (occurrences != null) {
+                occurrence = occurrences.merge(headerName, 1, Integer::sum) - 1;
+            } else if (index < MAX_SCANNED_HEADERS) {
+                occurrence = index == 0 ? 0 : occurrence(headers, headerName, index);
+            } else {
+                occurrences = occurrences(headers, index);
+                occurrence = occurrences.merge(headerName, 1, Integer::sum) - 1;
+            }
+            index++;
+            remaining = put(attributes, keys(headerName).key(occurrence), header.value(), remaining);
+        }
+    }
+
+    /**
+     * Counts the occurrences of a header name among the preceding headers.
+     *
+     * @param headers the record headers
+     * @param headerName the header name
+     * @param index the index of the header
+     * @return the number of preceding headers with the same name
+     */
+    private static int occurrence(Headers headers, String headerName, int index) {
+        int occurrence = 0;
+        Iterator<Header> preceding = headers.iterator();
+        for (int i = 0; i < index; i++) {
+            if (headerName.equals(preceding.next().key())) {
+                occurrence++;
+            }
+        }
+        return occurrence;
+    }
+
+    /**
+     * Counts the occurrences of the header names among the preceding headers, for records with
+     * too many headers to scan them for every header.
+     *
+     * @param headers the record headers
+     * @param index the index of the header
+     * @return the number of occurrences by header name
+     */
+    private static Map<String, Integer> occurrences(Headers headers, int index) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        Iterator<Header> preceding = headers.iterator();
+        for (int i = 0; i < index; i++) {
+            occurrences.merge(preceding.next().key(), 1, Integer::sum);
+        }
+        return occurrences;
+    }
+
+    private void captureLists(AttributesBuilder attributes, Headers headers) {
+        int remaining = maxHeaderBytes;
+        for (HeaderKeys keys : capturedHeaders) {
+            List<String> values = null;
+            for (Header header : headers.headers(keys.headerName)) {
+                byte[] value = header.value();
+                if (value == null) {
+                    continue;
+                }
+                int length = Math.min(value.length, maxValueLength);
+                if (length > remaining) {
+                    continue;
+                }
+                remaining -= length;
+                if (values == null) {
+                    values = new ArrayList<>(2);
+                }
+                values.add(render(value, length));
+            }
+            if (values != null) {
+                attributes.put(keys.listKey, values);
+            }
+        }
+    }
+
+    private int put(AttributesBuilder attributes, AttributeKey<String> key, @Nullable byte[] value, int remaining) {
+        if (value == null) {
+            return remaining;
+        }
+        int length = Math.min(value.length, maxValueLength);
+        if (length > remaining) {
+            return remaining;
+        }
+        attributes.put(key, render(value, length));
+        return remaining - length;
+    }
+
+    private HeaderKeys keys(String headerName) {
+        HeaderKeys keys = allHeaderKeys.get(headerName);
+        if (keys != null) {
+            return keys;
+        }
+        if (allHeaderKeys.size() >= MAX_CACHED_KEYS) {
+            return new HeaderKeys(headerName, prefix + headerName);
+        }
+        return allHeaderKeys.computeIfAbsent(headerName, name -> new HeaderKeys(name, prefix + name));
+    }
+
+    private String render(byte[] value, int length) {
+        int textLength = textLength(value, length);
+        if (textLength >= 0) {
+            return new String(value, 0, textLength, StandardCharsets.UTF_8);
+        }
+        if (binaryEncoding == BinaryHeaderEncoding.HEX) {
+            char[] hex = new char[length * 2];
+            for (int i = 0; i < length; i++) {
+                hex[i * 2] = HEX_DIGITS[(value[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX_DIGITS[value[i] & 0xF];
+            }
+            return new String(hex);
+        }
+        return Base64.getEncoder().encodeToString(length == value.length ? value : Arrays.copyOf(value, length));
+    }
+
+    /**
+     * Checks whether the value is printable UTF-8 text.
+     *
+     * @param value the value
+     * @param length the number of bytes to render
+     * @return the number of bytes up to the last complete character within the length, or -1 if the value is binary
+     */
+    static int textLength(byte[] value, int length) {
+        int i = 0;
+        while (i < length) {
+            int b = value[i] & 0xFF;
+            int continuation;
+            if (b < 0x80) {
+                if (b < 0x20 && b != '\t' && b != '\n' && b != '\r' || b == 0x7F) {
+                    return -1;
+                }
+                i++;
+                continue;
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                continuation = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuation = 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuation = 3;
+            } else {
+                return -1;
+            }
+            if (i + continuation >= value.length) {
+                return -1;
+            }
+            for (int j = i + 1; j <= i + continuation; j++) {
+                if ((value[j] & 0xC0) != 0x80) {
+                    return -1;
+                }
+            }
+            if (i + continuation >= length) {
+                // the character is cut by the length
+                return i;
+            }
+            i += continuation + 1;
+        }
+        return length;
+    }
+
+    /**
+     * The attribute keys of a header.
+     */
+    private static final class HeaderKeys {
+
+        private final String headerName;
+        private final String attributeName;
+        private final AttributeKey<List<String>> listKey;
+        private volatile AttributeKey<String>[] keys;
+
+        @SuppressWarnings("unchecked")
+        HeaderKeys(String headerName, String attributeName) {
+            this.headerName = headerName;
+            this.attributeName = attributeName;
+            this.listKey = AttributeKey.stringArrayKey(attributeName);
+            this.keys = new AttributeKey[] {AttributeKey.stringKey(attributeName)};
+        }
+
+        /**
+         * @param occurrence the occurrence of the header in the record
+         * @return the key of the header, with the occurrence as suffix after the first one
+         */
+        AttributeKey<String> key(int occurrence) {
+            AttributeKey<String>[] current = keys;
+            if (occurrence < current.length) {
+                return current[occurrence];
+            }
+            synchronized (this) {
+                current = keys;
+                if (occurrence >= current.length) {
+                    AttributeKey<String>[] grown = Arrays.copyOf(current, occurrence + 1);
+                    for (int i = current.length; i < grown.length; i++) {
+                        grown[i] = AttributeKey.stringKey(attributeName + DOT + i);
+                    }
+                    keys = grown;
+                    current = grown;
+                }
+                return current[occurrence];
+            }
+        }
+    }
+}
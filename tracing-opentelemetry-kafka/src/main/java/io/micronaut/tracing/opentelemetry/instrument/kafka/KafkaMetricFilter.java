@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.util.CollectionUtils;
+
+import org.apache.kafka.common.MetricName;
+
+/**
+ * Decides which Kafka client metrics are exported, based on {@link KafkaMetricsConfiguration}.
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class KafkaMetricFilter {
+
+    private static final String PARTITION_TAG = "partition";
+
+    private final List<Pattern> includes;
+    private final List<Pattern> excludes;
+    private final boolean partitionMetrics;
+
+    KafkaMetricFilter(KafkaMetricsConfiguration configuration) {
+        includes = compile(configuration.getIncludes());
+        excludes = compile(configuration.getExcludes());
+        partitionMetrics = configuration.isPartitionMetrics();
+    }
+
+    /**
+     * @param metricName the metric name
+     * @return whether the metric is exported
+     */
+    boolean accept(MetricName metricName) {
+        if (!partitionMetrics && metricName.tags().containsKey(PARTITION_TAG)) {
+            return false;
+        }
+        String name = metricName.name();
+        if (!includes.isEmpty() && !matches(includes, name)) {
+            return false;
+        }
+        return !matches(excludes, name);
+    }
+
+    private static boolean matches(List<Pattern> patterns, String name) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pattern> compile(Collection<String> globs) {
+        if (CollectionUtils.isEmpty(globs)) {
+            return List.of();
+        }
+        List<Pattern> patterns = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            patterns.add(Pattern.compile(TopicMatcher.globToRegex(glob)));
+        }
+        return patterns;
+    }
+}
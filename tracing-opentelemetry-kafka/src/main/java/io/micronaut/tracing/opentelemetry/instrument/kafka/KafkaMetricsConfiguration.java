@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.util.Collections;
+import java.util.Set;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+
+/**
+ * Configuration of the Kafka client metrics exported through OpenTelemetry.
+ *
+ * @since 6.9.0
+ */
+@Requires(property = KafkaMetricsConfiguration.PREFIX + ".enabled", value = StringUtils.TRUE)
+@ConfigurationProperties(KafkaMetricsConfiguration.PREFIX)
+public class KafkaMetricsConfiguration {
+
+    /**
+     * The prefix used for Kafka client metrics configuration.
+     */
+    public static final String PREFIX = KafkaTelemetryConfiguration.PREFIX + ".metrics";
+
+    /**
+     * The default value of the partitionMetrics flag.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_PARTITION_METRICS = false;
+
+    private boolean enabled;
+    private Set<String> includes = Collections.emptySet();
+    private Set<String> excludes = Collections.emptySet();
+    private boolean partitionMetrics = DEFAULT_PARTITION_METRICS;
+
+    /**
+     * @return whether the Kafka client metrics are exported
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the metrics of the Kafka clients created by Micronaut are exported through OpenTelemetry. Default: false.
+     *
+     * @param enabled whether the Kafka client metrics are exported
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the names of the exported metrics
+     */
+    public Set<String> getIncludes() {
+        return includes;
+    }
+
+    /**
+     * The names of the metrics to export, such as {@code records-consumed-rate}. Globs with {@code *} and {@code ?}
+     * are supported. By default, all metrics are exported.
+     *
+     * @param includes the names of the exported metrics
+     */
+    public void setIncludes(Set<String> includes) {
+        this.includes = includes;
+    }
+
+    /**
+     * @return the names of the metrics that are not exported
+     */
+    public Set<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * The names of the metrics not to export. Globs with {@code *} and {@code ?} are supported, and excludes take
+     * precedence over includes.
+     *
+     * @param excludes the names of the metrics that are not exported
+     */
+    public void setExcludes(Set<String> excludes) {
+        this.excludes = excludes;
+    }
+
+    /**
+     * @return whether the metrics with a partition tag are exported
+     */
+    public boolean isPartitionMetrics() {
+        return partitionMetrics;
+    }
+
+    /**
+     * Whether the metrics with a {@code partition} tag are exported. Their cardinality grows with the number of
+     * assigned partitions, and the clients also report them per topic or per client. Default: {@value #DEFAULT_PARTITION_METRICS}.
+     *
+     * @param partitionMetrics whether the metrics with a partition tag are exported
+     */
+    public void setPartitionMetrics(boolean partitionMetrics) {
+        this.partitionMetrics = partitionMetrics;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import io.micronaut.configuration.kafka.config.AbstractKafkaConfiguration;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.common.config.ConfigDef;
+
+import jakarta.inject.Singleton;
+
+/**
+ * Registers {@link FilteringMetricsReporter} in the configuration of the Kafka clients created by
+ * Micronaut, so that their metrics are exported through OpenTelemetry.
+ *
+ * @since 6.9.0
+ */
+@Requires(beans = KafkaMetricsConfiguration.class)
+@Singleton
+public class KafkaMetricsReporterInstrumentation implements BeanCreatedEventListener<AbstractKafkaConfiguration<?, ?>> {
+
+    private final Map<String, ?> metricConfigProperties;
+
+    /**
+     * @param kafkaTelemetry The kafka telemetry
+     * @param kafkaMetricsConfiguration The Kafka client metrics configuration
+     */
+    public KafkaMetricsReporterInstrumentation(KafkaTelemetry kafkaTelemetry, KafkaMetricsConfiguration kafkaMetricsConfiguration) {
+        this.metricConfigProperties = kafkaTelemetry.metricConfigProperties(new KafkaMetricFilter(kafkaMetricsConfiguration));
+    }
+
+    @Override
+    public AbstractKafkaConfiguration<?, ?> onCreated(BeanCreatedEvent<AbstractKafkaConfiguration<?, ?>> event) {
+        AbstractKafkaConfiguration<?, ?> configuration = event.getBean();
+        Properties config = configuration.getConfig();
+        Object reporters = config.get(CommonClientConfigs.METRIC_REPORTER_CLASSES_CONFIG);
+        for (Map.Entry<String, ?> entry : metricConfigProperties.entrySet()) {
+            config.put(entry.getKey(), entry.getValue());
+        }
+        if (reporters != null) {
+            // keep the reporters configured by the application
+            config.put(CommonClientConfigs.METRIC_REPORTER_CLASSES_CONFIG, withReporter(reporters));
+        }
+        return configuration;
+    }
+
+    /**
+     * Appends the reporter to the configured reporters, which can be a comma separated list of class
+     * names, a list of class names and classes, or a single class.
+     *
+     * @param reporters the configured reporters
+     * @return the reporters including {@link FilteringMetricsReporter}
+     */
+    private static List<Object> withReporter(Object reporters) {
+        List<Object> classes = new ArrayList<>();
+        if (reporters instanceof Class<?>) {
+            classes.add(reporters);
+        } else {
+            classes.addAll((List<?>) ConfigDef.parseType(CommonClientConfigs.METRIC_REPORTER_CLASSES_CONFIG, reporters, ConfigDef.Type.LIST));
+        }
+        String reporter = FilteringMetricsReporter.class.getName();
+        for (Object configured : classes) {
+            if (reporter.equals(configured instanceof Class<?> type ? type.getName() : configured.toString().trim())) {
+                return classes;
+            }
+        }
+        classes.add(reporter);
+        return classes;
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.propagation.PropagatedContext;
+import io.micronaut.tracing.opentelemetry.OpenTelemetryPropagationContext;
+import io.micronaut.tracing.opentelemetry.utils.AttributeValueCache;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
+import io.opentelemetry.instrumentation.kafka.internal.KafkaProcessRequest;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Creates "process" spans for the records returned by a single consumer. The span of a record is
+ * started when the record is handed out by the iterator of the polled {@link ConsumerRecords}, and
+ * ended when the next record is requested, the iteration is exhausted or the consumer polls again.
+ * Since micronaut-kafka invokes the {@code @KafkaListener} method while iterating the records, the
+ * span covers the listener execution, and the record's context is current in the
+ * {@link PropagatedContext} while the listener runs.
+ *
+ * <p>In batch mode a single span is created for all records of a poll when the records are first
+ * iterated, and ended when the consumer polls again. Instead of having a parent per record, the
+ * span links to up to a configured number of distinct producer span contexts.</p>
+ *
+ * <p>In propagation-only mode no span is created: the context extracted from the record headers
+ * is made current while the record is processed, so that the work of the listener is part of the
+ * producer's trace.</p>
+ *
+ * <p>The {@link PropagatedContext} scope of a span is only closed while it is still the current
+ * context of the consumer thread. Scopes have to be closed in reverse order, so when a scope that was
+ * opened after the span's scope, for example around the consumer loop, has been closed in the
+ * meantime, closing the span's scope would restore a stale context. The scope is then left to the
+ * code that replaced it, and only the span is ended.</p>
+ *
+ * <p>Instances are bound to the consumer thread and are not thread-safe, just like the consumer
+ * itself.</p>
+ *
+ * @param <K> key class
+ * @param <V> value class
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class KafkaProcessSpans<K, V> {
+
+    private static final String BATCH_OPERATION = "process";
+    private static final String MULTIPLE_TOPICS = "multiple_topics";
+    private static final AttributeKey<String> MESSAGING_SYSTEM = AttributeKey.stringKey("messaging.system");
+    private static final AttributeKey<String> MESSAGING_OPERATION = AttributeKey.stringKey("messaging.operation");
+    private static final AttributeKey<String> MESSAGING_DESTINATION_NAME = AttributeKey.stringKey("messaging.destination.name");
+    /**
+     * Shares the topic names between the spans waiting to be exported.
+     */
+    private static final AttributeValueCache TOPICS = new AttributeValueCache();
+    private static final AttributeKey<String> MESSAGING_CONSUMER_GROUP = AttributeKey.stringKey("messaging.kafka.consumer.group");
+    private static final AttributeKey<String> MESSAGING_CLIENT_ID = AttributeKey.stringKey("messaging.client_id");
+    private static final AttributeKey<Long> MESSAGING_BATCH_MESSAGE_COUNT = AttributeKey.longKey("messaging.batch.message_count");
+
+    private final Instrumenter<KafkaProcessRequest, Void> instrumenter;
+    private final TopicMatcher topicMatcher;
+    private final Predicate<ConsumerRecord<K, V>> recordFilter;
+    @Nullable
+    private final Tracer batchTracer;
+    @Nullable
+    private final TextMapPropagator propagator;
+    private final int maxLinks;
+    private final boolean propagationOnly;
+    @Nullable
+    private KafkaRecordLatency recordLatency;
+
+    @Nullable
+    private KafkaProcessRequest request;
+    @Nullable
+    private Context context;
+    @Nullable
+    private PropagatedContext propagatedContext;
+    @Nullable
+    private PropagatedContext.Scope scope;
+
+    KafkaProcessSpans(Instrumenter<KafkaProcessRequest, Void> instrumenter,
+                      TopicMatcher topicMatcher,
+                      Predicate<ConsumerRecord<K, V>> recordFilter) {
+        this(instrumenter, topicMatcher, recordFilter, null, null, 0);
+    }
+
+    KafkaProcessSpans(Instrumenter<KafkaProcessRequest, Void> instrumenter,
+                      TopicMatcher topicMatcher,
+                      Predicate<ConsumerRecord<K, V>> recordFilter,
+                      @Nullable Tracer batchTracer,
+                      @Nullable TextMapPropagator propagator,
+                      int maxLinks) {
+        this(instrumenter, topicMatcher, recordFilter, batchTracer, propagator, maxLinks, false);
+    }
+
+    private KafkaProcessSpans(Instrumenter<KafkaProcessRequest, Void> instrumenter,
+                              TopicMatcher topicMatcher,
+                              Predicate<ConsumerRecord<K, V>> recordFilter,
+                              @Nullable Tracer batchTracer,
+                              @Nullable TextMapPropagator propagator,
+                              int maxLinks,
+                              boolean propagationOnly) {
+        this.instrumenter = instrumenter;
+        this.topicMatcher = topicMatcher;
+        this.recordFilter = recordFilter;
+        this.batchTracer = batchTracer;
+        this.propagator = propagator;
+        this.maxLinks = maxLinks;
+        this.propagationOnly = propagationOnly;
+    }
+
+    /**
+     * Creates process spans that only make the context of the records current, without creating spans.
+     *
+     * @param instrumenter the process instrumenter
+     * @param topicMatcher the topic matcher
+     * @param recordFilter the record filter
+     * @param propagator the propagator extracting the context from the record headers
+     * @param <K> key class
+     * @param <V> value class
+     *
+     * @return the process spans
+     */
+    static <K, V> KafkaProcessSpans<K, V> propagationOnly(Instrumenter<KafkaProcessRequest, Void> instrumenter,
+                                                          TopicMatcher topicMatcher,
+                                                          Predicate<ConsumerRecord<K, V>> recordFilter,
+                                                          TextMapPropagator propagator) {
+        return new KafkaProcessSpans<>(instrumenter, topicMatcher, recordFilter, null, propagator, 0, true);
+    }
+
+    /**
+     * Sets the latency recorder of the traced records.
+     *
+     * @param recordLatency the latency recorder
+     *
+     * @return this instance
+     */
+    KafkaProcessSpans<K, V> recordLatency(@Nullable KafkaRecordLatency recordLatency) {
+        this.recordLatency = recordLatency;
+        return this;
+    }
+
+    /**
+     * Wraps the polled records so that iterating them creates the process spans. Any span that is
+     * still open from the previous poll is ended first. Records of excluded topics only are
+     * returned as they are.
+     *
+     * @param records the polled records
+     * @param consumerGroup the consumer group
+     * @param clientId the client ID
+     *
+     * @return the records to hand to the application
+     */
+    ConsumerRecords<K, V> wrap(ConsumerRecords<K, V> records, @Nullable String consumerGroup, @Nullable String clientId) {
+        end();
+        if (records.isEmpty()) {
+            return records;
+        }
+        for (TopicPartition partition : records.partitions()) {
+            if (!topicMatcher.isExcluded(partition.topic())) {
+                return new TracingConsumerRecords(records, consumerGroup, clientId);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Ends the span of the record or batch that is currently being processed, if any. Its scope is
+     * only closed if it is still the current context.
+     */
+    void end() {
+        if (context == null) {
+            return;
+        }
+        try {
+            if (scope != null && isCurrent(propagatedContext)) {
+                scope.close();
+            }
+        } finally {
+            if (request != null) {
+                instrumenter.end(context, request, null, null);
+            } else if (batchTracer != null) {
+                Span.fromContext(context).end();
+            }
+            context = null;
+            request = null;
+            propagatedContext = null;
+            scope = null;
+        }
+    }
+
+    private static boolean isCurrent(@Nullable PropagatedContext propagatedContext) {
+        return PropagatedContext.find().orElse(null) == propagatedContext;
+    }
+
+    private void propagate(Context context) {
+        this.context = context;
+        propagatedContext = PropagatedContext.getOrEmpty().plus(new OpenTelemetryPropagationContext(context));
+        scope = propagatedContext.propagate();
+    }
+
+    private boolean isTraced(ConsumerRecord<K, V> record) {
+        return !topicMatcher.isExcluded(record.topic()) && recordFilter.test(record);
+    }
+
+    private void start(ConsumerRecord<K, V> record, @Nullable String consumerGroup, @Nullable String clientId) {
+        if (!isTraced(record)) {
+            return;
+        }
+        if (recordLatency != null) {
+            recordLatency.record(record, System.currentTimeMillis());
+        }
+        Context parentContext = Context.current();
+        if (propagationOnly) {
+            propagate(propagator.extract(parentContext, record.headers(), KafkaHeadersGetter.INSTANCE));
+            return;
+        }
+        KafkaProcessRequest processRequest = KafkaProcessRequest.create(record, consumerGroup, clientId);
+        if (!instrumenter.shouldStart(parentContext, processRequest)) {
+            return;
+        }
+        request = processRequest;
+        propagate(instrumenter.start(parentContext, processRequest));
+    }
+
+    private void startBatch(ConsumerRecords<K, V> records, @Nullable String consumerGroup, @Nullable String clientId) {
+        Set<SpanContext> links = new LinkedHashSet<>();
+        String topic = null;
+        boolean multipleTopics = false;
+        long count = 0;
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<K, V> record : records) {
+            if (!isTraced(record)) {
+                continue;
+            }
+            count++;
+            if (recordLatency != null) {
+                recordLatency.record(record, now);
+            }
+            if (topic == null) {
+                topic = record.topic();
+            } else if (!multipleTopics && !topic.equals(record.topic())) {
+                multipleTopics = true;
+            }
+            if (links.size() < maxLinks) {
+                SpanContext link = Span.fromContext(propagator.extract(Context.root(), record.headers(), KafkaHeadersGetter.INSTANCE)).getSpanContext();
+                if (link.isValid()) {
+                    links.add(link);
+                }
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        Context parentContext = Context.current();
+        SpanBuilder spanBuilder = batchTracer.spanBuilder((multipleTopics ? MULTIPLE_TOPICS : topic) + " " + BATCH_OPERATION)
+            .setParent(parentContext)
+            .setSpanKind(SpanKind.CONSUMER)
+            .setAttribute(MESSAGING_SYSTEM, "kafka")
+            .setAttribute(MESSAGING_OPERATION, BATCH_OPERATION)
+            .setAttribute(MESSAGING_BATCH_MESSAGE_COUNT, count);
+        if (!multipleTopics) {
+            spanBuilder.setAttribute(MESSAGING_DESTINATION_NAME, TOPICS.get(topic));
+        }
+        if (consumerGroup != null) {
+            spanBuilder.setAttribute(MESSAGING_CONSUMER_GROUP, consumerGroup);
+        }
+        if (clientId != null) {
+            spanBuilder.setAttribute(MESSAGING_CLIENT_ID, clientId);
+        }
+        for (SpanContext link : links) {
+            spanBuilder.addLink(link);
+        }
+        propagate(parentContext.with(spanBuilder.startSpan()));
+    }
+
+    /**
+     * The polled records with a tracing iterator. Every other method delegates to the polled
+     * records, so that wrapping them does not copy the records.
+     */
+    private final class TracingConsumerRecords extends ConsumerRecords<K, V> {
+
+        private final ConsumerRecords<K, V> records;
+        @Nullable
+        private final String consumerGroup;
+        @Nullable
+        private final String clientId;
+        private boolean batchStarted;
+
+        TracingConsumerRecords(ConsumerRecords<K, V> records, @Nullable String consumerGroup, @Nullable String clientId) {
+            super(Collections.emptyMap());
+            this.records = records;
+            this.consumerGroup = consumerGroup;
+            this.clientId = clientId;
+        }
+
+        @Override
+        public Iterator<ConsumerRecord<K, V>> iterator() {
+            if (batchTracer != null) {
+                if (!batchStarted) {
+                    batchStarted = true;
+                    startBatch(records, consumerGroup, clientId);
+                }
+                return records.iterator();
+            }
+            return new TracingIterator(records.iterator(), consumerGroup, clientId);
+        }
+
+        @Override
+        public List<ConsumerRecord<K, V>> records(TopicPartition partition) {
+            return records.records(partition);
+        }
+
+        @Override
+        public Iterable<ConsumerRecord<K, V>> records(String topic) {
+            return records.records(topic);
+        }
+
+        @Override
+        public Set<TopicPartition> partitions() {
+            return records.partitions();
+        }
+
+        @Override
+        public int count() {
+            return records.count();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return records.isEmpty();
+        }
+    }
+
+    /**
+     * Ends the span of the previous record before handing out the next one.
+     */
+    private final class TracingIterator implements Iterator<ConsumerRecord<K, V>> {
+
+        private final Iterator<ConsumerRecord<K, V>> delegate;
+        @Nullable
+        private final String consumerGroup;
+        @Nullable
+        private final String clientId;
+
+        TracingIterator(Iterator<ConsumerRecord<K, V>> delegate, @Nullable String consumerGroup, @Nullable String clientId) {
+            this.delegate = delegate;
+            this.consumerGroup = consumerGroup;
+            this.clientId = clientId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            end();
+            return delegate.hasNext();
+        }
+
+        @Override
+        public ConsumerRecord<K, V> next() {
+            end();
+            ConsumerRecord<K, V> record = delegate.next();
+            start(record, consumerGroup, clientId);
+            return record;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micronaut.core.annotation.Internal;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+
+/**
+ * Records the latency of the sent records per topic: the time spent in {@code send}, which
+ * includes serialization, partitioning and appending the record to a batch of the accumulator,
+ * and the time from the append to the acknowledgement, which includes the linger time, the
+ * requests in flight and the broker.
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class KafkaProducerLatency {
+
+    static final String SEND_DURATION = "messaging.kafka.producer.send.duration";
+    static final String ACK_DURATION = "messaging.kafka.producer.ack.duration";
+
+    private static final AttributeKey<String> DESTINATION_NAME = AttributeKey.stringKey("messaging.destination.name");
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    /**
+     * Upper bound of the cached attributes, to guard against topic names generated without bound.
+     */
+    private static final int MAX_CACHED_TOPICS = 10_000;
+
+    private final DoubleHistogram sendDuration;
+    private final DoubleHistogram ackDuration;
+    private final Map<String, Attributes> attributes = new ConcurrentHashMap<>();
+
+    KafkaProducerLatency(Meter meter) {
+        sendDuration = meter.histogramBuilder(SEND_DURATION)
+            .setDescription("The time spent sending a record until it is appended to a batch")
+            .setUnit("s")
+            .build();
+        ackDuration = meter.histogramBuilder(ACK_DURATION)
+            .setDescription("The time from the append of a record to a batch to its acknowledgement")
+            .setUnit("s")
+            .build();
+    }
+
+    /**
+     * Records the latency of a sent record.
+     *
+     * @param topic the topic
+     * @param sendNanos the time spent in send
+     * @param ackNanos the time from the append to the acknowledgement
+     */
+    void record(String topic, long sendNanos, long ackNanos) {
+        Attributes topicAttributes = attributes.get(topic);
+        if (topicAttributes == null) {
+            topicAttributes = Attributes.of(DESTINATION_NAME, topic);
+            if (attributes.size() < MAX_CACHED_TOPICS) {
+                attributes.put(topic, topicAttributes);
+            }
+        }
+        sendDuration.record(sendNanos / NANOS_PER_SECOND, topicAttributes);
+        ackDuration.record(ackNanos / NANOS_PER_SECOND, topicAttributes);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Records the latency of the consumed records: the record age, from the record timestamp to
+ * the consumption, and the end-to-end latency, from the time the producer sent the record, read
+ * from the producer timestamp header, to the consumption.
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class KafkaRecordLatency {
+
+    /**
+     * The header holding the time the producer sent the record, as 8-byte epoch milliseconds.
+     */
+    static final String PRODUCER_TIMESTAMP_HEADER = "tpt";
+
+    static final String RECORD_AGE = "messaging.kafka.record.age";
+    static final String END_TO_END_DURATION = "messaging.kafka.end_to_end.duration";
+
+    private static final AttributeKey<String> DESTINATION_NAME = AttributeKey.stringKey("messaging.destination.name");
+    private static final AttributeKey<String> PARTITION_ID = AttributeKey.stringKey("messaging.destination.partition.id");
+    private static final double MILLIS_PER_SECOND = 1000d;
+    /**
+     * Upper bound of the cached attributes, to guard against topic names generated without bound.
+     */
+    private static final int MAX_CACHED_TOPICS = 10_000;
+
+    private final DoubleHistogram recordAge;
+    private final DoubleHistogram endToEndDuration;
+    /**
+     * The attributes of the partitions of each topic, indexed by partition.
+     */
+    private final Map<String, AtomicReferenceArray<Attributes>> attributes = new ConcurrentHashMap<>();
+
+    KafkaRecordLatency(Meter meter) {
+        recordAge = meter.histogramBuilder(RECORD_AGE)
+            .setDescription("The time from the record timestamp to the consumption of the record")
+            .setUnit("s")
+            .build();
+        endToEndDuration = meter.histogramBuilder(END_TO_END_DURATION)
+            .setDescription("The time from the sending of the record by a traced producer to the consumption of the record")
+            .setUnit("s")
+            .build();
+    }
+
+    /**
+     * Records the latency of a consumed record.
+     *
+     * @param record the record
+     * @param now the current time in epoch milliseconds
+     */
+    void record(ConsumerRecord<?, ?> record, long now) {
+        Attributes partitionAttributes = attributes(record.topic(), record.partition());
+        if (record.timestamp() >= 0) {
+            recordAge.record(Math.max(0, now - record.timestamp()) / MILLIS_PER_SECOND, partitionAttributes);
+        }
+        long sent = producerTimestamp(record.headers());
+        if (sent > 0) {
+            endToEndDuration.record(Math.max(0, now - sent) / MILLIS_PER_SECOND, partitionAttributes);
+        }
+    }
+
+    /**
+     * Adds the producer timestamp header to the record.
+     *
+     * @param record the record
+     * @param now the current time in epoch milliseconds
+     */
+    static void addProducerTimestamp(ProducerRecord<?, ?> record, long now) {
+        byte[] value = new byte[Long.BYTES];
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            value[i] = (byte) now;
+            now >>>= Byte.SIZE;
+        }
+        Headers headers = record.headers();
+        headers.remove(PRODUCER_TIMESTAMP_HEADER);
+        headers.add(PRODUCER_TIMESTAMP_HEADER, value);
+    }
+
+    private static long producerTimestamp(Headers headers) {
+        Header header = headers.lastHeader(PRODUCER_TIMESTAMP_HEADER);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1;
+        }
+        long timestamp = 0;
+        for (byte b : header.value()) {
+            timestamp = (timestamp << Byte.SIZE) | (b & 0xFF);
+        }
+        return timestamp;
+    }
+
+    private Attributes attributes(String topic, int partition) {
+        AtomicReferenceArray<Attributes> partitions = attributes.get(topic);
+        if (partitions != null && partition < partitions.length()) {
+            Attributes partitionAttributes = partitions.get(partition);
+            if (partitionAttributes != null) {
+                return partitionAttributes;
+            }
+        }
+        Attributes partitionAttributes = Attributes.of(DESTINATION_NAME, topic, PARTITION_ID, String.valueOf(partition));
+        if (partition < 0) {
+            return partitionAttributes;
+        }
+        if (partitions == null || partition >= partitions.length()) {
+            if (partitions == null && attributes.size() >= MAX_CACHED_TOPICS) {
+                return partitionAttributes;
+            }
+            // the array is only copied when the topic has more partitions than seen so far
+            partitions = attributes.compute(topic, (t, current) -> grow(current, partition));
+        }
+        partitions.set(partition, partitionAttributes);
+        return partitionAttributes;
+    }
+
+    private static AtomicReferenceArray<Attributes> grow(@Nullable AtomicReferenceArray<Attributes> current, int partition) {
+        if (current == null) {
+            return new AtomicReferenceArray<>(partition + 1);
+        }
+        if (partition < current.length()) {
+            return current;
+        }
+        AtomicReferenceArray<Attributes> partitions = new AtomicReferenceArray<>(partition + 1);
+        for (int i = 0; i < current.length(); i++) {
+            partitions.set(i, current.get(i));
+        }
+        return partitions;
+    }
+}
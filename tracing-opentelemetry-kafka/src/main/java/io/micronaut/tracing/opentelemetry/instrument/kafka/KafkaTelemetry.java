@@ -21,11 +21,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
+import java.util.function.Predicate;
 
 import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.util.CollectionUtils;
 import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.context.propagation.TextMapPropagator;
@@ -64,6 +69,9 @@ public final class KafkaTelemetry {
     private static final Logger LOG = LoggerFactory.getLogger(KafkaTelemetry.class);
     private static final TextMapSetter<Headers> SETTER = KafkaHeadersSetter.INSTANCE;
     private static final Future<RecordMetadata> EMPTY_FUTURE = CompletableFuture.completedFuture(null);
+    private static final AttributeKey<Double> SEND_DURATION_MS = AttributeKey.doubleKey("messaging.kafka.producer.send_duration_ms");
+    private static final AttributeKey<Double> ACK_DURATION_MS = AttributeKey.doubleKey("messaging.kafka.producer.ack_duration_ms");
+    private static final double NANOS_PER_MILLI = 1_000_000d;
 
     private final OpenTelemetry openTelemetry;
     private final Instrumenter<KafkaProducerRequest, RecordMetadata> producerInstrumenter;
@@ -74,6 +82,11 @@ public final class KafkaTelemetry {
     private final Collection<KafkaTelemetryConsumerTracingFilter> consumerTracingFilters;
     private final KafkaTelemetryConfiguration kafkaTelemetryConfiguration;
     private final boolean producerPropagationEnabled;
+    private final TopicMatcher topicMatcher;
+    @Nullable
+    private final KafkaRecordLatency recordLatency;
+    @Nullable
+    private final KafkaProducerLatency producerLatency;
 
     @SuppressWarnings("rawtypes")
     public KafkaTelemetry(OpenTelemetry openTelemetry,
@@ -90,6 +103,13 @@ public final class KafkaTelemetry {
         this.consumerTracingFilters = consumerTracingFilters;
         this.kafkaTelemetryConfiguration = kafkaTelemetryConfiguration;
         this.producerPropagationEnabled = producerPropagationEnabled;
+        this.topicMatcher = TopicMatcher.of(kafkaTelemetryConfiguration);
+        this.recordLatency = kafkaTelemetryConfiguration.isRecordLatencyMetrics()
+            ? new KafkaRecordLatency(openTelemetry.getMeter(KafkaTelemetryBuilder.INSTRUMENTATION_NAME))
+            : null;
+        this.producerLatency = kafkaTelemetryConfiguration.isProducerLatencyMetrics()
+            ? new KafkaProducerLatency(openTelemetry.getMeter(KafkaTelemetryBuilder.INSTRUMENTATION_NAME))
+            : null;
     }
 
     /**
@@ -164,6 +184,21 @@ public final class KafkaTelemetry {
         return config;
     }
 
+    /**
+     * Produces the kafka client config properties that register a {@link MetricsReporter} recording
+     * the metrics accepted by the filter to the {@code openTelemetry} instance.
+     *
+     * @param metricFilter the metric filter
+     *
+     * @return the kafka client properties
+     */
+    Map<String, ?> metricConfigProperties(KafkaMetricFilter metricFilter) {
+        Map<String, Object> config = new HashMap<>(metricConfigProperties());
+        config.put(CommonClientConfigs.METRIC_REPORTER_CLASSES_CONFIG, FilteringMetricsReporter.class.getName());
+        config.put(FilteringMetricsReporter.CONFIG_KEY_METRIC_FILTER, metricFilter);
+        return config;
+    }
+
     /**
      * Build and inject span into record.
      *
@@ -174,6 +209,10 @@ public final class KafkaTelemetry {
      */
     public <K, V> void buildAndInjectSpan(ProducerRecord<K, V> record, String clientId) {
         Context parentContext = Context.current();
+        if (kafkaTelemetryConfiguration.isPropagationOnly()) {
+            inject(parentContext, record);
+            return;
+        }
         KafkaProducerRequest request = KafkaProducerRequest.create(record, clientId);
 
         if (!producerInstrumenter.shouldStart(parentContext, request)) {
@@ -182,12 +221,7 @@ public final class KafkaTelemetry {
 
         Context context = producerInstrumenter.start(parentContext, request);
         if (producerPropagationEnabled) {
-            try {
-                propagator().inject(context, record.headers(), SETTER);
-            } catch (Throwable t) {
-                // it can happen if headers are read only (when record is sent second time)
-                LOG.warn("Failed to inject span context. sending record second time?", t);
-            }
+            inject(context, record);
         }
         producerInstrumenter.end(context, request, null, null);
     }
@@ -207,6 +241,16 @@ public final class KafkaTelemetry {
     public <K, V> Future<RecordMetadata> buildAndInjectSpan(ProducerRecord<K, V> record, Producer<K, V> producer, Callback callback,
                                                             BiFunction<ProducerRecord<K, V>, Callback, Future<RecordMetadata>> sendFn) {
         Context parentContext = Context.current();
+        if (kafkaTelemetryConfiguration.isPropagationOnly()) {
+            inject(parentContext, record);
+            if (sendFn == null) {
+                return EMPTY_FUTURE;
+            }
+            if (producerLatency == null) {
+                return sendFn.apply(record, callback);
+            }
+            return send(record, sendFn, new ProducerCallback(callback, parentContext, null, null, record.topic()));
+        }
         KafkaProducerRequest request = KafkaProducerRequest.create(record, producer);
         if (!producerInstrumenter.shouldStart(parentContext, request)) {
             return sendFn == null ? EMPTY_FUTURE : sendFn.apply(record, callback);
@@ -215,27 +259,58 @@ public final class KafkaTelemetry {
         Context context = producerInstrumenter.start(parentContext, request);
         try (Scope ignored = context.makeCurrent()) {
             if (producerPropagationEnabled) {
-                try {
-                    propagator().inject(context, record.headers(), SETTER);
-                } catch (Throwable t) {
-                    // it can happen if headers are read only (when record is sent second time)
-                    LOG.warn("Failed to inject span context. sending record second time?", t);
-                }
+                inject(context, record);
             }
         }
-        producerInstrumenter.end(context, request, null, null);
         if (sendFn == null) {
+            producerInstrumenter.end(context, request, null, null);
             return EMPTY_FUTURE;
         }
+        // the span ends when the record is acknowledged
+        return send(record, sendFn, new ProducerCallback(callback, parentContext, context, request, record.topic()));
+    }
 
-        callback = new ProducerCallback(callback, parentContext, context, request);
-        return sendFn.apply(record, callback);
+    private <K, V> Future<RecordMetadata> send(ProducerRecord<K, V> record,
+                                               BiFunction<ProducerRecord<K, V>, Callback, Future<RecordMetadata>> sendFn,
+                                               ProducerCallback callback) {
+        Future<RecordMetadata> future;
+        try {
+            future = sendFn.apply(record, callback);
+        } catch (RuntimeException e) {
+            callback.end(null, e);
+            throw e;
+        }
+        callback.appended();
+        return future;
     }
 
-    private <K, V> void buildAndFinishSpan(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
-        buildAndFinishSpan(records, KafkaUtil.getConsumerGroup(consumer), KafkaUtil.getClientId(consumer));
+    /**
+     * Injects the context, and the producer timestamp if enabled, into the record headers.
+     */
+    private <K, V> void inject(Context context, ProducerRecord<K, V> record) {
+        try {
+            propagator().inject(context, record.headers(), SETTER);
+            if (kafkaTelemetryConfiguration.isProducerTimestampHeader()) {
+                KafkaRecordLatency.addProducerTimestamp(record, System.currentTimeMillis());
+            }
+        } catch (Throwable t) {
+            // it can happen if headers are read only (when record is sent second time)
+            LOG.warn("Failed to inject span context. sending record second time?", t);
+        }
     }
 
+    /**
+     * Creates a process span for each record, that is ended as soon as it is started.
+     *
+     * @param records the records
+     * @param consumerGroup the consumer group
+     * @param clientId the client ID
+     * @param <K> key class
+     * @param <V> value class
+     * @deprecated The spans don't cover the processing of the records. The process spans are created
+     * when the records returned by a traced consumer are iterated.
+     */
+    @Deprecated(since = "6.9.0", forRemoval = true)
     public <K, V> void buildAndFinishSpan(ConsumerRecords<K, V> records, String consumerGroup, String clientId) {
         Context currentContext = Context.current();
         for (ConsumerRecord<K, V> record : records) {
@@ -243,10 +318,33 @@ public final class KafkaTelemetry {
         }
     }
 
+    /**
+     * Creates a process span for each record, that is ended as soon as it is started.
+     *
+     * @param records the records
+     * @param consumer the consumer
+     * @param <K> key class
+     * @param <V> value class
+     * @deprecated The spans don't cover the processing of the records. The process spans are created
+     * when the records returned by a traced consumer are iterated.
+     */
+    @Deprecated(since = "6.9.0", forRemoval = true)
     public <K, V> void buildAndFinishSpan(List<ConsumerRecord<K, V>> records, Consumer<K, V> consumer) {
         buildAndFinishSpan(records, KafkaUtil.getConsumerGroup(consumer), KafkaUtil.getClientId(consumer));
     }
 
+    /**
+     * Creates a process span for each record, that is ended as soon as it is started.
+     *
+     * @param records the records
+     * @param consumerGroup the consumer group
+     * @param clientId the client ID
+     * @param <K> key class
+     * @param <V> value class
+     * @deprecated The spans don't cover the processing of the records. The process spans are created
+     * when the records returned by a traced consumer are iterated.
+     */
+    @Deprecated(since = "6.9.0", forRemoval = true)
     public <K, V> void buildAndFinishSpan(List<ConsumerRecord<K, V>> records, String consumerGroup, String clientId) {
         Context currentContext = Context.current();
         for (ConsumerRecord<K, V> record : records) {
@@ -254,6 +352,32 @@ public final class KafkaTelemetry {
         }
     }
 
+    /**
+     * Creates the process span factory of a single consumer. The spans are started when the
+     * wrapped records are iterated, so they cover the processing of each record, or of the whole
+     * poll if batch spans are enabled.
+     *
+     * @param recordFilter additional filter of the records to trace
+     * @param <K> key class
+     * @param <V> value class
+     *
+     * @return the process spans of the consumer
+     */
+    <K, V> KafkaProcessSpans<K, V> processSpans(Predicate<ConsumerRecord<K, V>> recordFilter) {
+        return newProcessSpans(recordFilter).recordLatency(recordLatency);
+    }
+
+    private <K, V> KafkaProcessSpans<K, V> newProcessSpans(Predicate<ConsumerRecord<K, V>> recordFilter) {
+        if (kafkaTelemetryConfiguration.isPropagationOnly()) {
+            return KafkaProcessSpans.propagationOnly(consumerProcessInstrumenter, topicMatcher, recordFilter, propagator());
+        }
+        if (kafkaTelemetryConfiguration.isBatchSpans()) {
+            return new KafkaProcessSpans<>(consumerProcessInstrumenter, topicMatcher, recordFilter,
+                openTelemetry.getTracer(KafkaTelemetryBuilder.INSTRUMENTATION_NAME), propagator(), kafkaTelemetryConfiguration.getBatchMaxLinks());
+        }
+        return new KafkaProcessSpans<>(consumerProcessInstrumenter, topicMatcher, recordFilter);
+    }
+
     private <K, V> void processConsumerRecord(Context parentContext, ConsumerRecord<K, V> record, String consumerGroup, String clientId) {
         KafkaProcessRequest request = KafkaProcessRequest.create(record, consumerGroup, clientId);
         if (!consumerProcessInstrumenter.shouldStart(parentContext, request)) {
@@ -271,22 +395,7 @@ public final class KafkaTelemetry {
      * @return nedd or not exclude topic for tracing.
      */
     public boolean excludeTopic(String topic) {
-        if (CollectionUtils.isNotEmpty(kafkaTelemetryConfiguration.getIncludedTopics())) {
-            for (String includedTopic : kafkaTelemetryConfiguration.getIncludedTopics()) {
-                if (includedTopic.equalsIgnoreCase(topic)) {
-                    return false;
-                }
-            }
-            return true;
-        }
-        if (CollectionUtils.isNotEmpty(kafkaTelemetryConfiguration.getExcludedTopics())) {
-            for (String excludedTopic : kafkaTelemetryConfiguration.getExcludedTopics()) {
-                if (excludedTopic.equalsIgnoreCase(topic)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return topicMatcher.isExcluded(topic);
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
@@ -347,23 +456,34 @@ public final class KafkaTelemetry {
         return kafkaTelemetryConfiguration;
     }
 
+    /**
+     * Ends the producer span, and records the producer latency, once the record is acknowledged.
+     */
     private final class ProducerCallback implements Callback {
 
         private final Callback callback;
         private final Context parentContext;
+        @Nullable
         private final Context context;
+        @Nullable
         private final KafkaProducerRequest request;
+        private final String topic;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private volatile long appendedNanos;
 
-        private ProducerCallback(Callback callback, Context parentContext, Context context, KafkaProducerRequest request) {
+        private ProducerCallback(Callback callback, Context parentContext, @Nullable Context context,
+                                 @Nullable KafkaProducerRequest request, String topic) {
             this.callback = callback;
             this.parentContext = parentContext;
             this.context = context;
             this.request = request;
+            this.topic = topic;
         }
 
         @Override
         public void onCompletion(RecordMetadata metadata, Exception exception) {
-            producerInstrumenter.end(context, request, metadata, exception);
+            end(metadata, exception);
 
             if (callback != null) {
                 try (Scope ignored = parentContext.makeCurrent()) {
@@ -371,5 +491,32 @@ public final class KafkaTelemetry {
                 }
             }
         }
+
+        /**
+         * Marks the record as appended to a batch, when send returns.
+         */
+        void appended() {
+            appendedNanos = System.nanoTime();
+        }
+
+        void end(@Nullable RecordMetadata metadata, @Nullable Throwable error) {
+            if (!ended.compareAndSet(false, true)) {
+                return;
+            }
+            long endNanos = System.nanoTime();
+            // an acknowledgement that races with the return of send, or an error raised by send, has no split timings
+            long appended = appendedNanos;
+            if (context != null) {
+                if (appended != 0) {
+                    Span span = Span.fromContext(context);
+                    span.setAttribute(SEND_DURATION_MS, (appended - startNanos) / NANOS_PER_MILLI);
+                    span.setAttribute(ACK_DURATION_MS, (endNanos - appended) / NANOS_PER_MILLI);
+                }
+                producerInstrumenter.end(context, request, metadata, error);
+            }
+            if (producerLatency != null && appended != 0 && error == null) {
+                producerLatency.record(topic, appended - startNanos, endNanos - appended);
+            }
+        }
     }
 }
@@ -17,9 +17,9 @@ package io.micronaut.tracing.opentelemetry.instrument.kafka;
 
 import io.micronaut.core.annotation.Internal;
 import io.micronaut.core.annotation.Nullable;
-import io.micronaut.core.util.CollectionUtils;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
 import io.opentelemetry.instrumentation.kafka.internal.KafkaInstrumenterFactory;
@@ -30,9 +30,6 @@ import org.apache.kafka.clients.producer.RecordMetadata;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-
-import static io.micronaut.tracing.opentelemetry.instrument.kafka.KafkaAttributesExtractorUtils.putAttributes;
 
 /**
  * Builder class for KafkaTelemetry object.
@@ -85,31 +82,37 @@ public final class KafkaTelemetryBuilder {
 
     public KafkaTelemetry build() {
 
+        OpenTelemetry openTelemetry = KafkaBinaryTraceContextPropagator.wrap(this.openTelemetry, kafkaTelemetryConfiguration.isBinaryTraceContext());
         KafkaInstrumenterFactory instrumenterFactory = new KafkaInstrumenterFactory(openTelemetry, INSTRUMENTATION_NAME);
         instrumenterFactory.setCaptureExperimentalSpanAttributes(captureExperimentalSpanAttributes);
 
-        Set<String> capturedHeaders = kafkaTelemetryConfiguration.getCapturedHeaders();
-        if (CollectionUtils.isNotEmpty(capturedHeaders)) {
+        KafkaHeaderAttributes headerAttributes = new KafkaHeaderAttributes(kafkaTelemetryConfiguration);
+        if (!headerAttributes.isEmpty()) {
+            // headers are captured when the span ends, and only if it is recorded
             consumerAttributesExtractors.add(new AttributesExtractor<>() {
                 @Override
                 public void onStart(AttributesBuilder attributes, Context parentContext, KafkaProcessRequest processRequest) {
-                    putAttributes(kafkaTelemetryConfiguration, attributes, processRequest.getRecord().headers());
+                    // do nothing on start
                 }
 
                 @Override
                 public void onEnd(AttributesBuilder attributes, Context context, KafkaProcessRequest processRequest, Void unused, Throwable error) {
-                    // do nothing in the end
+                    if (Span.fromContext(context).isRecording()) {
+                        headerAttributes.capture(attributes, processRequest.getRecord().headers());
+                    }
                 }
             });
             producerAttributesExtractors.add(new AttributesExtractor<>() {
                 @Override
                 public void onStart(AttributesBuilder attributes, Context parentContext, KafkaProducerRequest producerRequest) {
-                    putAttributes(kafkaTelemetryConfiguration, attributes, producerRequest.getRecord().headers());
+                    // do nothing on start
                 }
 
                 @Override
                 public void onEnd(AttributesBuilder attributes, Context context, KafkaProducerRequest producerRequest, @Nullable RecordMetadata recordMetadata, @Nullable Throwable error) {
-                    // do nothing in the end
+                    if (Span.fromContext(context).isRecording()) {
+                        headerAttributes.capture(attributes, producerRequest.getRecord().headers());
+                    }
                 }
             });
         }
@@ -39,6 +39,21 @@ public class KafkaTelemetryConfiguration {
      * Value to capture all headers as span attributes.
      */
     public static final String ALL_HEADERS = "*";
+    /**
+     * Default value for the maximum number of captured bytes of a header value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_HEADER_VALUE_LENGTH = 256;
+    /**
+     * Default value for the maximum number of captured header bytes of a record.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_HEADER_BYTES = 1024;
+    /**
+     * Default value for the maximum number of span links of a batch span.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_BATCH_MAX_LINKS = 128;
     /**
      * Default prefix value for span attributes.
      */
@@ -58,11 +73,22 @@ public class KafkaTelemetryConfiguration {
      */
     private String attributePrefix = DEFAULT_ATTR_PREFIX;
     /**
-     * List of headers, which you want to add as span attributes. By default, all headers
-     * will be added as span attributes. If you don't want to set any headers as attributes,
-     * just set it to `null` or an empty string.
+     * List of headers, which you want to add as span attributes. By default, no headers
+     * are added as span attributes. To add all headers, set it to `*`.
+     */
+    private Set<String> capturedHeaders = Collections.emptySet();
+    /**
+     * The maximum number of bytes of a header value added as span attribute. Longer values are truncated.
      */
-    private Set<String> capturedHeaders = Collections.singleton(ALL_HEADERS);
+    private int maxHeaderValueLength = DEFAULT_MAX_HEADER_VALUE_LENGTH;
+    /**
+     * The maximum number of header bytes of a record added as span attributes.
+     */
+    private int maxHeaderBytes = DEFAULT_MAX_HEADER_BYTES;
+    /**
+     * How header values that are not UTF-8 text are rendered.
+     */
+    private BinaryHeaderEncoding binaryHeaderEncoding = BinaryHeaderEncoding.BASE64;
     /**
      * List of kafka topics in which messages need to trace.
      */
@@ -73,6 +99,34 @@ public class KafkaTelemetryConfiguration {
      * Important! If you set includedTopics property, this property will be ignored.
      */
     private Set<String> excludedTopics = Collections.emptySet();
+    /**
+     * If "true", the trace context is propagated through the record headers without creating producer and process spans.
+     */
+    private boolean propagationOnly;
+    /**
+     * If "true", the span context is propagated in a compact binary header instead of the W3C traceparent header.
+     */
+    private boolean binaryTraceContext;
+    /**
+     * If "true", the age and the end-to-end latency of the consumed records are recorded as histograms.
+     */
+    private boolean recordLatencyMetrics;
+    /**
+     * If "true", the time spent sending records and waiting for their acknowledgement is recorded as histograms.
+     */
+    private boolean producerLatencyMetrics;
+    /**
+     * If "true", producers add the time they send the record as a header.
+     */
+    private boolean producerTimestampHeader;
+    /**
+     * If "true", one process span is created for all records returned by a poll instead of one span per record.
+     */
+    private boolean batchSpans;
+    /**
+     * The maximum number of producer span contexts a batch span links to.
+     */
+    private int batchMaxLinks = DEFAULT_BATCH_MAX_LINKS;
 
     /**
      * Getter for headersAsLists flag.
@@ -110,6 +164,62 @@ public class KafkaTelemetryConfiguration {
         this.capturedHeaders = capturedHeaders;
     }
 
+    /**
+     * Getter for maxHeaderValueLength.
+     *
+     * @return maxHeaderValueLength
+     */
+    public int getMaxHeaderValueLength() {
+        return maxHeaderValueLength;
+    }
+
+    /**
+     * The maximum number of bytes of a header value added as span attribute. Longer values are truncated.
+     * Default: {@value #DEFAULT_MAX_HEADER_VALUE_LENGTH}.
+     *
+     * @param maxHeaderValueLength maxHeaderValueLength
+     */
+    public void setMaxHeaderValueLength(int maxHeaderValueLength) {
+        this.maxHeaderValueLength = maxHeaderValueLength;
+    }
+
+    /**
+     * Getter for maxHeaderBytes.
+     *
+     * @return maxHeaderBytes
+     */
+    public int getMaxHeaderBytes() {
+        return maxHeaderBytes;
+    }
+
+    /**
+     * The maximum number of header bytes of a record added as span attributes. The headers that
+     * exceed it are not added. Default: {@value #DEFAULT_MAX_HEADER_BYTES}.
+     *
+     * @param maxHeaderBytes maxHeaderBytes
+     */
+    public void setMaxHeaderBytes(int maxHeaderBytes) {
+        this.maxHeaderBytes = maxHeaderBytes;
+    }
+
+    /**
+     * Getter for binaryHeaderEncoding.
+     *
+     * @return binaryHeaderEncoding
+     */
+    public BinaryHeaderEncoding getBinaryHeaderEncoding() {
+        return binaryHeaderEncoding;
+    }
+
+    /**
+     * How header values that are not UTF-8 text are rendered. Default: BASE64.
+     *
+     * @param binaryHeaderEncoding binaryHeaderEncoding
+     */
+    public void setBinaryHeaderEncoding(BinaryHeaderEncoding binaryHeaderEncoding) {
+        this.binaryHeaderEncoding = binaryHeaderEncoding;
+    }
+
     /**
      * Getter for includedTopics.
      *
@@ -181,4 +291,152 @@ public class KafkaTelemetryConfiguration {
     public void setAttributePrefix(String attributePrefix) {
         this.attributePrefix = attributePrefix;
     }
+
+    /**
+     * Getter for propagationOnly flag.
+     *
+     * @return propagationOnly
+     */
+    public boolean isPropagationOnly() {
+        return propagationOnly;
+    }
+
+    /**
+     * If "true", the trace context is propagated through the record headers without creating producer and process spans.
+     * The context extracted from the record headers is current while the record is processed. Default: false.
+     *
+     * @param propagationOnly propagationOnly flag
+     */
+    public void setPropagationOnly(boolean propagationOnly) {
+        this.propagationOnly = propagationOnly;
+    }
+
+    /**
+     * Getter for binaryTraceContext flag.
+     *
+     * @return binaryTraceContext
+     */
+    public boolean isBinaryTraceContext() {
+        return binaryTraceContext;
+    }
+
+    /**
+     * If "true", producers propagate the span context in a 25-byte binary header instead of the W3C traceparent
+     * header. Consumers understand both formats, whatever the value of this flag. Default: false.
+     *
+     * @param binaryTraceContext binaryTraceContext flag
+     */
+    public void setBinaryTraceContext(boolean binaryTraceContext) {
+        this.binaryTraceContext = binaryTraceContext;
+    }
+
+    /**
+     * Getter for recordLatencyMetrics flag.
+     *
+     * @return recordLatencyMetrics
+     */
+    public boolean isRecordLatencyMetrics() {
+        return recordLatencyMetrics;
+    }
+
+    /**
+     * If "true", the age of the consumed records, and their end-to-end latency when the producer added its
+     * timestamp header, are recorded as histograms per topic and partition. Default: false.
+     *
+     * @param recordLatencyMetrics recordLatencyMetrics flag
+     */
+    public void setRecordLatencyMetrics(boolean recordLatencyMetrics) {
+        this.recordLatencyMetrics = recordLatencyMetrics;
+    }
+
+    /**
+     * Getter for producerLatencyMetrics flag.
+     *
+     * @return producerLatencyMetrics
+     */
+    public boolean isProducerLatencyMetrics() {
+        return producerLatencyMetrics;
+    }
+
+    /**
+     * If "true", the time spent in send, until the record is appended to a batch, and the time from the append to
+     * the acknowledgement are recorded as histograms per topic, also in propagation-only mode. Default: false.
+     *
+     * @param producerLatencyMetrics producerLatencyMetrics flag
+     */
+    public void setProducerLatencyMetrics(boolean producerLatencyMetrics) {
+        this.producerLatencyMetrics = producerLatencyMetrics;
+    }
+
+    /**
+     * Getter for producerTimestampHeader flag.
+     *
+     * @return producerTimestampHeader
+     */
+    public boolean isProducerTimestampHeader() {
+        return producerTimestampHeader;
+    }
+
+    /**
+     * If "true", producers add the time they send the record as an 8-byte header, so that consumers can record
+     * the end-to-end latency. Default: false.
+     *
+     * @param producerTimestampHeader producerTimestampHeader flag
+     */
+    public void setProducerTimestampHeader(boolean producerTimestampHeader) {
+        this.producerTimestampHeader = producerTimestampHeader;
+    }
+
+    /**
+     * Getter for batchSpans flag.
+     *
+     * @return batchSpans
+     */
+    public boolean isBatchSpans() {
+        return batchSpans;
+    }
+
+    /**
+     * If "true", one process span is created for all records returned by a poll instead of one span per record.
+     * The span links to the producer spans of the records. Default: false.
+     *
+     * @param batchSpans batchSpans flag
+     */
+    public void setBatchSpans(boolean batchSpans) {
+        this.batchSpans = batchSpans;
+    }
+
+    /**
+     * Getter for batchMaxLinks.
+     *
+     * @return batchMaxLinks
+     */
+    public int getBatchMaxLinks() {
+        return batchMaxLinks;
+    }
+
+    /**
+     * The maximum number of distinct producer span contexts a batch span links to. Default: {@value #DEFAULT_BATCH_MAX_LINKS}.
+     *
+     * @param batchMaxLinks batchMaxLinks
+     */
+    public void setBatchMaxLinks(int batchMaxLinks) {
+        this.batchMaxLinks = batchMaxLinks;
+    }
+
+    /**
+     * Rendering of binary header values.
+     *
+     * @since 6.9.0
+     */
+    public enum BinaryHeaderEncoding {
+        /**
+         * Lowercase hexadecimal.
+         */
+        HEX,
+        /**
+         * Base64 without line breaks.
+         */
+        BASE64
+    }
 }
@@ -16,10 +16,10 @@
 package io.micronaut.tracing.opentelemetry.instrument.kafka;
 
 import io.micronaut.core.annotation.Internal;
+import io.opentelemetry.instrumentation.kafka.internal.KafkaUtil;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
@@ -31,7 +31,6 @@ import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.Uuid;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -50,11 +49,14 @@ import java.util.regex.Pattern;
 final class MicronautOtelKafkaConsumer<K, V> implements Consumer<K, V> {
 
     private final Consumer<K, V> consumer;
-    private final KafkaTelemetry kafkaTelemetry;
+    private final KafkaProcessSpans<K, V> processSpans;
+    private boolean clientInfoResolved;
+    private String consumerGroup;
+    private String clientId;
 
     public MicronautOtelKafkaConsumer(Consumer<K, V> consumer, KafkaTelemetry kafkaTelemetry) {
         this.consumer = consumer;
-        this.kafkaTelemetry = kafkaTelemetry;
+        this.processSpans = kafkaTelemetry.processSpans(record -> kafkaTelemetry.filterConsumerRecord(record, consumer));
     }
 
     @Override
@@ -100,27 +102,27 @@ final class MicronautOtelKafkaConsumer<K, V> implements Consumer<K, V> {
 
     @Override
     public ConsumerRecords<K, V> poll(long l) {
-        ConsumerRecords<K, V> records = consumer.poll(l);
-        traceConsumerRecords(records);
-        return records;
+        processSpans.end();
+        return traceConsumerRecords(consumer.poll(l));
     }
 
     @Override
     public ConsumerRecords<K, V> poll(Duration duration) {
-        ConsumerRecords<K, V> records = consumer.poll(duration);
-        traceConsumerRecords(records);
-        return records;
-    }
-
-    private void traceConsumerRecords(ConsumerRecords<K, V> consumerRecords) {
-        List<ConsumerRecord<K, V>> recordsToTrace = new ArrayList<>();
-        for (ConsumerRecord<K, V> record : consumerRecords) {
-            if (kafkaTelemetry.excludeTopic(record.topic()) || !kafkaTelemetry.filterConsumerRecord(record, consumer)) {
-                continue;
-            }
-            recordsToTrace.add(record);
+        processSpans.end();
+        return traceConsumerRecords(consumer.poll(duration));
+    }
+
+    private ConsumerRecords<K, V> traceConsumerRecords(ConsumerRecords<K, V> consumerRecords) {
+        if (consumerRecords.isEmpty()) {
+            return consumerRecords;
+        }
+        if (!clientInfoResolved) {
+            // the client ID is looked up in the consumer metrics, resolve it once instead of on every poll
+            consumerGroup = KafkaUtil.getConsumerGroup(consumer);
+            clientId = KafkaUtil.getClientId(consumer);
+            clientInfoResolved = true;
         }
-        kafkaTelemetry.buildAndFinishSpan(recordsToTrace, consumer);
+        return processSpans.wrap(consumerRecords, consumerGroup, clientId);
     }
 
     @Override
@@ -305,11 +307,13 @@ final class MicronautOtelKafkaConsumer<K, V> implements Consumer<K, V> {
 
     @Override
     public void close() {
+        processSpans.end();
         consumer.close();
     }
 
     @Override
     public void close(Duration duration) {
+        processSpans.end();
         consumer.close(duration);
     }
 
@@ -91,7 +91,7 @@ final class MicronautOtelKafkaProducer<K, V>  implements Producer<K, V> {
     @Override
     public Future<RecordMetadata> send(ProducerRecord<K, V> producerRecord, Callback callback) {
         if (kafkaTelemetry.excludeTopic(producerRecord.topic()) || !kafkaTelemetry.filterProducerRecord(producerRecord, producer)) {
-            return producer.send(producerRecord);
+            return producer.send(producerRecord, callback);
         }
         return kafkaTelemetry.buildAndInjectSpan(producerRecord, producer, callback, producer::send);
     }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.kafka;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.util.CollectionUtils;
+
+/**
+ * Decides whether records of a topic are traced, based on the included and excluded topics of
+ * {@link KafkaTelemetryConfiguration}. The rules are compiled once, and the decision is cached per
+ * topic name. A rule is matched ignoring case and is either:
+ * <ul>
+ *     <li>a topic name, for example {@code orders}</li>
+ *     <li>a glob where {@code *} matches any characters and {@code ?} one character, for example {@code orders-*}</li>
+ *     <li>a regular expression prefixed with {@code regex:}, for example {@code regex:orders-(eu|us)}</li>
+ * </ul>
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class TopicMatcher {
+
+    static final String REGEX_PREFIX = "regex:";
+
+    /**
+     * Upper bound of cached decisions, to guard against topic names generated without bound.
+     */
+    private static final int MAX_CACHED_TOPICS = 10_000;
+
+    private final Set<String> names;
+    private final List<Pattern> patterns;
+    private final boolean include;
+    private final boolean empty;
+    private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+    private TopicMatcher(Collection<String> rules, boolean include) {
+        this.include = include;
+        this.empty = rules.isEmpty();
+        this.names = CollectionUtils.newHashSet(rules.size());
+        this.patterns = new ArrayList<>();
+        for (String rule : rules) {
+            if (rule.regionMatches(true, 0, REGEX_PREFIX, 0, REGEX_PREFIX.length())) {
+                patterns.add(Pattern.compile(rule.substring(REGEX_PREFIX.length()), Pattern.CASE_INSENSITIVE));
+            } else if (rule.indexOf('*') >= 0 || rule.indexOf('?') >= 0) {
+                patterns.add(Pattern.compile(globToRegex(rule), Pattern.CASE_INSENSITIVE));
+            } else {
+                names.add(rule.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    /**
+     * Compiles the topic rules of the configuration. Included topics take precedence over excluded topics.
+     *
+     * @param configuration the configuration
+     *
+     * @return the matcher
+     */
+    static TopicMatcher of(KafkaTelemetryConfiguration configuration) {
+        Set<String> includedTopics = configuration.getIncludedTopics();
+        if (CollectionUtils.isNotEmpty(includedTopics)) {
+            return new TopicMatcher(includedTopics, true);
+        }
+        Set<String> excludedTopics = configuration.getExcludedTopics();
+        return new TopicMatcher(CollectionUtils.isNotEmpty(excludedTopics) ? excludedTopics : Set.of(), false);
+    }
+
+    /**
+     * Returns whether records of the topic must not be traced.
+     *
+     * @param topic the topic
+     *
+     * @return true if the topic is excluded from tracing
+     */
+    boolean isExcluded(@Nullable String topic) {
+        if (empty || topic == null) {
+            return false;
+        }
+        Boolean excluded = decisions.get(topic);
+        if (excluded == null) {
+            excluded = matches(topic) != include;
+            if (decisions.size() < MAX_CACHED_TOPICS) {
+                decisions.put(topic, excluded);
+            }
+        }
+        return excluded;
+    }
+
+    private boolean matches(String topic) {
+        if (names.contains(topic.toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(topic).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 8);
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literalStart < i) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return regex.toString();
+    }
+}
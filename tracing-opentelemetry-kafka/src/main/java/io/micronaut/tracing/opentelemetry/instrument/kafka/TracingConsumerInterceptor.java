@@ -15,8 +15,6 @@
  */
 package io.micronaut.tracing.opentelemetry.instrument.kafka;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -42,25 +40,14 @@ public class TracingConsumerInterceptor<K, V> implements ConsumerInterceptor<K,
 
     private String consumerGroup;
     private String clientId;
+    private KafkaProcessSpans<K, V> processSpans;
 
     @Override
     public ConsumerRecords<K, V> onConsume(ConsumerRecords<K, V> records) {
-
-        KafkaTelemetry kafkaTelemetry = KafkaTelemetryHelper.getKafkaTelemetry();
-        List<ConsumerRecord<K, V>> recordsToTrace = new ArrayList<>();
-
-        for (ConsumerRecord<K, V> record : records) {
-            if (kafkaTelemetry.excludeTopic(record.topic())) {
-                continue;
-            }
-            if (!filterRecord(record, consumerGroup, clientId)) {
-                continue;
-            }
-            recordsToTrace.add(record);
+        if (processSpans == null) {
+            processSpans = KafkaTelemetryHelper.getKafkaTelemetry().processSpans(record -> filterRecord(record, consumerGroup, clientId));
         }
-        kafkaTelemetry.buildAndFinishSpan(recordsToTrace, consumerGroup, clientId);
-
-        return records;
+        return processSpans.wrap(records, consumerGroup, clientId);
     }
 
     /**
@@ -82,6 +69,9 @@ public class TracingConsumerInterceptor<K, V> implements ConsumerInterceptor<K,
 
     @Override
     public void close() {
+        if (processSpans != null) {
+            processSpans.end();
+        }
     }
 
     @Override
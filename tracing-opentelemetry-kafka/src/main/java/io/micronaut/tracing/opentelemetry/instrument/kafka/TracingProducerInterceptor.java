@@ -29,7 +29,12 @@ import org.apache.kafka.clients.producer.RecordMetadata;
  * Default tracing producer kafka interceptor. Altrernative way to connect tracing
  * to your kafka records. If you want to trace records, just connect this default implementation
  * producer interceptor to kafka. If you want to customize filter messages to trace, then
- * you need to override method filterRecord in child class and connect it to kafka. *
+ * you need to override method filterRecord in child class and connect it to kafka.
+ * <p>
+ * Kafka doesn't pass the record to {@link #onAcknowledgement(RecordMetadata, Exception)}, so
+ * the producer span can't be correlated with its acknowledgement and ends when the record is
+ * sent. Use the producer wrapper for spans that end with the acknowledgement.
+ *
  * @param <K> key class
  * @param <V> value class
  *
@@ -0,0 +1,112 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka
+
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.SpanContext
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.api.trace.TraceFlags
+import io.opentelemetry.api.trace.TraceState
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator
+import io.opentelemetry.context.Context
+import io.opentelemetry.context.propagation.ContextPropagators
+import io.opentelemetry.instrumentation.kafka.internal.KafkaHeadersSetter
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.consumer.ConsumerRecords
+import org.apache.kafka.clients.producer.MockProducer
+import org.apache.kafka.clients.producer.Producer
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.apache.kafka.common.TopicPartition
+import org.apache.kafka.common.header.internals.RecordHeaders
+import org.apache.kafka.common.serialization.StringSerializer
+import spock.lang.Specification
+
+class KafkaBinaryTraceContextPropagatorSpec extends Specification {
+
+    def spanContext = SpanContext.create("0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331", TraceFlags.sampled, TraceState.default)
+    def context = Context.root().with(Span.wrap(spanContext))
+
+    void "span context is propagated in the binary header"() {
+        given:
+        def propagator = new KafkaBinaryTraceContextPropagator(W3CTraceContextPropagator.getInstance(), true)
+        def headers = new RecordHeaders()
+
+        when:
+        propagator.inject(context, headers, KafkaHeadersSetter.INSTANCE)
+
+        then:
+        headers.lastHeader(KafkaBinaryTraceContextPropagator.HEADER).value().length == 25
+        !headers.lastHeader("traceparent")
+
+        when:
+        def extracted = Span.fromContext(propagator.extract(Context.root(), headers, KafkaHeadersGetter.INSTANCE)).spanContext
+
+        then:
+        extracted.traceId == spanContext.traceId
+        extracted.spanId == spanContext.spanId
+        extracted.sampled
+        extracted.remote
+    }
+
+    void "text header is injected when binary is disabled and understood on extraction"() {
+        given:
+        def propagator = new KafkaBinaryTraceContextPropagator(W3CTraceContextPropagator.getInstance(), false)
+        def headers = new RecordHeaders()
+
+        when:
+        propagator.inject(context, headers, KafkaHeadersSetter.INSTANCE)
+        def extracted = Span.fromContext(propagator.extract(Context.root(), headers, KafkaHeadersGetter.INSTANCE)).spanContext
+
+        then:
+        !headers.lastHeader(KafkaBinaryTraceContextPropagator.HEADER)
+        headers.lastHeader("traceparent")
+        extracted.spanId == spanContext.spanId
+    }
+
+    void "trace continues from a wrapped producer to the process span of the consumer"() {
+        given:
+        InMemorySpanExporter exporter = InMemorySpanExporter.create()
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build()
+        KafkaTelemetry kafkaTelemetry = KafkaTelemetry.create(openTelemetry,
+                new KafkaTelemetryConfiguration(binaryTraceContext: true), [], [])
+        MockProducer<String, String> mockProducer = new MockProducer<>(true, new StringSerializer(), new StringSerializer())
+        Producer<String, String> producer = kafkaTelemetry.wrap(mockProducer)
+
+        when:
+        producer.send(new ProducerRecord<>("topic", "key", "value")).get()
+        ProducerRecord<String, String> sent = mockProducer.history()[0]
+        def record = new ConsumerRecord<String, String>("topic", 0, 0, "key", "value")
+        sent.headers().each { record.headers().add(it) }
+        def records = new ConsumerRecords<String, String>([(new TopicPartition("topic", 0)): [record]])
+        SpanContext processing = null
+        for (ConsumerRecord<String, String> ignored : kafkaTelemetry.processSpans({ true }).wrap(records, "group", "client")) {
+            processing = Span.current().spanContext
+        }
+
+        then:
+        sent.headers().lastHeader(KafkaBinaryTraceContextPropagator.HEADER)
+        !sent.headers().lastHeader("traceparent")
+        SpanData producerSpan = exporter.finishedSpanItems.find { it.kind == SpanKind.PRODUCER }
+        SpanData processSpan = exporter.finishedSpanItems.find { it.kind == SpanKind.CONSUMER }
+        processing.traceId == producerSpan.traceId
+        processSpan.parentSpanId == producerSpan.spanId
+
+        cleanup:
+        openTelemetry.close()
+    }
+
+    void "invalid binary header is ignored"() {
+        given:
+        def headers = new RecordHeaders()
+        headers.add(KafkaBinaryTraceContextPropagator.HEADER, new byte[25])
+
+        expect:
+        KafkaBinaryTraceContextPropagator.traceParent(headers) == null
+    }
+}
@@ -0,0 +1,108 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka
+
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.common.Attributes
+import org.apache.kafka.common.header.internals.RecordHeaders
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class KafkaHeaderAttributesSpec extends Specification {
+
+    void "repeated headers get the occurrence as suffix"() {
+        given:
+        def headerAttributes = new KafkaHeaderAttributes(new KafkaTelemetryConfiguration(capturedHeaders: ["*"] as Set))
+        def headers = new RecordHeaders()
+        headers.add("a", "1".bytes)
+        headers.add("a", "2".bytes)
+        headers.add("a", "3".bytes)
+        headers.add("b", "4".bytes)
+
+        when:
+        def attributes = capture(headerAttributes, headers)
+
+        then:
+        attributes.get(AttributeKey.stringKey("a")) == "1"
+        attributes.get(AttributeKey.stringKey("a.1")) == "2"
+        attributes.get(AttributeKey.stringKey("a.2")) == "3"
+        attributes.get(AttributeKey.stringKey("b")) == "4"
+    }
+
+    void "repeated headers are counted beyond the scanned headers"() {
+        given:
+        def headerAttributes = new KafkaHeaderAttributes(new KafkaTelemetryConfiguration(capturedHeaders: ["*"] as Set))
+        def headers = new RecordHeaders()
+        20.times { headers.add(it % 2 == 0 ? "a" : "b", "$it".bytes) }
+
+        when:
+        def attributes = capture(headerAttributes, headers)
+
+        then:
+        attributes.size() == 20
+        attributes.get(AttributeKey.stringKey("a")) == "0"
+        attributes.get(AttributeKey.stringKey("b.7")) == "15"
+        attributes.get(AttributeKey.stringKey("a.9")) == "18"
+    }
+
+    void "values are truncated and the record is capped"() {
+        given:
+        def headerAttributes = new KafkaHeaderAttributes(new KafkaTelemetryConfiguration(
+                capturedHeaders: ["a", "b", "c"] as Set, maxHeaderValueLength: 4, maxHeaderBytes: 6))
+        def headers = new RecordHeaders()
+        headers.add("a", "abcdefgh".bytes)
+        headers.add("b", "ijklmnop".bytes)
+        headers.add("c", "q".bytes)
+
+        when:
+        def attributes = capture(headerAttributes, headers)
+
+        then:
+        attributes.size() == 2
+        attributes.get(AttributeKey.stringKey("a")) == "abcd"
+        attributes.get(AttributeKey.stringKey("c")) == "q"
+    }
+
+    void "truncation keeps complete characters"() {
+        given:
+        def headerAttributes = new KafkaHeaderAttributes(new KafkaTelemetryConfiguration(capturedHeaders: ["a"] as Set, maxHeaderValueLength: 4))
+        def headers = new RecordHeaders()
+        headers.add("a", "aé€".getBytes(StandardCharsets.UTF_8))
+
+        expect:
+        capture(headerAttributes, headers).get(AttributeKey.stringKey("a")) == "aé"
+    }
+
+    void "binary values are rendered with the configured encoding"() {
+        given:
+        def headerAttributes = new KafkaHeaderAttributes(new KafkaTelemetryConfiguration(
+                capturedHeaders: ["a"] as Set, binaryHeaderEncoding: encoding))
+        def headers = new RecordHeaders()
+        headers.add("a", [0, 1, -1] as byte[])
+
+        expect:
+        capture(headerAttributes, headers).get(AttributeKey.stringKey("a")) == rendered
+
+        where:
+        encoding                                                 | rendered
+        KafkaTelemetryConfiguration.BinaryHeaderEncoding.HEX     | "0001ff"
+        KafkaTelemetryConfiguration.BinaryHeaderEncoding.BASE64  | "AAH/"
+    }
+
+    void "headers are captured as lists"() {
+        given:
+        def headerAttributes = new KafkaHeaderAttributes(new KafkaTelemetryConfiguration(
+                capturedHeaders: ["a"] as Set, headersAsLists: true, attributeWithPrefix: true))
+        def headers = new RecordHeaders()
+        headers.add("a", "1".bytes)
+        headers.add("a", "2".bytes)
+
+        expect:
+        capture(headerAttributes, headers).get(AttributeKey.stringArrayKey("messaging.header.a")) == ["1", "2"]
+    }
+
+    private static Attributes capture(KafkaHeaderAttributes headerAttributes, RecordHeaders headers) {
+        def builder = Attributes.builder()
+        headerAttributes.capture(builder, headers)
+        builder.build()
+    }
+}
@@ -0,0 +1,95 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka
+
+import io.micronaut.configuration.kafka.config.AbstractKafkaConfiguration
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.event.BeanCreatedEvent
+import io.opentelemetry.api.OpenTelemetry
+import org.apache.kafka.clients.CommonClientConfigs
+import org.apache.kafka.common.MetricName
+import org.apache.kafka.common.metrics.JmxReporter
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class KafkaMetricFilterSpec extends Specification {
+
+    @Unroll
+    void "metric #name with tags #tags is accepted: #result"() {
+        given:
+        def filter = new KafkaMetricFilter(new KafkaMetricsConfiguration(
+                includes: includes as Set, excludes: excludes as Set, partitionMetrics: partitionMetrics))
+
+        expect:
+        filter.accept(new MetricName(name, "consumer-fetch-manager-metrics", "", tags)) == result
+
+        where:
+        name                    | tags                                      | includes     | excludes          | partitionMetrics | result
+        "records-consumed-rate" | [:]                                       | []           | []                | false            | true
+        "records-lag"           | [topic: "orders", partition: "0"]         | []           | []                | false            | false
+        "records-lag"           | [topic: "orders", partition: "0"]         | []           | []                | true             | true
+        "records-consumed-rate" | [topic: "orders"]                         | ["records-*"] | []               | false            | true
+        "fetch-latency-avg"     | [:]                                       | ["records-*"] | []               | false            | false
+        "records-consumed-rate" | [:]                                       | ["records-*"] | ["*-rate"]       | false            | false
+        "records-consumed-total"| [:]                                       | []           | ["*-rate"]        | false            | true
+    }
+
+    void "the reporter is registered in the Kafka client configurations"() {
+        given:
+        def context = ApplicationContext.run(
+                'otel.instrumentation.kafka.metrics.enabled': true,
+                'kafka.consumers.default.metric.reporters': 'com.example.Reporter',
+                'kafka.bootstrap.servers': 'localhost:9092'
+        )
+
+        when:
+        def configurations = context.getBeansOfType(AbstractKafkaConfiguration)
+
+        then:
+        !configurations.isEmpty()
+        configurations.every {
+            def reporters = it.config.get(CommonClientConfigs.METRIC_REPORTER_CLASSES_CONFIG).toString()
+            reporters.contains(FilteringMetricsReporter.name) && it.config.get(FilteringMetricsReporter.CONFIG_KEY_METRIC_FILTER) instanceof KafkaMetricFilter
+        }
+
+        cleanup:
+        context.close()
+    }
+
+    @Unroll
+    void "the reporter is appended to the configured reporters #reporters"() {
+        given:
+        def instrumentation = new KafkaMetricsReporterInstrumentation(
+                KafkaTelemetry.create(OpenTelemetry.noop(), new KafkaTelemetryConfiguration(), [], []), new KafkaMetricsConfiguration())
+        def properties = new Properties()
+        properties.put(CommonClientConfigs.METRIC_REPORTER_CLASSES_CONFIG, reporters)
+        def configuration = Mock(AbstractKafkaConfiguration) {
+            getConfig() >> properties
+        }
+
+        when:
+        instrumentation.onCreated(Mock(BeanCreatedEvent) {
+            getBean() >> configuration
+        })
+
+        then:
+        properties.get(CommonClientConfigs.METRIC_REPORTER_CLASSES_CONFIG) == result
+
+        where:
+        reporters                                               | result
+        "com.example.Reporter"                                  | ["com.example.Reporter", FilteringMetricsReporter.name]
+        "com.example.Reporter," + FilteringMetricsReporter.name | ["com.example.Reporter", FilteringMetricsReporter.name]
+        ["com.example.Reporter", JmxReporter]                   | ["com.example.Reporter", JmxReporter, FilteringMetricsReporter.name]
+        JmxReporter                                             | [JmxReporter, FilteringMetricsReporter.name]
+        ""                                                      | [FilteringMetricsReporter.name]
+    }
+
+    void "the reporter is not registered by default"() {
+        given:
+        def context = ApplicationContext.run('kafka.bootstrap.servers': 'localhost:9092')
+
+        expect:
+        !context.containsBean(KafkaMetricsReporterInstrumentation)
+
+        cleanup:
+        context.close()
+    }
+}
@@ -0,0 +1,131 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka
+
+import io.micronaut.configuration.kafka.annotation.KafkaClient
+import io.micronaut.configuration.kafka.annotation.KafkaListener
+import io.micronaut.configuration.kafka.annotation.OffsetReset
+import io.micronaut.configuration.kafka.annotation.Topic
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.tracing.util.KafkaSetup
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.SpanContext
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.ConcurrentHashMap
+
+class KafkaProcessScopeIntegrationSpec extends Specification {
+
+    PollingConditions conditions = new PollingConditions(timeout: 60, delay: 1)
+
+    @AutoCleanup
+    ApplicationContext context
+
+    void setupSpec() {
+        KafkaSetup.init()
+    }
+
+    void cleanupSpec() {
+        KafkaSetup.destroy()
+    }
+
+    void "a failing listener does not leak its context into the next record"() {
+        given:
+        run([:])
+        ScopeKafkaClient client = context.getBean(ScopeKafkaClient)
+        FailingListener listener = context.getBean(FailingListener)
+        def exporter = context.getBean(InMemorySpanExporter)
+
+        when:
+        client.publishFailing("fail")
+        client.publishFailing("ok")
+
+        then:
+        conditions.eventually {
+            listener.contexts.keySet() == ["fail", "ok"] as Set
+            processSpans(exporter).size() >= 2
+        }
+        SpanContext failed = listener.contexts["fail"]
+        SpanContext ok = listener.contexts["ok"]
+        failed.traceId != ok.traceId
+        SpanData okSpan = processSpans(exporter).find { it.spanId == ok.spanId }
+        okSpan.parentSpanId == exporter.finishedSpanItems.find { it.traceId == ok.traceId && it.name.contains("publish") }.spanId
+    }
+
+    void "a batch listener runs in the batch span"() {
+        given:
+        run(['otel.instrumentation.kafka.batch-spans': true])
+        ScopeKafkaClient client = context.getBean(ScopeKafkaClient)
+        BatchListener listener = context.getBean(BatchListener)
+        def exporter = context.getBean(InMemorySpanExporter)
+
+        when:
+        client.publishBatch("a")
+        client.publishBatch("b")
+        client.publishBatch("c")
+
+        then:
+        conditions.eventually {
+            listener.contexts.keySet() == ["a", "b", "c"] as Set
+            processSpans(exporter).sum { it.attributes.get(AttributeKey.longKey("messaging.batch.message_count")) } == 3
+        }
+        processSpans(exporter)*.spanId.toSet() == listener.contexts.values()*.spanId.toSet()
+        processSpans(exporter)*.links.flatten()*.spanContext*.traceId.toSet() ==
+                exporter.finishedSpanItems.findAll { it.name.contains("publish") }*.traceId.toSet()
+    }
+
+    private void run(Map<String, Object> properties) {
+        context = ApplicationContext.run([
+                'spec.name'              : 'KafkaProcessScopeIntegrationSpec',
+                'kafka.enabled'          : 'true',
+                'kafka.bootstrap.servers': KafkaSetup.kafkaContainer.bootstrapServers,
+        ] + properties)
+    }
+
+    private static List<SpanData> processSpans(InMemorySpanExporter exporter) {
+        exporter.finishedSpanItems.findAll { it.name.contains("process") }
+    }
+
+    @Requires(property = 'spec.name', value = 'KafkaProcessScopeIntegrationSpec')
+    @KafkaClient
+    static interface ScopeKafkaClient {
+
+        @Topic("scope-failing")
+        void publishFailing(String s);
+
+        @Topic("scope-batch")
+        void publishBatch(String s);
+    }
+
+    @Requires(property = 'spec.name', value = 'KafkaProcessScopeIntegrationSpec')
+    @KafkaListener(offsetReset = OffsetReset.EARLIEST)
+    static class FailingListener {
+
+        final Map<String, SpanContext> contexts = new ConcurrentHashMap<>()
+
+        @Topic("scope-failing")
+        void receive(String s) {
+            contexts.put(s, Span.current().spanContext)
+            if (s == "fail") {
+                throw new IllegalStateException("Listener failure")
+            }
+        }
+    }
+
+    @Requires(property = 'spec.name', value = 'KafkaProcessScopeIntegrationSpec')
+    @KafkaListener(offsetReset = OffsetReset.EARLIEST, batch = true)
+    static class BatchListener {
+
+        final Map<String, SpanContext> contexts = new ConcurrentHashMap<>()
+
+        @Topic("scope-batch")
+        void receive(List<String> values) {
+            SpanContext current = Span.current().spanContext
+            values.each { contexts.put(it, current) }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka
+
+import io.micronaut.core.propagation.PropagatedContext
+import io.micronaut.tracing.opentelemetry.OpenTelemetryPropagationContext
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator
+import io.opentelemetry.context.Context
+import io.opentelemetry.instrumentation.kafka.internal.KafkaInstrumenterFactory
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.consumer.ConsumerRecords
+import org.apache.kafka.common.TopicPartition
+import spock.lang.Specification
+
+class KafkaProcessSpansSpec extends Specification {
+
+    InMemorySpanExporter exporter = InMemorySpanExporter.create()
+    OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build())
+            .build()
+    def instrumenter = new KafkaInstrumenterFactory(openTelemetry, "test").createConsumerProcessInstrumenter(Collections.emptyList())
+    def topicMatcher = TopicMatcher.of(new KafkaTelemetryConfiguration())
+
+    void "process span is current while the record is processed"() {
+        given:
+        def processSpans = new KafkaProcessSpans<String, String>(instrumenter, topicMatcher, r -> true)
+        def records = records(record(0), record(1))
+        def current = []
+
+        when:
+        for (ConsumerRecord<String, String> record : processSpans.wrap(records, "group", "client")) {
+            current << Span.current().spanContext.spanId
+            assert exporter.finishedSpanItems.size() == record.offset()
+        }
+
+        then:
+        exporter.finishedSpanItems.size() == 2
+        current == exporter.finishedSpanItems*.spanId
+        !Span.current().spanContext.valid
+    }
+
+    void "filtered records are not traced"() {
+        given:
+        def processSpans = new KafkaProcessSpans<String, String>(instrumenter, topicMatcher, r -> r.offset() != 0)
+        def traced = []
+
+        when:
+        for (ConsumerRecord<String, String> record : processSpans.wrap(records(record(0), record(1)), "group", "client")) {
+            traced << Span.current().spanContext.valid
+        }
+
+        then:
+        traced == [false, true]
+        exporter.finishedSpanItems.size() == 1
+    }
+
+    void "records of excluded topics only are not wrapped"() {
+        given:
+        def configuration = new KafkaTelemetryConfiguration(excludedTopics: ["top*"] as Set)
+        def processSpans = new KafkaProcessSpans<String, String>(instrumenter, TopicMatcher.of(configuration), r -> true)
+        def records = records(record(0), record(1))
+
+        expect:
+        processSpans.wrap(records, "group", "client").is(records)
+    }
+
+    void "open span is ended by the next poll"() {
+        given:
+        def processSpans = new KafkaProcessSpans<String, String>(instrumenter, topicMatcher, r -> true)
+
+        when:
+        def iterator = processSpans.wrap(records(record(0), record(1)), "group", "client").iterator()
+        iterator.next()
+
+        then:
+        exporter.finishedSpanItems.empty
+        Span.current().spanContext.valid
+
+        when:
+        processSpans.wrap(ConsumerRecords.empty(), "group", "client")
+
+        then:
+        exporter.finishedSpanItems.size() == 1
+        !Span.current().spanContext.valid
+    }
+
+    void "scope is not closed once an enclosing scope has been closed"() {
+        given:
+        def processSpans = new KafkaProcessSpans<String, String>(instrumenter, topicMatcher, r -> true)
+        def loopContext = PropagatedContext.getOrEmpty().plus(new OpenTelemetryPropagationContext(Context.root()))
+
+        when:
+        def loopScope = loopContext.propagate()
+        processSpans.wrap(records(record(0)), "group", "client").iterator().next()
+        loopScope.close()
+        processSpans.wrap(ConsumerRecords.empty(), "group", "client")
+
+        then:
+        exporter.finishedSpanItems.size() == 1
+        !PropagatedContext.find().present
+
+        cleanup:
+        // the OpenTelemetry scope of the span was left open with the skipped scope
+        Context.root().makeCurrent()
+    }
+
+    void "one batch span links to the producer contexts of a poll"() {
+        given:
+        def processSpans = new KafkaProcessSpans<String, String>(instrumenter, topicMatcher, r -> true,
+                openTelemetry.getTracer("test"), W3CTraceContextPropagator.getInstance(), 2)
+        def records = records(
+                tracedRecord(0, "0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331"),
+                tracedRecord(1, "0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331"),
+                tracedRecord(2, "4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7"),
+                tracedRecord(3, "5bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7"))
+        def current = [] as Set
+
+        when:
+        for (ConsumerRecord<String, String> record : processSpans.wrap(records, "group", "client")) {
+            current << Span.current().spanContext.spanId
+        }
+
+        then:
+        exporter.finishedSpanItems.empty
+        current.size() == 1
+
+        when:
+        processSpans.end()
+        def span = exporter.finishedSpanItems[0]
+
+        then:
+        exporter.finishedSpanItems.size() == 1
+        span.spanId == current[0]
+        span.name == "topic process"
+        span.kind == SpanKind.CONSUMER
+        span.attributes.get(AttributeKey.longKey("messaging.batch.message_count")) == 4
+        span.links*.spanContext*.traceId == ["0af7651916cd43dd8448eb211c80319c", "4bf92f3577b34da6a3ce929d0e0e4736"]
+        !Span.current().spanContext.valid
+    }
+
+    private static ConsumerRecord<String, String> tracedRecord(long offset, String traceId, String spanId) {
+        def record = record(offset)
+        record.headers().add("traceparent", "00-$traceId-$spanId-01".toString().bytes)
+        record
+    }
+
+    private static ConsumerRecord<String, String> record(long offset) {
+        new ConsumerRecord<>("topic", 0, offset, "key", "value")
+    }
+
+    private static ConsumerRecords<String, String> records(ConsumerRecord<String, String>... records) {
+        new ConsumerRecords<>([(new TopicPartition("topic", 0)): records.toList()])
+    }
+}
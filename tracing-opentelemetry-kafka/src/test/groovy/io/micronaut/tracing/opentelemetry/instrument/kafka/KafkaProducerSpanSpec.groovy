@@ -0,0 +1,76 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka
+
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.metrics.SdkMeterProvider
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import org.apache.kafka.clients.producer.MockProducer
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.apache.kafka.common.serialization.StringSerializer
+import spock.lang.Specification
+
+class KafkaProducerSpanSpec extends Specification {
+
+    InMemorySpanExporter exporter = InMemorySpanExporter.create()
+    InMemoryMetricReader reader = InMemoryMetricReader.create()
+    OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build())
+            .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(reader).build())
+            .build()
+    MockProducer<String, String> mockProducer = new MockProducer<>(false, new StringSerializer(), new StringSerializer())
+
+    void "producer span ends once, when the record is acknowledged"() {
+        given:
+        def kafkaTelemetry = KafkaTelemetry.create(openTelemetry, new KafkaTelemetryConfiguration(producerLatencyMetrics: true), [], [])
+        def producer = kafkaTelemetry.wrap(mockProducer)
+        def acknowledged = false
+
+        when:
+        producer.send(new ProducerRecord<>("topic", "value"), (metadata, e) -> acknowledged = true)
+
+        then:
+        exporter.finishedSpanItems.empty
+
+        when:
+        mockProducer.completeNext()
+        def span = exporter.finishedSpanItems[0]
+
+        then:
+        acknowledged
+        exporter.finishedSpanItems.size() == 1
+        span.attributes.get(AttributeKey.doubleKey("messaging.kafka.producer.send_duration_ms")) >= 0
+        span.attributes.get(AttributeKey.doubleKey("messaging.kafka.producer.ack_duration_ms")) >= 0
+        reader.collectAllMetrics()*.name.containsAll([KafkaProducerLatency.SEND_DURATION, KafkaProducerLatency.ACK_DURATION])
+    }
+
+    void "failed send ends the span with the error"() {
+        given:
+        def kafkaTelemetry = KafkaTelemetry.create(openTelemetry, new KafkaTelemetryConfiguration(), [], [])
+        def producer = kafkaTelemetry.wrap(mockProducer)
+
+        when:
+        producer.send(new ProducerRecord<>("topic", "value"))
+        mockProducer.errorNext(new RuntimeException("broker down"))
+
+        then:
+        exporter.finishedSpanItems.size() == 1
+        exporter.finishedSpanItems[0].events*.name == ["exception"]
+    }
+
+    void "propagation-only producer records the latency without a span"() {
+        given:
+        def kafkaTelemetry = KafkaTelemetry.create(openTelemetry, new KafkaTelemetryConfiguration(propagationOnly: true, producerLatencyMetrics: true), [], [])
+        def producer = kafkaTelemetry.wrap(mockProducer)
+
+        when:
+        producer.send(new ProducerRecord<>("topic", "value"))
+        mockProducer.completeNext()
+
+        then:
+        exporter.finishedSpanItems.empty
+        reader.collectAllMetrics()*.name.containsAll([KafkaProducerLatency.SEND_DURATION, KafkaProducerLatency.ACK_DURATION])
+    }
+}
@@ -0,0 +1,43 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka
+
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.sdk.metrics.SdkMeterProvider
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.apache.kafka.common.header.internals.RecordHeaders
+import org.apache.kafka.common.record.TimestampType
+import spock.lang.Specification
+
+class KafkaRecordLatencySpec extends Specification {
+
+    def reader = InMemoryMetricReader.create()
+    def meterProvider = SdkMeterProvider.builder().registerMetricReader(reader).build()
+    def recordLatency = new KafkaRecordLatency(meterProvider.get("test"))
+
+    void "record age and end-to-end latency are recorded per partition"() {
+        given:
+        def producerRecord = new ProducerRecord<String, String>("topic", "value")
+        KafkaRecordLatency.addProducerTimestamp(producerRecord, 9_000)
+        def record = new ConsumerRecord<String, String>("topic", 3, 0, 8_000, TimestampType.CREATE_TIME, 0, 0,
+                "key", "value", new RecordHeaders(producerRecord.headers().toArray()), Optional.empty())
+
+        when:
+        recordLatency.record(record, 10_000)
+        def metrics = reader.collectAllMetrics().collectEntries { [(it.name): it.histogramData.points.first()] }
+
+        then:
+        metrics[KafkaRecordLatency.RECORD_AGE].sum == 2d
+        metrics[KafkaRecordLatency.END_TO_END_DURATION].sum == 1d
+        metrics[KafkaRecordLatency.RECORD_AGE].attributes.get(AttributeKey.stringKey("messaging.destination.name")) == "topic"
+        metrics[KafkaRecordLatency.RECORD_AGE].attributes.get(AttributeKey.stringKey("messaging.destination.partition.id")) == "3"
+    }
+
+    void "end-to-end latency is not recorded without the producer timestamp"() {
+        when:
+        recordLatency.record(new ConsumerRecord<String, String>("topic", 0, 0, "key", "value"), 10_000)
+
+        then:
+        reader.collectAllMetrics()*.name == [KafkaRecordLatency.RECORD_AGE]
+    }
+}
@@ -128,13 +128,35 @@ class KafkaTelemetryFactorySpec extends Specification {
         ctx.close()
     }
 
-    void "test kafka telemetry all headers config"() {
+    void "test kafka telemetry captures no headers by default"() {
         given:
         ApplicationContext ctx = ApplicationContext.run(
                 getConfiguration() + [
                         "otel.instrumentation.kafka.enabled": "true",
                 ])
 
+        when:
+        def kafkaTelemetryProperties = ctx.getBean(KafkaTelemetryConfiguration)
+        def attributesBuilder = Attributes.builder()
+        def headers = new RecordHeaders()
+        headers.add("test", "myTest".bytes)
+        KafkaAttributesExtractorUtils.putAttributes(kafkaTelemetryProperties, attributesBuilder, headers)
+
+        then:
+        attributesBuilder.build().empty
+
+        cleanup:
+        ctx.close()
+    }
+
+    void "test kafka telemetry all headers config"() {
+        given:
+        ApplicationContext ctx = ApplicationContext.run(
+                getConfiguration() + [
+                        "otel.instrumentation.kafka.enabled"         : "true",
+                        "otel.instrumentation.kafka.captured-headers": ["*"]
+                ])
+
         when:
         def kafkaTelemetryFactory = ctx.getBean(KafkaTelemetryFactory)
         def kafkaTelemetryProperties = ctx.getBean(KafkaTelemetryConfiguration)
@@ -0,0 +1,61 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka
+
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator
+import io.opentelemetry.context.propagation.ContextPropagators
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.consumer.ConsumerRecords
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.apache.kafka.common.TopicPartition
+import spock.lang.Specification
+
+class KafkaTelemetryPropagationOnlySpec extends Specification {
+
+    InMemorySpanExporter exporter = InMemorySpanExporter.create()
+    OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build())
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build()
+    KafkaTelemetry kafkaTelemetry = KafkaTelemetry.create(openTelemetry, new KafkaTelemetryConfiguration(propagationOnly: true), [], [])
+
+    void "producer injects the current context without a span"() {
+        given:
+        def span = openTelemetry.getTracer("test").spanBuilder("parent").startSpan()
+        def record = new ProducerRecord<String, String>("topic", "value")
+
+        when:
+        def scope = span.makeCurrent()
+        kafkaTelemetry.buildAndInjectSpan(record, "client")
+        scope.close()
+        span.end()
+
+        then:
+        new String(record.headers().lastHeader("traceparent").value()).contains(span.spanContext.spanId)
+        exporter.finishedSpanItems*.name == ["parent"]
+    }
+
+    void "consumer makes the record context current without a span"() {
+        given:
+        def processSpans = kafkaTelemetry.processSpans(r -> true)
+        def record = new ConsumerRecord<String, String>("topic", 0, 0, "key", "value")
+        record.headers().add("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01".bytes)
+        def records = new ConsumerRecords<String, String>([(new TopicPartition("topic", 0)): [record]])
+        def current = []
+
+        when:
+        for (ConsumerRecord<String, String> r : processSpans.wrap(records, "group", "client")) {
+            current << Span.current().spanContext
+        }
+
+        then:
+        current*.traceId == ["0af7651916cd43dd8448eb211c80319c"]
+        current*.spanId == ["b7ad6b7169203331"]
+        current[0].remote
+        !Span.current().spanContext.valid
+        exporter.finishedSpanItems.empty
+    }
+}
@@ -0,0 +1,33 @@
+package io.micronaut.tracing.opentelemetry.instrument.kafka
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class TopicMatcherSpec extends Specification {
+
+    @Unroll
+    void "topic #topic with included #included and excluded #excluded is excluded: #result"() {
+        given:
+        def matcher = TopicMatcher.of(new KafkaTelemetryConfiguration(includedTopics: included as Set, excludedTopics: excluded as Set))
+
+        expect:
+        matcher.isExcluded(topic) == result
+        matcher.isExcluded(topic) == result
+
+        where:
+        topic        | included                   | excluded          | result
+        "orders"     | []                         | []                | false
+        "orders"     | ["ORDERS"]                 | []                | false
+        "payments"   | ["orders"]                 | []                | true
+        "orders-eu"  | ["orders-*"]               | []                | false
+        "orders-eu"  | ["orders-??"]              | []                | false
+        "orders.eu"  | ["orders?eu"]              | []                | false
+        "ordersXeu"  | ["orders.eu"]              | []                | true
+        "orders-us"  | ["regex:orders-(eu|us)"]   | []                | false
+        "orders-ap"  | ["regex:orders-(eu|us)"]   | []                | true
+        "orders"     | []                         | ["Orders"]        | true
+        "orders-eu"  | []                         | ["*-eu"]          | true
+        "payments"   | []                         | ["orders*"]       | false
+        "orders"     | ["orders"]                 | ["orders"]        | false
+    }
+}
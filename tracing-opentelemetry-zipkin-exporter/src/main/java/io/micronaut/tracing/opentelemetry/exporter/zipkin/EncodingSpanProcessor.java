@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.exporter.zipkin;
+
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.exporter.zipkin.ZipkinSpanExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.BytesEncoder;
+import zipkin2.reporter.BytesMessageSender;
+import zipkin2.reporter.Encoding;
+import zipkin2.reporter.Sender;
+import zipkin2.reporter.SpanBytesEncoder;
+
+import java.util.List;
+
+/**
+ * A {@link SpanProcessor} that encodes each sampled span to the wire format of the {@link Sender}
+ * as soon as it ends. Only the encoded bytes are queued until they are sent, instead of the
+ * {@code SpanData} object graph kept by a {@code BatchSpanProcessor}, and they are sent as they
+ * are, without being encoded again. The spans are converted to Zipkin spans by the
+ * {@link ZipkinSpanExporter}, so they are the same as the ones it exports.
+ *
+ * @since 6.9.0
+ */
+public final class EncodingSpanProcessor implements SpanProcessor {
+
+    private final AsyncReporter<byte[]> reporter;
+    private final SpanExporter encoder;
+
+    /**
+     * @param sender the sender of the encoded spans
+     */
+    public EncodingSpanProcessor(Sender sender) {
+        this.reporter = AsyncReporter.builder(sender).build(new PreEncoded(sender.encoding()));
+        this.encoder = ZipkinSpanExporter.builder()
+            .setEncoder(SpanBytesEncoder.forEncoding(sender.encoding()))
+            .setSender(new ReportingSender(sender, reporter))
+            .setMeterProvider(MeterProvider.noop())
+            .build();
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (span.getSpanContext().isSampled()) {
+            encoder.export(List.of(span.toSpanData()));
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        reporter.flush();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        encoder.shutdown();
+        reporter.close();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * Hands the spans encoded by the {@link ZipkinSpanExporter} to the reporter.
+     */
+    private static final class ReportingSender implements BytesMessageSender {
+
+        private final Sender sender;
+        private final AsyncReporter<byte[]> reporter;
+
+        ReportingSender(Sender sender, AsyncReporter<byte[]> reporter) {
+            this.sender = sender;
+            this.reporter = reporter;
+        }
+
+        @Override
+        public Encoding encoding() {
+            return sender.encoding();
+        }
+
+        @Override
+        public int messageMaxBytes() {
+            return sender.messageMaxBytes();
+        }
+
+        @Override
+        public int messageSizeInBytes(List<byte[]> encodedSpans) {
+            return sender.messageSizeInBytes(encodedSpans);
+        }
+
+        @Override
+        public void send(List<byte[]> encodedSpans) {
+            for (byte[] encodedSpan : encodedSpans) {
+                reporter.report(encodedSpan);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Passes the spans through, since they are encoded when they end.
+     */
+    private static final class PreEncoded implements BytesEncoder<byte[]> {
+
+        private final Encoding encoding;
+
+        PreEncoded(Encoding encoding) {
+            this.encoding = encoding;
+        }
+
+        @Override
+        public Encoding encoding() {
+            return encoding;
+        }
+
+        @Override
+        public int sizeInBytes(byte[] encodedSpan) {
+            return encodedSpan.length;
+        }
+
+        @Override
+        public byte[] encode(byte[] encodedSpan) {
+            return encodedSpan;
+        }
+    }
+}
@@ -24,4 +24,25 @@ import io.micronaut.tracing.zipkin.http.client.HttpClientSenderConfiguration;
 @ConfigurationProperties(OtelHttpClientSenderConfiguration.PREFIX)
 public class OtelHttpClientSenderConfiguration extends HttpClientSenderConfiguration {
     public static final String PREFIX =  "otel.exporter.zipkin";
+
+    private boolean encodeOnEnd;
+
+    /**
+     * @return whether spans are encoded when they end
+     * @since 6.9.0
+     */
+    public boolean isEncodeOnEnd() {
+        return encodeOnEnd;
+    }
+
+    /**
+     * Sets whether spans are encoded to the wire format of the sender when they end, so that only
+     * the encoded bytes are queued until they are sent. Default value false.
+     *
+     * @param encodeOnEnd true if spans are encoded when they end
+     * @since 6.9.0
+     */
+    public void setEncodeOnEnd(boolean encodeOnEnd) {
+        this.encodeOnEnd = encodeOnEnd;
+    }
 }
@@ -23,6 +23,8 @@ import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
 import jakarta.inject.Singleton;
 import zipkin2.reporter.Sender;
 
+import static io.micronaut.core.util.StringUtils.TRUE;
+
 /**
  * Builds a {@code SpanProcessor} that exports traces to Zipkin.
  */
@@ -32,9 +34,23 @@ import zipkin2.reporter.Sender;
 public final class OtelHttpClientSenderFactory {
 
     @Singleton
+    @Requires(property = OtelHttpClientSenderConfiguration.PREFIX + ".encode-on-end", notEquals = TRUE)
     public SpanProcessor createExporter(Sender sender) {
         return BatchSpanProcessor.builder(ZipkinSpanExporter.builder().setSender(sender).build()).build();
     }
 
+    /**
+     * A {@code SpanProcessor} that encodes the spans when they end and sends the encoded bytes to Zipkin.
+     *
+     * @param sender the sender
+     * @return the span processor
+     * @since 6.9.0
+     */
+    @Singleton
+    @Requires(property = OtelHttpClientSenderConfiguration.PREFIX + ".encode-on-end", value = TRUE)
+    public SpanProcessor createEncodingProcessor(Sender sender) {
+        return new EncodingSpanProcessor(sender);
+    }
+
 }
 
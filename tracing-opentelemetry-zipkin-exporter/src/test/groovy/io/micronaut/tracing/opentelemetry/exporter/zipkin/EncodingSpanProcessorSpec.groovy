@@ -0,0 +1,140 @@
+package io.micronaut.tracing.opentelemetry.exporter.zipkin
+
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.api.trace.StatusCode
+import io.opentelemetry.api.metrics.MeterProvider
+import io.opentelemetry.context.Context
+import io.opentelemetry.exporter.zipkin.ZipkinSpanExporter
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.samplers.Sampler
+import spock.lang.Specification
+import zipkin2.codec.SpanBytesDecoder
+import zipkin2.reporter.Call
+import zipkin2.reporter.Encoding
+import zipkin2.reporter.Sender
+import zipkin2.reporter.SpanBytesEncoder
+
+class EncodingSpanProcessorSpec extends Specification {
+
+    void 'spans are encoded when they end and sent as they are'() {
+        given:
+        CapturingSender sender = new CapturingSender()
+        EncodingSpanProcessor processor = new EncodingSpanProcessor(sender)
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build()
+        def tracer = tracerProvider.get('test')
+
+        when:
+        Span parent = tracer.spanBuilder('parent').setSpanKind(SpanKind.SERVER).startSpan()
+        Span child = tracer.spanBuilder('child').setParent(Context.root().with(parent)).setAttribute('key', 'value').startSpan()
+        child.addEvent('event')
+        child.setStatus(StatusCode.ERROR, 'failed')
+        child.end()
+        parent.end()
+        processor.forceFlush()
+
+        then:
+        List<zipkin2.Span> spans = sender.spans.collect { SpanBytesDecoder.JSON_V2.decodeOne(it) }
+        spans*.name() == ['child', 'parent']
+        spans[0].parentId() == parent.spanContext.spanId
+        spans[0].traceId() == parent.spanContext.traceId
+        spans[0].tags()['key'] == 'value'
+        spans[0].tags()['error'] == 'failed'
+        spans[0].annotations()*.value() == ['"event":{}']
+        spans[1].kind() == zipkin2.Span.Kind.SERVER
+
+        cleanup:
+        tracerProvider.close()
+    }
+
+    void 'unsampled spans are not sent'() {
+        given:
+        CapturingSender sender = new CapturingSender()
+        EncodingSpanProcessor processor = new EncodingSpanProcessor(sender)
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setSampler(Sampler.alwaysOff())
+                .addSpanProcessor(processor)
+                .build()
+
+        when:
+        tracerProvider.get('test').spanBuilder('span').startSpan().end()
+        processor.forceFlush()
+
+        then:
+        sender.spans.empty
+
+        cleanup:
+        tracerProvider.close()
+    }
+
+    void 'spans are encoded like the OpenTelemetry Zipkin exporter encodes them'() {
+        given:
+        CapturingSender sender = new CapturingSender()
+        CapturingSender exported = new CapturingSender()
+        ZipkinSpanExporter exporter = ZipkinSpanExporter.builder()
+                .setEncoder(SpanBytesEncoder.JSON_V2)
+                .setSender(exported)
+                .setMeterProvider(MeterProvider.noop())
+                .build()
+        EncodingSpanProcessor processor = new EncodingSpanProcessor(sender)
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build()
+        def tracer = tracerProvider.get('test', '1.0')
+
+        when:
+        Span parent = tracer.spanBuilder('parent').setSpanKind(SpanKind.SERVER).startSpan()
+        Span client = tracer.spanBuilder('client')
+                .setParent(Context.root().with(parent))
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute('peer.service', 'inventory')
+                .setAttribute('server.address', 'inventory.local')
+                .setAttribute('error', 'timeout')
+                .startSpan()
+        client.recordException(new IllegalStateException('failed'))
+        client.setStatus(StatusCode.ERROR, 'failed')
+        client.end()
+        parent.setStatus(StatusCode.ERROR)
+        parent.end()
+        processor.forceFlush()
+
+        then:
+        List<zipkin2.Span> spans = sender.spans.collect { SpanBytesDecoder.JSON_V2.decodeOne(it) }
+        spans == exported.spans.collect { SpanBytesDecoder.JSON_V2.decodeOne(it) }
+        spans[0].remoteEndpoint().serviceName() == 'inventory'
+        spans[0].tags()['error'] == 'timeout'
+        spans[0].annotations()[0].value().contains('exception.stacktrace')
+        spans[1].tags()['error'] == ''
+
+        cleanup:
+        tracerProvider.close()
+    }
+
+    static class CapturingSender extends Sender {
+
+        final List<byte[]> spans = []
+
+        @Override
+        Encoding encoding() {
+            Encoding.JSON
+        }
+
+        @Override
+        int messageMaxBytes() {
+            500_000
+        }
+
+        @Override
+        int messageSizeInBytes(List<byte[]> encodedSpans) {
+            encoding().listSizeInBytes(encodedSpans)
+        }
+
+        @Override
+        Call<Void> sendSpans(List<byte[]> encodedSpans) {
+            spans.addAll(encodedSpans)
+            Call.create(null)
+        }
+    }
+}
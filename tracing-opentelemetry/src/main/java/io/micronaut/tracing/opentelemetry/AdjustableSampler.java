@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+
+/**
+ * Wraps the configured {@link Sampler} and allows it to be overridden at runtime with a
+ * parent based, trace id ratio based sampler.
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class AdjustableSampler implements Sampler {
+
+    private volatile Sampler configured = Sampler.parentBased(Sampler.alwaysOn());
+    private volatile Double probabilityOverride;
+    private volatile Sampler delegate = configured;
+
+    /**
+     * Sets the configured sampler.
+     *
+     * @param sampler the sampler
+     * @return this sampler
+     */
+    synchronized AdjustableSampler configure(Sampler sampler) {
+        configured = sampler;
+        if (probabilityOverride == null) {
+            delegate = sampler;
+        }
+        return this;
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        return delegate.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    /**
+     * @return the configured sampler
+     */
+    public Sampler getConfigured() {
+        return configured;
+    }
+
+    /**
+     * @return the probability override, or {@code null} if the configured sampler is used
+     */
+    @Nullable
+    public Double getProbabilityOverride() {
+        return probabilityOverride;
+    }
+
+    /**
+     * Overrides the configured sampler.
+     *
+     * @param probability the probability
+     */
+    public synchronized void overrideProbability(double probability) {
+        probabilityOverride = probability;
+        delegate = Sampler.parentBased(Sampler.traceIdRatioBased(probability));
+    }
+
+    /**
+     * Restores the configured sampler.
+     */
+    public synchronized void resetProbability() {
+        probabilityOverride = null;
+        delegate = configured;
+    }
+
+    @Override
+    public String toString() {
+        return "AdjustableSampler{" + delegate.getDescription() + '}';
+    }
+}
@@ -15,16 +15,22 @@
  */
 package io.micronaut.tracing.opentelemetry;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import io.micronaut.context.annotation.Bean;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Property;
 import io.micronaut.context.env.Environment;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.convert.format.MapFormat;
+import io.micronaut.core.order.OrderUtil;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.runtime.ApplicationConfiguration;
+import io.micronaut.tracing.opentelemetry.admission.SpanAdmissionController;
+import io.micronaut.tracing.opentelemetry.compression.SpanCompressionProcessor;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.events.GlobalEventEmitterProvider;
@@ -61,8 +67,12 @@ public class DefaultOpenTelemetryFactory {
      * @param applicationConfiguration the {@link ApplicationConfiguration}
      * @param otelConfig the configuration values for the opentelemetry autoconfigure
      * @param idGenerator the {@link IdGenerator}
-     * @param spanProcessor the {@link SpanProcessor}
+     * @param spanProcessors the {@link SpanProcessor} beans
      * @param resourceProvider Resource Provider
+     * @param sampler the {@link Sampler}
+     * @param adjustableSampler the {@link AdjustableSampler} wrapping the configured sampler
+     * @param samplerCustomizers the {@link SamplerCustomizer} beans
+     * @param spanCompressionProcessor the {@link SpanCompressionProcessor}, if span compression is enabled
      *
      * @return the OpenTelemetry bean with default values
      */
@@ -70,9 +80,12 @@ public class DefaultOpenTelemetryFactory {
     protected OpenTelemetry defaultOpenTelemetry(ApplicationConfiguration applicationConfiguration,
                                                  @Property(name = "otel") @MapFormat(transformation = FLAT) Map<String, String> otelConfig,
                                                  @Nullable IdGenerator idGenerator,
-                                                 @Nullable SpanProcessor spanProcessor,
+                                                 List<SpanProcessor> spanProcessors,
                                                  @Nullable ResourceProvider resourceProvider,
-                                                 @Nullable Sampler sampler) {
+                                                 @Nullable Sampler sampler,
+                                                 AdjustableSampler adjustableSampler,
+                                                 List<SamplerCustomizer> samplerCustomizers,
+                                                 @Nullable SpanCompressionProcessor spanCompressionProcessor) {
 
         Map<String, String> otel = otelConfig.entrySet().stream().collect(Collectors.toMap(
             e -> "otel." + e.getKey(),
@@ -91,27 +104,53 @@ public class DefaultOpenTelemetryFactory {
         }
 
         sdk.addPropertiesSupplier(() -> otel)
-            .addTracerProviderCustomizer((tracerProviderBuilder, ignored) -> {
+            .addTracerProviderCustomizer((tracerProviderBuilder, config) -> {
                     if (idGenerator != null) {
                         tracerProviderBuilder.setIdGenerator(idGenerator);
                     }
-                    if (spanProcessor != null) {
+                    for (SpanProcessor spanProcessor : spanProcessors) {
                         tracerProviderBuilder.addSpanProcessor(spanProcessor);
+                        if (spanProcessor instanceof SpanAdmissionController spanAdmissionController) {
+                            tracerProviderBuilder.setSpanLimits(spanAdmissionController.spanLimits(config));
+                        }
                     }
                     if (resourceProvider != null) {
                         tracerProviderBuilder.setResource(resourceProvider.resource());
                     }
-                    if (sampler != null) {
-                        tracerProviderBuilder.setSampler(sampler);
-                    }
 
                     return tracerProviderBuilder;
                 }
-            );
+            )
+            .addSamplerCustomizer((configured, ignored) -> {
+                Sampler result = adjustableSampler.configure(sampler != null ? sampler : configured);
+                List<SamplerCustomizer> customizers = new ArrayList<>(samplerCustomizers);
+                OrderUtil.sort(customizers);
+                for (SamplerCustomizer samplerCustomizer : customizers) {
+                    result = samplerCustomizer.customize(result);
+                }
+                return result;
+            });
+
+        if (spanCompressionProcessor != null) {
+            sdk.addSpanExporterCustomizer((spanExporter, ignored) -> spanCompressionProcessor.exporter(spanExporter));
+        }
 
         return sdk.build().getOpenTelemetrySdk();
     }
 
+    /**
+     * The sampler that wraps the configured one and allows the sampling probability to be changed at runtime.
+     * It is not exposed as a {@link Sampler} bean so that it does not replace the configured sampler.
+     *
+     * @return the {@link AdjustableSampler}
+     * @since 6.9.0
+     */
+    @Singleton
+    @Bean(typed = AdjustableSampler.class)
+    protected AdjustableSampler adjustableSampler() {
+        return new AdjustableSampler();
+    }
+
     /**
      * Reset OpenTelemetry, if it's running in test mode.
      *
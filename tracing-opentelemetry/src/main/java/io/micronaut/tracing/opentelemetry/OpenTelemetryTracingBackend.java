@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.convert.format.MapFormat;
+import io.micronaut.core.util.CollectionUtils;
+import io.micronaut.tracing.management.TracingBackend;
+import io.micronaut.tracing.opentelemetry.instrument.util.OpenTelemetryExclusionsConfiguration;
+import io.opentelemetry.api.OpenTelemetry;
+import jakarta.inject.Singleton;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.micronaut.core.convert.format.MapFormat.MapTransformation.FLAT;
+
+/**
+ * Describes the OpenTelemetry SDK to the {@link io.micronaut.tracing.management.TracingEndpoint}.
+ * The batch span processor only publishes its queue size through the SDK's own metrics, so the
+ * exporter section shows the configured exporter and queue limits.
+ *
+ * @since 6.9.0
+ */
+@Internal
+@Singleton
+@Requires(classes = TracingBackend.class)
+@Requires(beans = OpenTelemetry.class)
+final class OpenTelemetryTracingBackend implements TracingBackend {
+
+    private static final String EXPORTER_PREFIX = "bsp.";
+
+    private final AdjustableSampler adjustableSampler;
+    private final Map<String, String> otelConfig;
+    @Nullable
+    private final OpenTelemetryExclusionsConfiguration exclusionsConfiguration;
+
+    OpenTelemetryTracingBackend(AdjustableSampler adjustableSampler,
+                                @Property(name = "otel") @MapFormat(transformation = FLAT) Map<String, String> otelConfig,
+                                @Nullable OpenTelemetryExclusionsConfiguration exclusionsConfiguration) {
+        this.adjustableSampler = adjustableSampler;
+        this.otelConfig = otelConfig;
+        this.exclusionsConfiguration = exclusionsConfiguration;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return "opentelemetry";
+    }
+
+    @Override
+    @NonNull
+    public Map<String, Object> getSampler() {
+        Map<String, Object> sampler = new LinkedHashMap<>();
+        sampler.put("type", adjustableSampler.getConfigured().getDescription());
+        sampler.put("effectiveType", adjustableSampler.getDescription());
+        return sampler;
+    }
+
+    @Override
+    @NonNull
+    public Map<String, Object> getExporter() {
+        Map<String, Object> exporter = new LinkedHashMap<>();
+        exporter.put("type", otelConfig.getOrDefault("traces.exporter", "none"));
+        for (Map.Entry<String, String> entry : otelConfig.entrySet()) {
+            if (entry.getKey().startsWith(EXPORTER_PREFIX)) {
+                exporter.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return exporter;
+    }
+
+    @Override
+    @NonNull
+    public List<String> getExclusions() {
+        if (exclusionsConfiguration == null || CollectionUtils.isEmpty(exclusionsConfiguration.getExclusions())) {
+            return Collections.emptyList();
+        }
+        return exclusionsConfiguration.getExclusions();
+    }
+
+    @Override
+    public boolean isSamplingAdjustable() {
+        return true;
+    }
+
+    @Override
+    public void setSamplingProbability(double probability) {
+        adjustableSampler.overrideProbability(probability);
+    }
+
+    @Override
+    public void resetSamplingProbability() {
+        adjustableSampler.resetProbability();
+    }
+
+    @Override
+    @Nullable
+    public Double getSamplingProbabilityOverride() {
+        return adjustableSampler.getProbabilityOverride();
+    }
+}
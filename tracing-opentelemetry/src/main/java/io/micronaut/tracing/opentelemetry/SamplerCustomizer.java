@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.order.Ordered;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+/**
+ * API to wrap the sampler of the tracer provider. The customizers are applied by ascending
+ * {@link #getOrder() order} to the configured sampler, so the customizer with the highest order
+ * takes the sampling decision first.
+ *
+ * @since 6.9.0
+ */
+@FunctionalInterface
+public interface SamplerCustomizer extends Ordered {
+
+    /**
+     * @param sampler the sampler built so far
+     * @return the sampler to use instead, usually delegating to the given one
+     */
+    @NonNull
+    Sampler customize(@NonNull Sampler sampler);
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.admission;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+
+import static io.micronaut.core.util.StringUtils.TRUE;
+
+/**
+ * Configuration of the admission of spans under heap pressure.
+ *
+ * @since 6.9.0
+ */
+@ConfigurationProperties(SpanAdmissionConfiguration.PREFIX)
+@Requires(property = SpanAdmissionConfiguration.PREFIX + ".enabled", value = TRUE)
+public class SpanAdmissionConfiguration {
+
+    public static final String PREFIX = "otel.span-admission";
+
+    /**
+     * The default heap usage from which span attributes and events are trimmed.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_TRIM_THRESHOLD = 0.75;
+
+    /**
+     * The default heap usage from which the sampling ratio is lowered.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_SAMPLE_THRESHOLD = 0.85;
+
+    /**
+     * The default heap usage from which spans are not recorded.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_STOP_THRESHOLD = 0.95;
+
+    /**
+     * The default fraction of time spent in garbage collection that raises the admission level.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_GC_TIME_THRESHOLD = 0.2;
+
+    /**
+     * The default sampling ratio under heap pressure.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_SAMPLING_RATIO = 0.1;
+
+    /**
+     * The default maximum number of attributes of a trimmed span.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_TRIMMED_MAX_ATTRIBUTES = 16;
+
+    private boolean enabled;
+    private double trimThreshold = DEFAULT_TRIM_THRESHOLD;
+    private double sampleThreshold = DEFAULT_SAMPLE_THRESHOLD;
+    private double stopThreshold = DEFAULT_STOP_THRESHOLD;
+    private double gcTimeThreshold = DEFAULT_GC_TIME_THRESHOLD;
+    private double samplingRatio = DEFAULT_SAMPLING_RATIO;
+    private int trimmedMaxAttributes = DEFAULT_TRIMMED_MAX_ATTRIBUTES;
+
+    /**
+     * @return whether span admission is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether spans are degraded when the heap is under pressure. Default value false.
+     *
+     * @param enabled true if span admission is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the heap usage from which span attributes and events are trimmed
+     */
+    public double getTrimThreshold() {
+        return trimThreshold;
+    }
+
+    /**
+     * Sets the fraction of the maximum heap, used after a garbage collection, from which new spans
+     * are started without events or links and with at most {@link #getTrimmedMaxAttributes()}
+     * attributes. Default value ({@value #DEFAULT_TRIM_THRESHOLD}).
+     *
+     * @param trimThreshold the heap usage threshold
+     */
+    public void setTrimThreshold(double trimThreshold) {
+        this.trimThreshold = trimThreshold;
+    }
+
+    /**
+     * @return the heap usage from which the sampling ratio is lowered
+     */
+    public double getSampleThreshold() {
+        return sampleThreshold;
+    }
+
+    /**
+     * Sets the fraction of the maximum heap, used after a garbage collection, from which new
+     * traces are sampled with {@link #getSamplingRatio()}. Default value ({@value #DEFAULT_SAMPLE_THRESHOLD}).
+     *
+     * @param sampleThreshold the heap usage threshold
+     */
+    public void setSampleThreshold(double sampleThreshold) {
+        this.sampleThreshold = sampleThreshold;
+    }
+
+    /**
+     * @return the heap usage from which spans are not recorded
+     */
+    public double getStopThreshold() {
+        return stopThreshold;
+    }
+
+    /**
+     * Sets the fraction of the maximum heap, used after a garbage collection, from which no span
+     * is recorded. Default value ({@value #DEFAULT_STOP_THRESHOLD}).
+     *
+     * @param stopThreshold the heap usage threshold
+     */
+    public void setStopThreshold(double stopThreshold) {
+        this.stopThreshold = stopThreshold;
+    }
+
+    /**
+     * @return the fraction of time spent in garbage collection that raises the admission level
+     */
+    public double getGcTimeThreshold() {
+        return gcTimeThreshold;
+    }
+
+    /**
+     * Sets the fraction of time spent in garbage collection, between two collections, above which
+     * the admission level is raised by one step. Default value ({@value #DEFAULT_GC_TIME_THRESHOLD}).
+     *
+     * @param gcTimeThreshold the garbage collection time threshold
+     */
+    public void setGcTimeThreshold(double gcTimeThreshold) {
+        this.gcTimeThreshold = gcTimeThreshold;
+    }
+
+    /**
+     * @return the sampling ratio under heap pressure
+     */
+    public double getSamplingRatio() {
+        return samplingRatio;
+    }
+
+    /**
+     * Sets the ratio of the new traces that are sampled from the sample threshold. Default value ({@value #DEFAULT_SAMPLING_RATIO}).
+     *
+     * @param samplingRatio the sampling ratio
+     */
+    public void setSamplingRatio(double samplingRatio) {
+        this.samplingRatio = samplingRatio;
+    }
+
+    /**
+     * @return the maximum number of attributes of a trimmed span
+     */
+    public int getTrimmedMaxAttributes() {
+        return trimmedMaxAttributes;
+    }
+
+    /**
+     * Sets the maximum number of attributes of the spans started from the trim threshold.
+     * Default value ({@value #DEFAULT_TRIMMED_MAX_ATTRIBUTES}).
+     *
+     * @param trimmedMaxAttributes the maximum number of attributes
+     */
+    public void setTrimmedMaxAttributes(int trimmedMaxAttributes) {
+        this.trimmedMaxAttributes = trimmedMaxAttributes;
+    }
+}
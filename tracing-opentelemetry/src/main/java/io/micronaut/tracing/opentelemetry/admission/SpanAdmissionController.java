@@ -0,0 +1,357 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.admission;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.tracing.opentelemetry.SamplerCustomizer;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanLimits;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Degrades the recording of spans progressively when the heap is under pressure, so that tracing
+ * never adds to it. The heap usage and the time spent in garbage collection are measured after each
+ * garbage collection, from the JMX notifications of the garbage collectors, and select the
+ * admission {@link Level}. The level applies to the spans started afterwards: first their events,
+ * links and most attributes are dropped, then the sampling ratio of new traces is lowered, and
+ * finally spans are not recorded at all. These steps come before the export queue starts dropping
+ * ended spans.
+ *
+ * @since 6.9.0
+ */
+@Singleton
+@Requires(beans = SpanAdmissionConfiguration.class)
+public final class SpanAdmissionController implements SpanProcessor, SamplerCustomizer, NotificationListener {
+
+    /**
+     * The order of the admission sampler, which wraps every other sampler so that it is consulted first.
+     */
+    public static final int SAMPLER_ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpanAdmissionController.class);
+    private static final String GC_NOTIFICATION = "com.sun.management.gc.notification";
+    private static final SamplingResult DROP = SamplingResult.drop();
+
+    private final double trimThreshold;
+    private final double sampleThreshold;
+    private final double stopThreshold;
+    private final double gcTimeThreshold;
+    private final int trimmedMaxAttributes;
+    private final Sampler ratioSampler;
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final LongAdder trimmedSpans = new LongAdder();
+    private final LongAdder unsampledSpans = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder transitions = new LongAdder();
+
+    private volatile Level level = Level.NORMAL;
+    private long lastGcTimeMillis;
+    private long lastNanos;
+
+    /**
+     * @param configuration the span admission configuration
+     */
+    public SpanAdmissionController(SpanAdmissionConfiguration configuration) {
+        this.trimThreshold = configuration.getTrimThreshold();
+        this.sampleThreshold = configuration.getSampleThreshold();
+        this.stopThreshold = configuration.getStopThreshold();
+        this.gcTimeThreshold = configuration.getGcTimeThreshold();
+        this.trimmedMaxAttributes = configuration.getTrimmedMaxAttributes();
+        this.ratioSampler = Sampler.traceIdRatioBased(configuration.getSamplingRatio());
+        this.lastGcTimeMillis = gcTimeMillis();
+        this.lastNanos = System.nanoTime();
+        for (GarbageCollectorMXBean collector : collectors) {
+            if (collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(this, null, null);
+            }
+        }
+    }
+
+    /**
+     * @return the current admission level
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the number of spans started with trimmed limits
+     */
+    public long getTrimmedSpans() {
+        return trimmedSpans.sum();
+    }
+
+    /**
+     * @return the number of root spans that were not sampled because of the lowered sampling ratio
+     */
+    public long getUnsampledSpans() {
+        return unsampledSpans.sum();
+    }
+
+    /**
+     * @return the number of spans that were not recorded
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /**
+     * @return the number of admission level changes
+     */
+    public long getTransitions() {
+        return transitions.sum();
+    }
+
+    /**
+     * @param delegate the sampler taking the sampling decision
+     * @return a sampler applying the admission level
+     */
+    @Override
+    public Sampler customize(Sampler delegate) {
+        return new AdmissionSampler(delegate);
+    }
+
+    @Override
+    public int getOrder() {
+        return SAMPLER_ORDER;
+    }
+
+    /**
+     * @param config the OpenTelemetry configuration
+     * @return the span limits for the current admission level
+     */
+    public Supplier<SpanLimits> spanLimits(ConfigProperties config) {
+        SpanLimits configured = configuredLimits(config);
+        SpanLimits trimmed = configured.toBuilder()
+            .setMaxNumberOfAttributes(Math.min(trimmedMaxAttributes, configured.getMaxNumberOfAttributes()))
+            .setMaxNumberOfEvents(0)
+            .setMaxNumberOfLinks(0)
+            .build();
+        return () -> level == Level.NORMAL ? configured : trimmed;
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (GC_NOTIFICATION.equals(notification.getType())) {
+            MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+            long max = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+            long nanos = System.nanoTime();
+            long gcTime = gcTimeMillis();
+            double gcTimeRatio;
+            synchronized (this) {
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(nanos - lastNanos);
+                gcTimeRatio = elapsedMillis > 0 ? (double) (gcTime - lastGcTimeMillis) / elapsedMillis : 0;
+                lastGcTimeMillis = gcTime;
+                lastNanos = nanos;
+            }
+            update((double) heap.getUsed() / max, gcTimeRatio);
+        }
+    }
+
+    /**
+     * Selects the admission level. The level is raised by at most one step at a time, so a single
+     * collection does not stop the recording, and is lowered as soon as the pressure drops.
+     *
+     * @param heapUsage the fraction of the heap used after a garbage collection
+     * @param gcTimeRatio the fraction of time spent in garbage collection
+     */
+    synchronized void update(double heapUsage, double gcTimeRatio) {
+        Level target;
+        if (heapUsage >= stopThreshold) {
+            target = Level.STOP;
+        } else if (heapUsage >= sampleThreshold) {
+            target = Level.SAMPLE;
+        } else if (heapUsage >= trimThreshold) {
+            target = Level.TRIM;
+        } else {
+            target = Level.NORMAL;
+        }
+        if (gcTimeRatio > gcTimeThreshold && target != Level.STOP) {
+            target = Level.values()[target.ordinal() + 1];
+        }
+        Level current = level;
+        if (target.ordinal() > current.ordinal() + 1) {
+            target = Level.values()[current.ordinal() + 1];
+        }
+        if (target != current) {
+            level = target;
+            transitions.increment();
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("Span admission level changed from {} to {} (heap usage {}, GC time ratio {})", current, target, heapUsage, gcTimeRatio);
+            }
+        }
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        if (level != Level.NORMAL) {
+            trimmedSpans.increment();
+        }
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return false;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (closed.compareAndSet(false, true)) {
+            for (GarbageCollectorMXBean collector : collectors) {
+                if (collector instanceof NotificationEmitter emitter) {
+                    try {
+                        emitter.removeNotificationListener(this);
+                    } catch (ListenerNotFoundException e) {
+                        // already removed
+                    }
+                }
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        shutdown();
+    }
+
+    private long gcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static SpanLimits configuredLimits(ConfigProperties config) {
+        SpanLimits defaults = SpanLimits.getDefault();
+        int maxAttributes = config.getInt("otel.attribute.count.limit", defaults.getMaxNumberOfAttributes());
+        int maxLength = config.getInt("otel.attribute.value.length.limit", defaults.getMaxAttributeValueLength());
+        return SpanLimits.builder()
+            .setMaxNumberOfAttributes(config.getInt("otel.span.attribute.count.limit", maxAttributes))
+            .setMaxAttributeValueLength(config.getInt("otel.span.attribute.value.length.limit", maxLength))
+            .setMaxNumberOfEvents(config.getInt("otel.span.event.count.limit", defaults.getMaxNumberOfEvents()))
+            .setMaxNumberOfLinks(config.getInt("otel.span.link.count.limit", defaults.getMaxNumberOfLinks()))
+            .build();
+    }
+
+    /**
+     * The admission levels, from the least to the most degraded.
+     */
+    public enum Level {
+
+        /**
+         * Spans are recorded as configured.
+         */
+        NORMAL,
+
+        /**
+         * New spans are started without events or links and with fewer attributes.
+         */
+        TRIM,
+
+        /**
+         * New traces are also sampled with a lower ratio.
+         */
+        SAMPLE,
+
+        /**
+         * New spans are not recorded.
+         */
+        STOP
+    }
+
+    /**
+     * Applies the admission level to the sampling decision.
+     */
+    private final class AdmissionSampler implements Sampler {
+
+        private final Sampler delegate;
+
+        AdmissionSampler(Sampler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                           Attributes attributes, List<LinkData> parentLinks) {
+            Level current = level;
+            if (current == Level.STOP) {
+                droppedSpans.increment();
+                return DROP;
+            }
+            SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+            if (current != Level.SAMPLE || result.getDecision() == SamplingDecision.DROP) {
+                return result;
+            }
+            if (Span.fromContext(parentContext).getSpanContext().isValid()) {
+                return result;
+            }
+            if (ratioSampler.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks).getDecision() == SamplingDecision.DROP) {
+                unsampledSpans.increment();
+                return DROP;
+            }
+            return result;
+        }
+
+        @Override
+        public String getDescription() {
+            return "SpanAdmissionSampler{" + delegate.getDescription() + '}';
+        }
+    }
+}
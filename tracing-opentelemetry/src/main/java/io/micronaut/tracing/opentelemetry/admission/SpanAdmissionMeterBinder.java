@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+
+/**
+ * Publishes what the {@link SpanAdmissionController} did to Micrometer.
+ *
+ * @since 6.9.0
+ */
+@Singleton
+@Requires(classes = MeterBinder.class)
+@Requires(beans = SpanAdmissionController.class)
+public final class SpanAdmissionMeterBinder implements MeterBinder {
+
+    public static final String LEVEL = "span.admission.level";
+    public static final String TRANSITIONS = "span.admission.transitions";
+    public static final String SPANS = "span.admission.spans";
+    public static final String TAG_ACTION = "action";
+
+    private final SpanAdmissionController controller;
+
+    /**
+     * @param controller the span admission controller
+     */
+    public SpanAdmissionMeterBinder(SpanAdmissionController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(LEVEL, controller, c -> c.getLevel().ordinal())
+            .description("Span admission level: 0 normal, 1 trim, 2 sample, 3 stop")
+            .register(registry);
+        FunctionCounter.builder(TRANSITIONS, controller, SpanAdmissionController::getTransitions)
+            .description("Number of span admission level changes")
+            .register(registry);
+        FunctionCounter.builder(SPANS, controller, SpanAdmissionController::getTrimmedSpans)
+            .description("Number of spans degraded by the span admission")
+            .tag(TAG_ACTION, "trimmed")
+            .register(registry);
+        FunctionCounter.builder(SPANS, controller, SpanAdmissionController::getUnsampledSpans)
+            .description("Number of spans degraded by the span admission")
+            .tag(TAG_ACTION, "unsampled")
+            .register(registry);
+        FunctionCounter.builder(SPANS, controller, SpanAdmissionController::getDroppedSpans)
+            .description("Number of spans degraded by the span admission")
+            .tag(TAG_ACTION, "dropped")
+            .register(registry);
+    }
+}
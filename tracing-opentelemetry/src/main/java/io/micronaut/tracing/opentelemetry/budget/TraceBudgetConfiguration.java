@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.budget;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+
+import static io.micronaut.core.util.StringUtils.TRUE;
+
+/**
+ * Configuration of the per-trace span budget.
+ *
+ * @since 6.9.0
+ */
+@ConfigurationProperties(TraceBudgetConfiguration.PREFIX)
+@Requires(property = TraceBudgetConfiguration.PREFIX + ".enabled", value = TRUE)
+public class TraceBudgetConfiguration {
+
+    public static final String PREFIX = "otel.trace-budget";
+
+    /**
+     * The default maximum number of spans of a trace.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_SPANS = 10_000;
+
+    /**
+     * The default maximum size of the attributes of a trace.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final long DEFAULT_MAX_ATTRIBUTE_BYTES = 4 * 1024 * 1024;
+
+    private boolean enabled;
+    private int maxSpans = DEFAULT_MAX_SPANS;
+    private long maxAttributeBytes = DEFAULT_MAX_ATTRIBUTE_BYTES;
+
+    /**
+     * @return whether the trace budget is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the number and size of the spans of a trace are limited. Default value false.
+     *
+     * @param enabled true if the trace budget is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the maximum number of spans of a trace
+     */
+    public int getMaxSpans() {
+        return maxSpans;
+    }
+
+    /**
+     * Sets the maximum number of recorded spans of a trace, in this process. Default value ({@value #DEFAULT_MAX_SPANS}).
+     *
+     * @param maxSpans the maximum number of spans
+     */
+    public void setMaxSpans(int maxSpans) {
+        this.maxSpans = maxSpans;
+    }
+
+    /**
+     * @return the maximum size of the start attributes of a trace
+     */
+    public long getMaxAttributeBytes() {
+        return maxAttributeBytes;
+    }
+
+    /**
+     * Sets the maximum estimated size, in bytes, of the attributes the spans of a trace are started
+     * with, in this process. Default value ({@value #DEFAULT_MAX_ATTRIBUTE_BYTES}).
+     *
+     * @param maxAttributeBytes the maximum size of the attributes
+     */
+    public void setMaxAttributeBytes(long maxAttributeBytes) {
+        this.maxAttributeBytes = maxAttributeBytes;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.budget;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.tracing.opentelemetry.SamplerCustomizer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Limits the number of spans of a trace and the size of the attributes they are started with.
+ * The budget of a trace is tracked from the start to the end of its local root span. Spans over
+ * budget are dropped by the {@link #customize(Sampler) sampler} at span start, so they are not
+ * recording, and the local root span gets the {@link #TRUNCATED} attribute with the number of
+ * dropped spans.
+ *
+ * <p>At most {@link #MAX_TRACES} traces are tracked at a time. When the limit is reached, the
+ * budgets of the traces whose local root span started more than {@link #EXPIRY} ago without
+ * ending are released, and the traces started while there is no room are not limited.</p>
+ *
+ * @since 6.9.0
+ */
+@Singleton
+@Requires(beans = TraceBudgetConfiguration.class)
+public final class TraceBudgetProcessor implements SpanProcessor, SamplerCustomizer {
+
+    /**
+     * The attribute of the local root span holding the number of spans dropped from the trace.
+     */
+    public static final AttributeKey<Long> TRUNCATED = AttributeKey.longKey("micronaut.trace.truncated");
+
+    /**
+     * The maximum number of traces whose budget is tracked at a time.
+     */
+    public static final int MAX_TRACES = 10_000;
+
+    /**
+     * The time after which the budget of a trace can be released before its local root span ends.
+     */
+    public static final Duration EXPIRY = Duration.ofMinutes(10);
+
+    /**
+     * The order of the budget sampler, which wraps the samplers that record unsampled spans.
+     */
+    public static final int SAMPLER_ORDER = 100;
+
+    private static final SamplingResult DROP = SamplingResult.drop();
+    private static final int NUMBER_BYTES = 8;
+    private static final long EXPIRY_NANOS = EXPIRY.toNanos();
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxSpans;
+    private final long maxAttributeBytes;
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param configuration the trace budget configuration
+     */
+    public TraceBudgetProcessor(TraceBudgetConfiguration configuration) {
+        this.maxSpans = configuration.getMaxSpans();
+        this.maxAttributeBytes = configuration.getMaxAttributeBytes();
+    }
+
+    /**
+     * @param delegate the sampler taking the sampling decision
+     * @return a sampler dropping the spans that are over the budget of their trace
+     */
+    @Override
+    public Sampler customize(Sampler delegate) {
+        return new BudgetSampler(delegate);
+    }
+
+    @Override
+    public int getOrder() {
+        return SAMPLER_ORDER;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        if (!parent.isValid() || parent.isRemote()) {
+            Budget budget = budgets.get(span.getSpanContext().getTraceId());
+            if (budget != null) {
+                budget.attach(span);
+            }
+        }
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        if (!parent.isValid() || parent.isRemote()) {
+            String traceId = span.getSpanContext().getTraceId();
+            Budget budget = budgets.get(traceId);
+            if (budget != null && budget.root == span) {
+                budgets.remove(traceId, budget);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /**
+     * Starts tracking the budget of a trace, with the local root span counted.
+     */
+    private void track(String traceId, long rootAttributeBytes) {
+        long now = System.nanoTime();
+        if (budgets.size() >= MAX_TRACES) {
+            long nextSweep = nextSweepNanos.get();
+            if (now - nextSweep >= 0 && nextSweepNanos.compareAndSet(nextSweep, now + SWEEP_INTERVAL_NANOS)) {
+                budgets.values().removeIf(budget -> now - budget.startNanos > EXPIRY_NANOS);
+            }
+            if (budgets.size() >= MAX_TRACES) {
+                return;
+            }
+        }
+        budgets.putIfAbsent(traceId, new Budget(now, rootAttributeBytes));
+    }
+
+    private static long attributeBytes(Attributes attributes) {
+        if (attributes.isEmpty()) {
+            return 0;
+        }
+        AttributeBytes bytes = new AttributeBytes();
+        attributes.forEach(bytes);
+        return bytes.total;
+    }
+
+    /**
+     * The budget consumed by a trace.
+     */
+    private static final class Budget {
+
+        private final long startNanos;
+        private final AtomicLong spans = new AtomicLong(1);
+        private final AtomicLong attributeBytes;
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile ReadWriteSpan root;
+
+        Budget(long startNanos, long rootAttributeBytes) {
+            this.startNanos = startNanos;
+            this.attributeBytes = new AtomicLong(rootAttributeBytes);
+        }
+
+        synchronized void attach(ReadWriteSpan span) {
+            if (root == null) {
+                root = span;
+            }
+        }
+
+        void drop() {
+            long count = dropped.incrementAndGet();
+            ReadWriteSpan span = root;
+            if (span != null) {
+                span.setAttribute(TRUNCATED, count);
+            }
+        }
+    }
+
+    /**
+     * Estimates the size of attributes.
+     */
+    private static final class AttributeBytes implements BiConsumer<AttributeKey<?>, Object> {
+
+        private long total;
+
+        @Override
+        public void accept(AttributeKey<?> key, Object value) {
+            total += key.getKey().length();
+            if (value instanceof List<?> values) {
+                for (Object element : values) {
+                    total += valueBytes(element);
+                }
+            } else {
+                total += valueBytes(value);
+            }
+        }
+
+        private static int valueBytes(Object value) {
+            return value instanceof String string ? string.length() : NUMBER_BYTES;
+        }
+    }
+
+    /**
+     * Drops the spans of traces that are over budget.
+     */
+    private final class BudgetSampler implements Sampler {
+
+        private final Sampler delegate;
+
+        BudgetSampler(Sampler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                           Attributes attributes, List<LinkData> parentLinks) {
+            SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+            if (result.getDecision() == SamplingDecision.DROP) {
+                return result;
+            }
+            Budget budget = budgets.get(traceId);
+            if (budget == null) {
+                SpanContext parent = Span.fromContext(parentContext).getSpanContext();
+                if (!parent.isValid() || parent.isRemote()) {
+                    track(traceId, attributeBytes(attributes));
+                }
+                return result;
+            }
+            if (budget.spans.incrementAndGet() > maxSpans
+                || budget.attributeBytes.addAndGet(attributeBytes(attributes)) > maxAttributeBytes) {
+                budget.drop();
+                return DROP;
+            }
+            return result;
+        }
+
+        @Override
+        public String getDescription() {
+            return "TraceBudgetSampler{" + delegate.getDescription() + '}';
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.compression;
+
+import io.micronaut.core.annotation.Internal;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link SpanExporter} that replaces runs of consecutive sibling spans, that share the same name,
+ * kind and status, with a single composite span before delegating the export. The composite span
+ * keeps the identity of the first span of the run, ends with the last one and carries the number
+ * of spans together with their total, minimum and maximum durations.
+ *
+ * <p>Only spans that {@link SpanCompressionProcessor} proves to be leaves, that did not fail, that
+ * don't propagate the trace context to another service and are not longer than
+ * {@link SpanCompressionConfiguration#getMaxDuration()} are compressed, and only when a run is at
+ * least {@link SpanCompressionConfiguration#getMinSpans()} long.</p>
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class CompressingSpanExporter implements SpanExporter {
+
+    public static final AttributeKey<Long> COUNT = AttributeKey.longKey("micronaut.composite.count");
+    public static final AttributeKey<Double> SUM_MS = AttributeKey.doubleKey("micronaut.composite.sum_ms");
+    public static final AttributeKey<Double> MIN_MS = AttributeKey.doubleKey("micronaut.composite.min_ms");
+    public static final AttributeKey<Double> MAX_MS = AttributeKey.doubleKey("micronaut.composite.max_ms");
+
+    private static final AttributeKey<String> DB_SYSTEM = AttributeKey.stringKey("db.system");
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    private static final Comparator<SpanData> BY_START = Comparator.comparingLong(SpanData::getStartEpochNanos);
+
+    private final SpanExporter delegate;
+    private final SpanCompressionProcessor processor;
+    private final int minSpans;
+    private final long maxDurationNanos;
+    /**
+     * The IDs of the spans of the last batch that are tracked as parents. They are released at
+     * the next export, so that the other exporters the batch is handed to still see them as parents.
+     */
+    private List<String> exportedParents = List.of();
+
+    /**
+     * @param delegate the exporter the spans are exported with
+     * @param configuration the span compression configuration
+     * @param processor the processor tracking the spans with children
+     */
+    CompressingSpanExporter(SpanExporter delegate, SpanCompressionConfiguration configuration, SpanCompressionProcessor processor) {
+        this.delegate = delegate;
+        this.processor = processor;
+        this.minSpans = Math.max(2, configuration.getMinSpans());
+        this.maxDurationNanos = configuration.getMaxDuration().toNanos();
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        List<String> parents = new ArrayList<>();
+        for (SpanData span : spans) {
+            if (!processor.isLeaf(span.getSpanId())) {
+                parents.add(span.getSpanId());
+            }
+        }
+        releaseExportedParents(parents);
+        if (spans.size() < minSpans || !processor.isTracking()) {
+            return delegate.export(spans);
+        }
+        return delegate.export(compress(spans));
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        releaseExportedParents(List.of());
+        return delegate.shutdown();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return "CompressingSpanExporter{delegate=" + delegate + '}';
+    }
+
+    private synchronized void releaseExportedParents(List<String> parents) {
+        if (!exportedParents.isEmpty()) {
+            processor.exported(exportedParents);
+        }
+        exportedParents = parents;
+    }
+
+    private Collection<SpanData> compress(Collection<SpanData> spans) {
+        Map<String, List<SpanData>> siblings = new LinkedHashMap<>();
+        List<SpanData> result = new ArrayList<>(spans.size());
+        for (SpanData span : spans) {
+            if (span.getParentSpanContext().isValid()) {
+                siblings.computeIfAbsent(span.getTraceId() + span.getParentSpanId(), k -> new ArrayList<>()).add(span);
+            } else {
+                result.add(span);
+            }
+        }
+        if (result.size() == spans.size()) {
+            return spans;
+        }
+        boolean compressed = false;
+        for (List<SpanData> group : siblings.values()) {
+            if (group.size() < minSpans) {
+                result.addAll(group);
+                continue;
+            }
+            group.sort(BY_START);
+            int start = 0;
+            while (start < group.size()) {
+                SpanData first = group.get(start);
+                int end = start + 1;
+                if (isCompressible(first)) {
+                    while (end < group.size() && isSameRun(first, group.get(end))) {
+                        end++;
+                    }
+                }
+                if (end - start >= minSpans) {
+                    result.add(new CompositeSpanData(group.subList(start, end)));
+                    compressed = true;
+                } else {
+                    result.addAll(group.subList(start, end));
+                }
+                start = end;
+            }
+        }
+        return compressed ? result : spans;
+    }
+
+    private boolean isCompressible(SpanData span) {
+        return span.getStatus().getStatusCode() != StatusCode.ERROR
+            && span.getEndEpochNanos() - span.getStartEpochNanos() <= maxDurationNanos
+            && !propagatesContext(span)
+            && processor.isLeaf(span.getSpanId());
+    }
+
+    /**
+     * Producer spans, and client spans other than database calls, pass their span ID to the spans
+     * of other services, so they must stay resolvable.
+     */
+    private static boolean propagatesContext(SpanData span) {
+        return span.getKind() == SpanKind.PRODUCER
+            || span.getKind() == SpanKind.CLIENT && span.getAttributes().get(DB_SYSTEM) == null;
+    }
+
+    private boolean isSameRun(SpanData first, SpanData span) {
+        return first.getKind() == span.getKind()
+            && first.getStatus().getStatusCode() == span.getStatus().getStatusCode()
+            && first.getName().equals(span.getName())
+            && isCompressible(span);
+    }
+
+    /**
+     * A span standing for a run of compressed spans.
+     */
+    private static final class CompositeSpanData extends DelegatingSpanData {
+
+        private final long endEpochNanos;
+        private final Attributes attributes;
+
+        CompositeSpanData(List<SpanData> spans) {
+            super(spans.get(0));
+            long end = 0;
+            long sum = 0;
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            for (SpanData span : spans) {
+                long duration = span.getEndEpochNanos() - span.getStartEpochNanos();
+                sum += duration;
+                min = Math.min(min, duration);
+                max = Math.max(max, duration);
+                end = Math.max(end, span.getEndEpochNanos());
+            }
+            endEpochNanos = end;
+            attributes = spans.get(0).getAttributes().toBuilder()
+                .put(COUNT, (long) spans.size())
+                .put(SUM_MS, sum / NANOS_PER_MILLI)
+                .put(MIN_MS, min / NANOS_PER_MILLI)
+                .put(MAX_MS, max / NANOS_PER_MILLI)
+                .build();
+        }
+
+        @Override
+        public long getEndEpochNanos() {
+            return endEpochNanos;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public int getTotalAttributeCount() {
+            return super.getTotalAttributeCount() + 4;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.compression;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+
+import java.time.Duration;
+
+import static io.micronaut.core.util.StringUtils.TRUE;
+
+/**
+ * Configuration of the compression of repeated sibling spans before they are exported.
+ *
+ * @since 6.9.0
+ */
+@ConfigurationProperties(SpanCompressionConfiguration.PREFIX)
+@Requires(property = SpanCompressionConfiguration.PREFIX + ".enabled", value = TRUE)
+public class SpanCompressionConfiguration {
+
+    public static final String PREFIX = "otel.span-compression";
+
+    /**
+     * The default minimum number of spans.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MIN_SPANS = 3;
+
+    /**
+     * The default maximum duration of a compressed span.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_MAX_DURATION = Duration.ofMillis(50);
+
+    private boolean enabled;
+    private int minSpans = DEFAULT_MIN_SPANS;
+    private Duration maxDuration = DEFAULT_MAX_DURATION;
+
+    /**
+     * @return whether span compression is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether consecutive sibling spans of the same name and kind are exported as a single
+     * composite span. Default value false.
+     *
+     * @param enabled true if span compression is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the minimum number of consecutive spans that get compressed
+     */
+    public int getMinSpans() {
+        return minSpans;
+    }
+
+    /**
+     * Sets the minimum number of consecutive sibling spans that get compressed into a composite
+     * span. Default value ({@value #DEFAULT_MIN_SPANS}).
+     *
+     * @param minSpans the minimum number of spans
+     */
+    public void setMinSpans(int minSpans) {
+        this.minSpans = Math.max(2, minSpans);
+    }
+
+    /**
+     * @return the maximum duration of a span that can be compressed
+     */
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    /**
+     * Sets the maximum duration of a span that can be compressed. Longer spans are always exported
+     * as they are. Default value 50 milliseconds.
+     *
+     * @param maxDuration the maximum duration
+     */
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+}
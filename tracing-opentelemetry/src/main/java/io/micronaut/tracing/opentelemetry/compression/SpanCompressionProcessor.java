@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.compression;
+
+import io.micronaut.context.annotation.Requires;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the sampled spans that have children, so that {@link CompressingSpanExporter} only
+ * compresses spans that provably have none, even when the children are exported in an earlier
+ * batch. A span is tracked from the start of its first child until it is exported, or until it
+ * ends when it is too long to be compressed.
+ *
+ * <p>A span that can be compressed ends at most {@code max-duration} after the start of its first
+ * child. If it is not exported within {@link #EXPORT_TIMEOUT} after that, it is assumed to have been
+ * dropped, for example by a full export queue, and it is no longer tracked.</p>
+ *
+ * <p>The number of tracked spans is bounded by {@link #MAX_PARENTS}. When the bound is reached, the
+ * spans that are no longer expected to be exported are released. If there is still no room, the
+ * new parent spans can't be tracked, and compression stops until they can no longer be exported
+ * either.</p>
+ *
+ * @since 6.9.0
+ */
+@Singleton
+@Requires(beans = SpanCompressionConfiguration.class)
+public final class SpanCompressionProcessor implements SpanProcessor {
+
+    /**
+     * The maximum number of tracked spans.
+     */
+    public static final int MAX_PARENTS = 100_000;
+
+    /**
+     * The time after the end of a span within which it is expected to be exported.
+     */
+    public static final Duration EXPORT_TIMEOUT = Duration.ofMinutes(1);
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpanCompressionProcessor.class);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final SpanCompressionConfiguration configuration;
+    private final int maxParents;
+    private final long maxDurationNanos;
+    private final long retentionNanos;
+    /**
+     * The tracked spans, with the time after which they are no longer expected to be exported.
+     */
+    private final Map<String, Long> parents = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+    /**
+     * The time until which a span that couldn't be tracked may still be exported.
+     */
+    private final AtomicLong untrackedUntilNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param configuration the span compression configuration
+     */
+    @Inject
+    public SpanCompressionProcessor(SpanCompressionConfiguration configuration) {
+        this(configuration, MAX_PARENTS, EXPORT_TIMEOUT);
+    }
+
+    SpanCompressionProcessor(SpanCompressionConfiguration configuration, int maxParents, Duration exportTimeout) {
+        this.configuration = configuration;
+        this.maxParents = maxParents;
+        this.maxDurationNanos = configuration.getMaxDuration().toNanos();
+        this.retentionNanos = maxDurationNanos + exportTimeout.toNanos();
+    }
+
+    /**
+     * @param delegate the exporter the spans are exported with
+     * @return an exporter compressing the leaf spans tracked by this processor
+     */
+    public SpanExporter exporter(SpanExporter delegate) {
+        return new CompressingSpanExporter(delegate, configuration, this);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        if (!parent.isValid() || parent.isRemote() || !span.getSpanContext().isSampled()) {
+            return;
+        }
+        String parentSpanId = parent.getSpanId();
+        if (parents.containsKey(parentSpanId)) {
+            return;
+        }
+        long now = System.nanoTime();
+        long deadline = now + retentionNanos;
+        if (parents.size() >= maxParents) {
+            long nextSweep = nextSweepNanos.get();
+            if (now - nextSweep >= 0 && nextSweepNanos.compareAndSet(nextSweep, now + SWEEP_INTERVAL_NANOS)) {
+                parents.values().removeIf(expiry -> now - expiry > 0);
+            }
+            if (parents.size() >= maxParents) {
+                if (isTracking()) {
+                    LOG.warn("More than {} spans with children are waiting to be exported, span compression is suspended", maxParents);
+                }
+                untrackedUntilNanos.accumulateAndGet(deadline, (current, next) -> next - current > 0 ? next : current);
+                return;
+            }
+        }
+        parents.putIfAbsent(parentSpanId, deadline);
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (span.getLatencyNanos() > maxDurationNanos) {
+            parents.remove(span.getSpanContext().getSpanId());
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /**
+     * @param spanId the ID of an ended span
+     * @return whether the span provably has no children
+     */
+    boolean isLeaf(String spanId) {
+        return isTracking() && !parents.containsKey(spanId);
+    }
+
+    /**
+     * @return whether the spans can be proven to be leaves, that is whether every span that
+     * couldn't be tracked can no longer be exported
+     */
+    boolean isTracking() {
+        return System.nanoTime() - untrackedUntilNanos.get() >= 0;
+    }
+
+    /**
+     * Stops tracking spans that have been exported.
+     *
+     * @param spanIds the IDs of the exported spans
+     */
+    void exported(Collection<String> spanIds) {
+        for (String spanId : spanIds) {
+            parents.remove(spanId);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.util;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
+import io.opentelemetry.instrumentation.api.instrumenter.OperationListener;
+import io.opentelemetry.instrumentation.api.instrumenter.OperationMetrics;
+import io.opentelemetry.instrumentation.api.instrumenter.util.ClassAndMethod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the duration and the errors of the methods traced with {@code NewSpan}. The metrics are
+ * recorded for every invocation, whether the span is sampled or not. The attributes of every
+ * method are built once and reused, so recording a measurement doesn't allocate attributes.
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class CodeOperationMetrics implements OperationListener {
+
+    static final AttributeKey<String> CODE_NAMESPACE = AttributeKey.stringKey("code.namespace");
+    static final AttributeKey<String> CODE_FUNCTION = AttributeKey.stringKey("code.function");
+    static final AttributeKey<String> ERROR_TYPE = AttributeKey.stringKey("error.type");
+
+    private static final String DURATION = "micronaut.code.duration";
+    private static final String ERRORS = "micronaut.code.errors";
+    private static final double NANOS_PER_S = TimeUnit.SECONDS.toNanos(1);
+    private static final Class<?> NOOP_METER_CLASS = MeterProvider.noop().get("noop").getClass();
+    private static final ContextKey<State> STATE = ContextKey.named("micronaut-code-operation-metrics-state");
+
+    private final DoubleHistogram duration;
+    private final LongCounter errors;
+    private final Map<String, Map<String, MethodInstruments>> methods = new ConcurrentHashMap<>();
+
+    private CodeOperationMetrics(Meter meter) {
+        duration = meter.histogramBuilder(DURATION)
+            .setUnit("s")
+            .setDescription("Duration of the methods traced with NewSpan")
+            .build();
+        errors = meter.counterBuilder(ERRORS)
+            .setUnit("{error}")
+            .setDescription("Number of invocations of methods traced with NewSpan that failed")
+            .build();
+    }
+
+    /**
+     * @return the factory of code operation metrics
+     */
+    public static OperationMetrics get() {
+        return CodeOperationMetrics::new;
+    }
+
+    /**
+     * @param meter the meter of the instrumentation
+     * @return whether the measurements of the meter are recorded, which is not the case of a no-op meter
+     */
+    public static boolean isRecorded(Meter meter) {
+        return meter.getClass() != NOOP_METER_CLASS;
+    }
+
+    /**
+     * Adds the {@code error.type} attribute to failed operations, which is used to count errors.
+     *
+     * @return the attributes extractor
+     */
+    public static AttributesExtractor<ClassAndMethod, Object> errorTypeExtractor() {
+        return ErrorTypeExtractor.INSTANCE;
+    }
+
+    @Override
+    public Context onStart(Context context, Attributes startAttributes, long startNanos) {
+        String namespace = startAttributes.get(CODE_NAMESPACE);
+        String function = startAttributes.get(CODE_FUNCTION);
+        if (namespace == null || function == null) {
+            return context;
+        }
+        return context.with(STATE, new State(instruments(namespace, function), startNanos));
+    }
+
+    @Override
+    public void onEnd(Context context, Attributes endAttributes, long endNanos) {
+        State state = context.get(STATE);
+        if (state == null) {
+            return;
+        }
+        MethodInstruments instruments = state.instruments;
+        double seconds = (endNanos - state.startNanos) / NANOS_PER_S;
+        String errorType = endAttributes.get(ERROR_TYPE);
+        if (errorType == null) {
+            duration.record(seconds, instruments.attributes, context);
+        } else {
+            Attributes attributes = instruments.errorAttributes(errorType);
+            duration.record(seconds, attributes, context);
+            errors.add(1, attributes, context);
+        }
+    }
+
+    private MethodInstruments instruments(String namespace, String function) {
+        Map<String, MethodInstruments> functions = methods.get(namespace);
+        if (functions == null) {
+            functions = methods.computeIfAbsent(namespace, n -> new ConcurrentHashMap<>());
+        }
+        MethodInstruments instruments = functions.get(function);
+        if (instruments == null) {
+            instruments = functions.computeIfAbsent(function, f -> new MethodInstruments(namespace, f));
+        }
+        return instruments;
+    }
+
+    private record State(MethodInstruments instruments, long startNanos) {
+    }
+
+    /**
+     * The attributes of a method, built once.
+     */
+    private static final class MethodInstruments {
+
+        private final Attributes attributes;
+        private final Map<String, Attributes> errorAttributes = new ConcurrentHashMap<>();
+
+        MethodInstruments(String namespace, String function) {
+            attributes = Attributes.of(CODE_NAMESPACE, namespace, CODE_FUNCTION, function);
+        }
+
+        Attributes errorAttributes(String errorType) {
+            Attributes result = errorAttributes.get(errorType);
+            if (result == null) {
+                result = errorAttributes.computeIfAbsent(errorType, type -> attributes.toBuilder().put(ERROR_TYPE, type).build());
+            }
+            return result;
+        }
+    }
+
+    private enum ErrorTypeExtractor implements AttributesExtractor<ClassAndMethod, Object> {
+
+        INSTANCE;
+
+        @Override
+        public void onStart(AttributesBuilder attributes, Context parentContext, ClassAndMethod classAndMethod) {
+        }
+
+        @Override
+        public void onEnd(AttributesBuilder attributes, Context context, ClassAndMethod classAndMethod,
+                          @Nullable Object response, @Nullable Throwable error) {
+            if (error != null) {
+                attributes.put(ERROR_TYPE, error.getClass().getName());
+            }
+        }
+    }
+}
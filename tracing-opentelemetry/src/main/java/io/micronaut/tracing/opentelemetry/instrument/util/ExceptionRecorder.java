@@ -0,0 +1,298 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.util;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records exceptions on spans according to the {@link ExceptionRecordingConfiguration}. The
+ * instrumenters record the error they end a span with, so callers hand them the context returned
+ * by {@link #onEnd(Context, Throwable)} instead of recording the exception themselves, which
+ * records each exception once per span.
+ *
+ * @since 6.9.0
+ */
+@Internal
+@Singleton
+public final class ExceptionRecorder {
+
+    /**
+     * The recorder used when none is configured, which records the whole stack trace.
+     */
+    public static final ExceptionRecorder DEFAULT = new ExceptionRecorder(new ExceptionRecordingConfiguration());
+
+    static final String EXCEPTION_EVENT = "exception";
+    static final AttributeKey<String> EXCEPTION_TYPE = AttributeKey.stringKey("exception.type");
+    static final AttributeKey<String> EXCEPTION_MESSAGE = AttributeKey.stringKey("exception.message");
+    static final AttributeKey<String> EXCEPTION_STACKTRACE = AttributeKey.stringKey("exception.stacktrace");
+    static final AttributeKey<Boolean> DEDUPLICATED = AttributeKey.booleanKey("micronaut.exception.deduplicated");
+
+    private static final int FINGERPRINT_FRAMES = 5;
+    private static final int MAX_FINGERPRINTS = 10_000;
+    private static final int MAX_CAUSES = 8;
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ExceptionRecordingConfiguration.Mode mode;
+    private final int maxStackDepth;
+    private final long deduplicationWindowNanos;
+    private final Map<Fingerprint, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param configuration the exception recording configuration
+     */
+    public ExceptionRecorder(ExceptionRecordingConfiguration configuration) {
+        this.mode = configuration.getMode();
+        this.maxStackDepth = configuration.getMaxStackDepth();
+        Duration window = configuration.getDeduplicationWindow();
+        this.deduplicationWindowNanos = window == null ? 0 : window.toNanos();
+    }
+
+    /**
+     * @param context the context of the span that ends
+     * @param error the error the span ends with, if any
+     * @return the context to end the span with, so that the instrumenter records the error as configured
+     */
+    public Context onEnd(Context context, @Nullable Throwable error) {
+        if (error == null || isDefault()) {
+            return context;
+        }
+        Span span = Span.fromContext(context);
+        if (!span.isRecording()) {
+            return context;
+        }
+        return context.with(new RecordingSpan(span));
+    }
+
+    /**
+     * Records an exception on a span.
+     *
+     * @param span the span
+     * @param error the exception
+     */
+    public void record(Span span, Throwable error) {
+        record(span, error, Attributes.empty());
+    }
+
+    private void record(Span span, Throwable error, Attributes attributes) {
+        switch (mode) {
+            case OFF -> {
+                // not recorded
+            }
+            case MESSAGE -> span.addEvent(EXCEPTION_EVENT, message(error, attributes).build());
+            default -> {
+                if (deduplicationWindowNanos > 0 && !firstInWindow(error)) {
+                    span.addEvent(EXCEPTION_EVENT, message(error, attributes).put(DEDUPLICATED, true).build());
+                } else if (maxStackDepth > 0) {
+                    span.addEvent(EXCEPTION_EVENT, message(error, attributes).put(EXCEPTION_STACKTRACE, stackTrace(error)).build());
+                } else {
+                    span.recordException(error, attributes);
+                }
+            }
+        }
+    }
+
+    private boolean isDefault() {
+        return mode == ExceptionRecordingConfiguration.Mode.FULL && maxStackDepth <= 0 && deduplicationWindowNanos <= 0;
+    }
+
+    /**
+     * Checks whether an exception is the first one with its fingerprint in the deduplication
+     * window. When {@value #MAX_FINGERPRINTS} fingerprints are tracked, the expired windows are
+     * released, and the exceptions that still find no room are recorded in full.
+     */
+    private boolean firstInWindow(Throwable error) {
+        Fingerprint fingerprint = new Fingerprint(error);
+        long now = System.nanoTime();
+        if (windows.size() >= MAX_FINGERPRINTS && !windows.containsKey(fingerprint)) {
+            long nextSweep = nextSweepNanos.get();
+            if (now - nextSweep >= 0 && nextSweepNanos.compareAndSet(nextSweep, now + SWEEP_INTERVAL_NANOS)) {
+                windows.values().removeIf(window -> now - window.startNanos >= deduplicationWindowNanos);
+            }
+            if (windows.size() >= MAX_FINGERPRINTS) {
+                return true;
+            }
+        }
+        Window candidate = new Window(now);
+        return windows.compute(fingerprint, (key, window) ->
+            window != null && now - window.startNanos < deduplicationWindowNanos ? window : candidate) == candidate;
+    }
+
+    private static AttributesBuilder message(Throwable error, Attributes attributes) {
+        AttributesBuilder builder = attributes.toBuilder().put(EXCEPTION_TYPE, typeName(error));
+        String message = error.getMessage();
+        if (message != null) {
+            builder.put(EXCEPTION_MESSAGE, message);
+        }
+        return builder;
+    }
+
+    private String stackTrace(Throwable error) {
+        StringBuilder builder = new StringBuilder(256);
+        Throwable current = error;
+        for (int causes = 0; current != null && causes <= MAX_CAUSES; causes++) {
+            if (causes > 0) {
+                builder.append("\nCaused by: ");
+            }
+            builder.append(current);
+            StackTraceElement[] trace = current.getStackTrace();
+            int frames = Math.min(trace.length, maxStackDepth);
+            for (int i = 0; i < frames; i++) {
+                builder.append("\n\tat ").append(trace[i]);
+            }
+            if (trace.length > frames) {
+                builder.append("\n\t... ").append(trace.length - frames).append(" more");
+            }
+            Throwable cause = current.getCause();
+            current = cause == current ? null : cause;
+        }
+        return builder.toString();
+    }
+
+    private static String typeName(Throwable error) {
+        String name = error.getClass().getCanonicalName();
+        return name != null ? name : error.getClass().getName();
+    }
+
+    /**
+     * Identifies exceptions by their type and top stack frames.
+     */
+    private static final class Fingerprint {
+
+        private final Class<?> type;
+        private final StackTraceElement[] frames;
+        private final int hash;
+
+        Fingerprint(Throwable error) {
+            StackTraceElement[] trace = error.getStackTrace();
+            this.type = error.getClass();
+            this.frames = trace.length > FINGERPRINT_FRAMES ? Arrays.copyOf(trace, FINGERPRINT_FRAMES) : trace;
+            this.hash = 31 * type.hashCode() + Arrays.hashCode(frames);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Fingerprint that && hash == that.hash && type == that.type && Arrays.equals(frames, that.frames);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A deduplication window, started when an exception is recorded in full.
+     */
+    private static final class Window {
+
+        private final long startNanos;
+
+        Window(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * A span recording the exceptions with this recorder.
+     */
+    private final class RecordingSpan implements Span {
+
+        private final Span delegate;
+
+        RecordingSpan(Span delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T> Span setAttribute(AttributeKey<T> key, T value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public Span addEvent(String name, Attributes attributes) {
+            delegate.addEvent(name, attributes);
+            return this;
+        }
+
+        @Override
+        public Span addEvent(String name, Attributes attributes, long timestamp, TimeUnit unit) {
+            delegate.addEvent(name, attributes, timestamp, unit);
+            return this;
+        }
+
+        @Override
+        public Span addLink(SpanContext spanContext, Attributes attributes) {
+            delegate.addLink(spanContext, attributes);
+            return this;
+        }
+
+        @Override
+        public Span setStatus(StatusCode statusCode, String description) {
+            delegate.setStatus(statusCode, description);
+            return this;
+        }
+
+        @Override
+        public Span recordException(Throwable exception, Attributes additionalAttributes) {
+            record(delegate, exception, additionalAttributes);
+            return this;
+        }
+
+        @Override
+        public Span updateName(String name) {
+            delegate.updateName(name);
+            return this;
+        }
+
+        @Override
+        public void end() {
+            delegate.end();
+        }
+
+        @Override
+        public void end(long timestamp, TimeUnit unit) {
+            delegate.end(timestamp, unit);
+        }
+
+        @Override
+        public SpanContext getSpanContext() {
+            return delegate.getSpanContext();
+        }
+
+        @Override
+        public boolean isRecording() {
+            return delegate.isRecording();
+        }
+    }
+}
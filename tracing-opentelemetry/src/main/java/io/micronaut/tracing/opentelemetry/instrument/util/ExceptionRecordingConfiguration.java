@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.instrument.util;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Configuration of how exceptions are recorded on spans.
+ *
+ * @since 6.9.0
+ */
+@ConfigurationProperties(ExceptionRecordingConfiguration.PREFIX)
+public class ExceptionRecordingConfiguration {
+
+    public static final String PREFIX = "otel.exception-recording";
+
+    /**
+     * The default mode.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Mode DEFAULT_MODE = Mode.FULL;
+
+    private Mode mode = DEFAULT_MODE;
+    private int maxStackDepth;
+    private Duration deduplicationWindow;
+
+    /**
+     * @return how exceptions are recorded
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets how exceptions are recorded. Default value {@code FULL}.
+     *
+     * @param mode the mode
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * @return the maximum number of stack frames recorded for an exception and each of its causes
+     */
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Sets the maximum number of stack frames recorded for an exception and each of its causes, in
+     * the {@code FULL} mode. Zero or less records the whole stack trace. Default value 0.
+     *
+     * @param maxStackDepth the maximum number of stack frames
+     */
+    public void setMaxStackDepth(int maxStackDepth) {
+        this.maxStackDepth = maxStackDepth;
+    }
+
+    /**
+     * @return the time window in which the stack trace of an exception is recorded only once
+     */
+    @Nullable
+    public Duration getDeduplicationWindow() {
+        return deduplicationWindow;
+    }
+
+    /**
+     * Sets the time window in which the stack trace of exceptions with the same fingerprint, made
+     * of the exception type and its top stack frames, is recorded only once, in the {@code FULL}
+     * mode. Other occurrences are recorded with their message only. Not set by default.
+     *
+     * @param deduplicationWindow the deduplication window
+     */
+    public void setDeduplicationWindow(@Nullable Duration deduplicationWindow) {
+        this.deduplicationWindow = deduplicationWindow;
+    }
+
+    /**
+     * How exceptions are recorded.
+     */
+    public enum Mode {
+
+        /**
+         * Exceptions are recorded with their stack trace.
+         */
+        FULL,
+
+        /**
+         * Exceptions are recorded with their type and message only.
+         */
+        MESSAGE,
+
+        /**
+         * Exceptions are not recorded. The span status still reflects the error.
+         */
+        OFF
+    }
+}
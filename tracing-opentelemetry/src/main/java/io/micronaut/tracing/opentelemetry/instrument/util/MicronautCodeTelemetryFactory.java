@@ -16,19 +16,21 @@
 package io.micronaut.tracing.opentelemetry.instrument.util;
 
 import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Property;
 import io.micronaut.context.annotation.Prototype;
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.api.instrumenter.InstrumenterBuilder;
+import io.opentelemetry.instrumentation.api.instrumenter.code.CodeAttributesExtractor;
 import io.opentelemetry.instrumentation.api.instrumenter.code.CodeAttributesGetter;
 import io.opentelemetry.instrumentation.api.instrumenter.code.CodeSpanNameExtractor;
-import io.opentelemetry.instrumentation.api.instrumenter.http.HttpClientMetrics;
 import io.opentelemetry.instrumentation.api.instrumenter.util.ClassAndMethod;
 import jakarta.inject.Named;
 
 /**
- * An HTTP client instrumentation factory for Open Telemetry.
+ * A code instrumentation factory for Open Telemetry.
  *
  * @author Nemanja Mikic
  * @since 4.2.0
@@ -36,22 +38,43 @@ import jakarta.inject.Named;
 @Factory
 public final class MicronautCodeTelemetryFactory {
 
+    /**
+     * The property that enables the code operation metrics.
+     */
+    public static final String METRICS_ENABLED = "otel.instrumentation.code.metrics.enabled";
+
     private static final String INSTRUMENTATION_NAME = "io.micronaut.code";
 
+    /**
+     * Builds the code Open Telemetry instrumenter, with the code operation metrics.
+     * @param openTelemetry the {@link OpenTelemetry}
+     * @return the OpenTelemetry bean with default values
+     */
+    public Instrumenter<ClassAndMethod, Object> instrumenter(OpenTelemetry openTelemetry) {
+        return instrumenter(openTelemetry, true);
+    }
+
     /**
      * Builds the code Open Telemetry instrumenter.
      * @param openTelemetry the {@link OpenTelemetry}
+     * @param metricsEnabled whether the code operation metrics are recorded
      * @return the OpenTelemetry bean with default values
      */
     @Prototype
     @Requires(beans = OpenTelemetry.class)
     @Named("micronautCodeTelemetryInstrumenter")
-    public Instrumenter<ClassAndMethod, Object> instrumenter(OpenTelemetry openTelemetry) {
+    public Instrumenter<ClassAndMethod, Object> instrumenter(OpenTelemetry openTelemetry,
+                                                            @Property(name = METRICS_ENABLED, defaultValue = StringUtils.TRUE) boolean metricsEnabled) {
         CodeAttributesGetter<ClassAndMethod> classAndMethodAttributesGetter = ClassAndMethod.codeAttributesGetter();
         InstrumenterBuilder<ClassAndMethod, Object> builder = Instrumenter.builder(
             openTelemetry, INSTRUMENTATION_NAME, CodeSpanNameExtractor.create(classAndMethodAttributesGetter));
 
-        return builder.addOperationMetrics(HttpClientMetrics.get())
-            .buildInstrumenter();
+        builder.addAttributesExtractor(CodeAttributesExtractor.create(classAndMethodAttributesGetter));
+        // the listener allocates a context per invocation, which is wasted when nothing is recorded
+        if (metricsEnabled && CodeOperationMetrics.isRecorded(openTelemetry.getMeter(INSTRUMENTATION_NAME))) {
+            builder.addAttributesExtractor(CodeOperationMetrics.errorTypeExtractor())
+                .addOperationMetrics(CodeOperationMetrics.get());
+        }
+        return builder.buildInstrumenter();
     }
 }
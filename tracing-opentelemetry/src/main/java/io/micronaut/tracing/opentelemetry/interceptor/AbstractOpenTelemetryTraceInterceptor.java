@@ -18,14 +18,16 @@ package io.micronaut.tracing.opentelemetry.interceptor;
 import io.micronaut.aop.InterceptPhase;
 import io.micronaut.aop.MethodInterceptor;
 import io.micronaut.aop.MethodInvocationContext;
-import io.micronaut.core.annotation.AnnotationMetadata;
-import io.micronaut.core.type.Argument;
+import io.micronaut.inject.ExecutableMethod;
 import io.micronaut.tracing.annotation.SpanTag;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.api.instrumenter.util.ClassAndMethod;
 import jakarta.inject.Named;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Implements tracing logic for {@code ContinueSpan} and {@code NewSpan}
  * using the Open Telemetry API.
@@ -38,6 +40,8 @@ public abstract sealed class AbstractOpenTelemetryTraceInterceptor implements Me
 
     protected final Instrumenter<ClassAndMethod, Object> instrumenter;
 
+    private final Map<ExecutableMethod<?, ?>, TracedMethod> tracedMethods = new ConcurrentHashMap<>();
+
     /**
      * Initialize the interceptor with tracer and conversion service.
      *
@@ -52,20 +56,57 @@ public abstract sealed class AbstractOpenTelemetryTraceInterceptor implements Me
         return InterceptPhase.TRACE.getPosition();
     }
 
+    /**
+     * Returns the cached invariant data of the intercepted method.
+     *
+     * @param context the invocation context
+     * @return the traced method
+     */
+    final TracedMethod tracedMethod(MethodInvocationContext<?, ?> context) {
+        ExecutableMethod<?, ?> executableMethod = context.getExecutableMethod();
+        TracedMethod tracedMethod = tracedMethods.get(executableMethod);
+        if (tracedMethod == null) {
+            tracedMethod = tracedMethods.computeIfAbsent(executableMethod, m -> TracedMethod.of(context));
+        }
+        return tracedMethod;
+    }
+
+    /**
+     * Adds the {@link SpanTag} arguments of the invocation as attributes of the current span,
+     * using the method data cached by this interceptor. Does nothing if the current span is not
+     * recording.
+     *
+     * @param context the invocation context
+     * @since 6.9.0
+     */
+    public final void tagCurrentSpan(MethodInvocationContext<?, ?> context) {
+        tagArguments(tracedMethod(context), context);
+    }
+
+    /**
+     * Adds the {@link SpanTag} arguments of the invocation as attributes of the current span.
+     * Does nothing if the current span is not recording. The tagged arguments are resolved on
+     * every call, prefer {@link #tagCurrentSpan(MethodInvocationContext)}.
+     *
+     * @param context the invocation context
+     */
     public static void tagArguments(MethodInvocationContext<?, ?> context) {
-        Argument<?>[] arguments = context.getArguments();
-        Object[] parameterValues = context.getParameterValues();
-        for (int i = 0; i < arguments.length; i++) {
-            Argument<?> argument = arguments[i];
-            AnnotationMetadata annotationMetadata = argument.getAnnotationMetadata();
-            if (annotationMetadata.hasAnnotation(SpanTag.class)) {
-                Object v = parameterValues[i];
-                if (v != null) {
-                    String tagName = annotationMetadata.stringValue(SpanTag.class).orElse(argument.getName());
-                    Span span = Span.current();
-                    span.setAttribute(tagName, v.toString());
-                }
-            }
+        if (Span.current().isRecording()) {
+            tagArguments(TracedMethod.of(context), context);
+        }
+    }
+
+    /**
+     * Adds the {@link SpanTag} arguments of the invocation as attributes of the current span.
+     * Does nothing if the current span is not recording.
+     *
+     * @param tracedMethod the traced method
+     * @param context      the invocation context
+     */
+    static void tagArguments(TracedMethod tracedMethod, MethodInvocationContext<?, ?> context) {
+        Span span = Span.current();
+        if (span.isRecording()) {
+            tracedMethod.tagArguments(context, span);
         }
     }
 }
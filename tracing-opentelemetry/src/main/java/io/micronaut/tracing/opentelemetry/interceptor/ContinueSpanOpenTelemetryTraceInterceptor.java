@@ -21,8 +21,8 @@ import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.annotation.Internal;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.tracing.annotation.ContinueSpan;
+import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
-import io.opentelemetry.context.Context;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.api.instrumenter.util.ClassAndMethod;
 import jakarta.inject.Named;
@@ -53,13 +53,9 @@ public final class ContinueSpanOpenTelemetryTraceInterceptor extends AbstractOpe
     @Nullable
     @Override
     public Object intercept(MethodInvocationContext<Object, Object> context) {
-        Context currentContext = Context.current();
-
-        if (currentContext.toString().equals("{}")) {
-            return context.proceed();
+        if (Span.current().isRecording()) {
+            tagArguments(tracedMethod(context), context);
         }
-        tagArguments(context);
-
         return context.proceed();
     }
 }
@@ -18,23 +18,29 @@ package io.micronaut.tracing.opentelemetry.interceptor;
 import io.micronaut.aop.InterceptedMethod;
 import io.micronaut.aop.InterceptorBean;
 import io.micronaut.aop.MethodInvocationContext;
+import io.micronaut.aop.kotlin.KotlinInterceptedMethod;
 import io.micronaut.context.annotation.Requires;
-import io.micronaut.core.annotation.AnnotationValue;
 import io.micronaut.core.annotation.Internal;
 import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.async.publisher.Publishers;
 import io.micronaut.core.convert.ConversionService;
 import io.micronaut.core.propagation.PropagatedContext;
-import io.micronaut.core.util.StringUtils;
 import io.micronaut.tracing.annotation.NewSpan;
 import io.micronaut.tracing.opentelemetry.OpenTelemetryPropagationContext;
+import io.micronaut.tracing.opentelemetry.instrument.util.ExceptionRecorder;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.api.instrumenter.util.ClassAndMethod;
+import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
-import reactor.core.publisher.Flux;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -50,7 +56,13 @@ import java.util.concurrent.CompletionStage;
 @InterceptorBean(NewSpan.class)
 public final class NewSpanOpenTelemetryTraceInterceptor extends AbstractOpenTelemetryTraceInterceptor {
 
+    /**
+     * Set on the spans of publishers, completion stages and coroutines that are cancelled.
+     */
+    static final AttributeKey<Boolean> CANCELLED = AttributeKey.booleanKey("micronaut.cancelled");
+
     private final ConversionService conversionService;
+    private final ExceptionRecorder exceptionRecorder;
 
     /**
      * Initialize the interceptor with tracer and conversion service.
@@ -60,31 +72,34 @@ public final class NewSpanOpenTelemetryTraceInterceptor extends AbstractOpenTele
      */
     public NewSpanOpenTelemetryTraceInterceptor(@Named("micronautCodeTelemetryInstrumenter") Instrumenter<ClassAndMethod, Object> instrumenter,
                                                 ConversionService conversionService) {
+        this(instrumenter, conversionService, ExceptionRecorder.DEFAULT);
+    }
+
+    /**
+     * Initialize the interceptor with tracer, conversion service and exception recorder.
+     *
+     * @param instrumenter      The ClassAndMethod Instrumenter
+     * @param conversionService The conversion service
+     * @param exceptionRecorder The exception recorder
+     * @since 6.9.0
+     */
+    @Inject
+    public NewSpanOpenTelemetryTraceInterceptor(@Named("micronautCodeTelemetryInstrumenter") Instrumenter<ClassAndMethod, Object> instrumenter,
+                                                ConversionService conversionService,
+                                                ExceptionRecorder exceptionRecorder) {
         super(instrumenter);
         this.conversionService = conversionService;
+        this.exceptionRecorder = exceptionRecorder;
     }
 
     @Nullable
     @Override
     public Object intercept(MethodInvocationContext<Object, Object> context) {
-        AnnotationValue<NewSpan> newSpan = context.getAnnotation(NewSpan.class);
-        boolean isNew = newSpan != null;
-        if (!isNew) {
+        if (!context.hasAnnotation(NewSpan.class)) {
             return context.proceed();
         }
-        // must be new
-        // don't create a nested span if you're not supposed to.
-        String operationName = newSpan.stringValue().orElse("");
-        ClassAndMethod classAndMethod;
-
-        ClassAndMethod basicClassAndMethod = ClassAndMethod.create(context.getDeclaringType(), context.getMethodName());
-        if (StringUtils.isNotEmpty(operationName)) {
-            classAndMethod = ClassAndMethod.create(basicClassAndMethod.declaringClass(), basicClassAndMethod.methodName() + '#' + operationName);
-        } else {
-            classAndMethod = basicClassAndMethod;
-        }
-
-        InterceptedMethod interceptedMethod = InterceptedMethod.of(context, conversionService);
+        TracedMethod tracedMethod = tracedMethod(context);
+        ClassAndMethod classAndMethod = tracedMethod.classAndMethod();
 
         Context currentContext = Context.current();
         if (!instrumenter.shouldStart(currentContext, classAndMethod)) {
@@ -97,29 +112,40 @@ public final class NewSpanOpenTelemetryTraceInterceptor extends AbstractOpenTele
             .plus(new OpenTelemetryPropagationContext(newContext))
             .propagate()) {
 
-            tagArguments(context);
+            Span span = Span.fromContext(newContext);
+            if (span.isRecording()) {
+                tracedMethod.tagArguments(context, span);
+            }
 
-            switch (interceptedMethod.resultType()) {
+            switch (tracedMethod.resultType(context, conversionService)) {
                 case PUBLISHER -> {
-                    return interceptedMethod.handleResult(
-                        Flux.from(interceptedMethod.interceptResultAsPublisher())
-                            .doOnNext(value -> instrumenter.end(newContext, classAndMethod, value, null))
-                            .doOnComplete(() -> instrumenter.end(newContext, classAndMethod, null, null))
-                            .doOnError(throwable -> instrumenter.end(newContext, classAndMethod, null, throwable))
-                    );
+                    return tracedMethod.publisherResult(new TracedPublisher<>(
+                        tracedMethod.proceedAsPublisher(context, conversionService),
+                        instrumenter,
+                        exceptionRecorder,
+                        newContext,
+                        classAndMethod,
+                        tracedMethod.isSingleResult()
+                    ), conversionService);
                 }
                 case COMPLETION_STAGE -> {
-                    CompletionStage<?> completionStage = interceptedMethod.interceptResultAsCompletionStage();
-                    if (completionStage != null) {
-                        completionStage = completionStage.whenComplete((o, throwable) -> {
-                            if (throwable != null) {
-                                instrumenter.end(newContext, classAndMethod, null, throwable);
-                            } else {
-                                instrumenter.end(newContext, classAndMethod, o, null);
-                            }
-                        });
+                    if (tracedMethod.isSuspend()) {
+                        InterceptedMethod interceptedMethod = InterceptedMethod.of(context, conversionService);
+                        if (interceptedMethod instanceof KotlinInterceptedMethod kotlinInterceptedMethod) {
+                            PropagatedContextElement.propagate(kotlinInterceptedMethod);
+                        }
+                        CompletionStage<?> completionStage = interceptedMethod.interceptResultAsCompletionStage();
+                        if (completionStage != null) {
+                            completionStage = endOnCompletion(completionStage, newContext, classAndMethod);
+                        }
+                        return interceptedMethod.handleResult(completionStage);
+                    }
+                    Object result = context.proceed();
+                    if (!(result instanceof CompletionStage<?> completionStage)) {
+                        instrumenter.end(newContext, classAndMethod, result, null);
+                        return result;
                     }
-                    return interceptedMethod.handleResult(completionStage);
+                    return tracedMethod.completionStageResult(endOnCompletion(completionStage, newContext, classAndMethod), conversionService);
                 }
                 case SYNCHRONOUS -> {
                     Object response = context.proceed();
@@ -127,12 +153,53 @@ public final class NewSpanOpenTelemetryTraceInterceptor extends AbstractOpenTele
                     return response;
                 }
                 default -> {
-                    return interceptedMethod.unsupported();
+                    return InterceptedMethod.of(context, conversionService).unsupported();
                 }
             }
         } catch (Exception e) {
-            instrumenter.end(newContext, classAndMethod, null, e);
-            return interceptedMethod.handleException(e);
+            instrumenter.end(exceptionRecorder.onEnd(newContext, e), classAndMethod, null, e);
+            return handleException(context, tracedMethod, e);
+        }
+    }
+
+    private CompletionStage<?> endOnCompletion(CompletionStage<?> completionStage, Context newContext, ClassAndMethod classAndMethod) {
+        return completionStage.whenComplete((o, throwable) -> {
+            if (throwable == null) {
+                instrumenter.end(newContext, classAndMethod, o, null);
+            } else if (isCancellation(throwable)) {
+                Span.fromContext(newContext).setAttribute(CANCELLED, true);
+                instrumenter.end(newContext, classAndMethod, null, null);
+            } else {
+                instrumenter.end(exceptionRecorder.onEnd(newContext, throwable), classAndMethod, null, throwable);
+            }
+        });
+    }
+
+    /**
+     * Returns the error of the invocation the way the method reports it: as a failed publisher or
+     * completion stage, or by rethrowing it.
+     */
+    @Nullable
+    private Object handleException(MethodInvocationContext<Object, Object> context, TracedMethod tracedMethod, Exception e) {
+        if (tracedMethod.isSuspend()) {
+            return InterceptedMethod.of(context, conversionService).handleException(e);
+        }
+        return switch (tracedMethod.resultType(context, conversionService)) {
+            case PUBLISHER -> tracedMethod.publisherResult(Publishers.just(e), conversionService);
+            case COMPLETION_STAGE -> tracedMethod.completionStageResult(CompletableFuture.failedFuture(e), conversionService);
+            default -> throw NewSpanOpenTelemetryTraceInterceptor.<RuntimeException>rethrow(e);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> E rethrow(Exception e) throws E {
+        throw (E) e;
+    }
+
+    private static boolean isCancellation(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
         }
+        return throwable instanceof CancellationException;
     }
 }
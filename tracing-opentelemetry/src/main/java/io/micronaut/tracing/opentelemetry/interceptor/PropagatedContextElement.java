@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.interceptor;
+
+import io.micronaut.aop.kotlin.KotlinInterceptedMethod;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.propagation.PropagatedContext;
+import kotlin.coroutines.CoroutineContext;
+import kotlin.jvm.functions.Function2;
+import kotlinx.coroutines.ThreadContextElement;
+
+/**
+ * Coroutine context element that restores the {@link PropagatedContext}, and with it the
+ * OpenTelemetry {@link io.opentelemetry.context.Context}, every time a coroutine resumes,
+ * whichever thread it resumes on.
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class PropagatedContextElement implements ThreadContextElement<PropagatedContext.Scope> {
+
+    private static final CoroutineContext.Key<PropagatedContextElement> KEY = new CoroutineContext.Key<>() {
+    };
+
+    private final PropagatedContext propagatedContext;
+
+    private PropagatedContextElement(PropagatedContext propagatedContext) {
+        this.propagatedContext = propagatedContext;
+    }
+
+    /**
+     * Adds the current propagated context to the coroutine context of a suspend function.
+     *
+     * @param interceptedMethod the intercepted suspend function
+     */
+    static void propagate(KotlinInterceptedMethod interceptedMethod) {
+        PropagatedContextElement element = new PropagatedContextElement(PropagatedContext.get());
+        interceptedMethod.updateCoroutineContext(interceptedMethod.getCoroutineContext().plus(element));
+    }
+
+    @Override
+    public PropagatedContext.Scope updateThreadContext(CoroutineContext context) {
+        return propagatedContext.propagate();
+    }
+
+    @Override
+    public void restoreThreadContext(CoroutineContext context, PropagatedContext.Scope oldState) {
+        oldState.close();
+    }
+
+    @Override
+    public CoroutineContext.Key<?> getKey() {
+        return KEY;
+    }
+
+    @Override
+    public <E extends CoroutineContext.Element> E get(CoroutineContext.Key<E> key) {
+        return CoroutineContext.Element.DefaultImpls.get(this, key);
+    }
+
+    @Override
+    public <R> R fold(R initial, Function2<? super R, ? super CoroutineContext.Element, ? extends R> operation) {
+        return CoroutineContext.Element.DefaultImpls.fold(this, initial, operation);
+    }
+
+    @Override
+    public CoroutineContext minusKey(CoroutineContext.Key<?> key) {
+        return CoroutineContext.Element.DefaultImpls.minusKey(this, key);
+    }
+
+    @Override
+    public CoroutineContext plus(CoroutineContext context) {
+        return CoroutineContext.Element.DefaultImpls.plus(this, context);
+    }
+}
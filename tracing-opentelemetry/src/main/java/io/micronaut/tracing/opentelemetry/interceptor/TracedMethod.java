@@ -0,0 +1,278 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.interceptor;
+
+import io.micronaut.aop.InterceptedMethod;
+import io.micronaut.aop.MethodInvocationContext;
+import io.micronaut.core.annotation.AnnotationMetadata;
+import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.async.annotation.SingleResult;
+import io.micronaut.core.async.publisher.Publishers;
+import io.micronaut.core.convert.ConversionService;
+import io.micronaut.core.type.Argument;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.tracing.annotation.NewSpan;
+import io.micronaut.tracing.annotation.SpanTag;
+import io.micronaut.tracing.opentelemetry.processing.SpanTagIndex;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.AttributeType;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.api.instrumenter.util.ClassAndMethod;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+
+/**
+ * Per-method invariant data used by the tracing interceptors. Instances are
+ * computed once per {@link io.micronaut.inject.ExecutableMethod} so that each
+ * invocation only pays for starting and ending the span.
+ *
+ * @since 6.9.0
+ */
+@Internal
+final class TracedMethod {
+
+    private static final int[] NO_TAGS = new int[0];
+    private static final AttributeKey<?>[] NO_KEYS = new AttributeKey<?>[0];
+
+    private final ClassAndMethod classAndMethod;
+    private final int[] spanTagIndexes;
+    private final AttributeKey<?>[] spanTagKeys;
+    private final boolean singleResult;
+    private final Class<?> returnType;
+    private final boolean suspend;
+    @Nullable
+    private volatile InterceptedMethod.ResultType resultType;
+
+    private TracedMethod(ClassAndMethod classAndMethod, int[] spanTagIndexes, AttributeKey<?>[] spanTagKeys,
+                         boolean singleResult, MethodInvocationContext<?, ?> context) {
+        this.classAndMethod = classAndMethod;
+        this.spanTagIndexes = spanTagIndexes;
+        this.spanTagKeys = spanTagKeys;
+        this.singleResult = singleResult;
+        this.returnType = context.getReturnType().getType();
+        this.suspend = context.isSuspend();
+    }
+
+    /**
+     * Resolves the invariant data of the intercepted method.
+     *
+     * @param context the invocation context
+     * @return the traced method
+     */
+    static TracedMethod of(MethodInvocationContext<?, ?> context) {
+        String operationName = context.stringValue(NewSpan.class).orElse(null);
+        String methodName = context.getMethodName();
+        if (StringUtils.isNotEmpty(operationName)) {
+            methodName = methodName + '#' + operationName;
+        }
+        ClassAndMethod classAndMethod = ClassAndMethod.create(context.getDeclaringType(), methodName);
+        boolean singleResult = Publishers.isSingle(context.getReturnType().getType())
+            || context.isTrue(SingleResult.class, AnnotationMetadata.VALUE_MEMBER);
+
+        AnnotationValue<SpanTagIndex> index = context.getExecutableMethod().getAnnotation(SpanTagIndex.class);
+        if (index != null) {
+            return fromIndex(classAndMethod, index, singleResult, context);
+        }
+
+        Argument<?>[] arguments = context.getArguments();
+        List<Integer> indexes = new ArrayList<>(arguments.length);
+        List<AttributeKey<?>> keys = new ArrayList<>(arguments.length);
+        for (int i = 0; i < arguments.length; i++) {
+            Argument<?> argument = arguments[i];
+            AnnotationMetadata annotationMetadata = argument.getAnnotationMetadata();
+            if (annotationMetadata.hasAnnotation(SpanTag.class)) {
+                indexes.add(i);
+                String name = annotationMetadata.stringValue(SpanTag.class).orElse(argument.getName());
+                keys.add(attributeKey(name, argument.getWrapperType()));
+            }
+        }
+        if (indexes.isEmpty()) {
+            return new TracedMethod(classAndMethod, NO_TAGS, NO_KEYS, singleResult, context);
+        }
+        return new TracedMethod(
+            classAndMethod,
+            indexes.stream().mapToInt(Integer::intValue).toArray(),
+            keys.toArray(NO_KEYS),
+            singleResult,
+            context
+        );
+    }
+
+    private static TracedMethod fromIndex(ClassAndMethod classAndMethod, AnnotationValue<SpanTagIndex> index, boolean singleResult,
+                                          MethodInvocationContext<?, ?> context) {
+        int[] indexes = index.intValues("indexes");
+        String[] names = index.stringValues("names");
+        String[] types = index.stringValues("types");
+        AttributeKey<?>[] keys = new AttributeKey<?>[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            keys[i] = switch (types[i]) {
+                case SpanTagIndex.TYPE_LONG -> AttributeKey.longKey(names[i]);
+                case SpanTagIndex.TYPE_DOUBLE -> AttributeKey.doubleKey(names[i]);
+                case SpanTagIndex.TYPE_BOOLEAN -> AttributeKey.booleanKey(names[i]);
+                default -> AttributeKey.stringKey(names[i]);
+            };
+        }
+        return new TracedMethod(classAndMethod, indexes, keys, singleResult, context);
+    }
+
+    private static AttributeKey<?> attributeKey(String name, Class<?> type) {
+        if (type == Long.class || type == Integer.class || type == Short.class || type == Byte.class) {
+            return AttributeKey.longKey(name);
+        }
+        if (type == Double.class || type == Float.class) {
+            return AttributeKey.doubleKey(name);
+        }
+        if (type == Boolean.class) {
+            return AttributeKey.booleanKey(name);
+        }
+        return AttributeKey.stringKey(name);
+    }
+
+    /**
+     * @return the span name of the method
+     */
+    ClassAndMethod classAndMethod() {
+        return classAndMethod;
+    }
+
+    /**
+     * @return whether the method returns a publisher that emits at most one element
+     */
+    boolean isSingleResult() {
+        return singleResult;
+    }
+
+    /**
+     * @return whether the method is a Kotlin suspend function, whose continuation has to be
+     * intercepted through an {@link InterceptedMethod} on every invocation
+     */
+    boolean isSuspend() {
+        return suspend;
+    }
+
+    /**
+     * Returns the result type of the method. The type only depends on the method
+     * signature, so it is resolved on the first invocation and reused afterwards.
+     *
+     * @param context           the invocation context
+     * @param conversionService the conversion service
+     * @return the result type
+     */
+    InterceptedMethod.ResultType resultType(MethodInvocationContext<Object, Object> context, ConversionService conversionService) {
+        InterceptedMethod.ResultType type = resultType;
+        if (type == null) {
+            type = InterceptedMethod.of(context, conversionService).resultType();
+            resultType = type;
+        }
+        return type;
+    }
+
+    /**
+     * Proceeds with the invocation of a method returning a publisher.
+     *
+     * @param context           the invocation context
+     * @param conversionService the conversion service
+     * @return the publisher returned by the method
+     */
+    @SuppressWarnings("unchecked")
+    Publisher<Object> proceedAsPublisher(MethodInvocationContext<Object, Object> context, ConversionService conversionService) {
+        Object result = context.proceed();
+        if (result == null) {
+            return Publishers.empty();
+        }
+        return Publishers.convertPublisher(conversionService, result, Publisher.class);
+    }
+
+    /**
+     * Converts a publisher to the return type of the method.
+     *
+     * @param publisher         the publisher
+     * @param conversionService the conversion service
+     * @return the publisher as the return type of the method
+     */
+    Object publisherResult(Publisher<?> publisher, ConversionService conversionService) {
+        if (returnType.isInstance(publisher)) {
+            return publisher;
+        }
+        if (returnType == Mono.class) {
+            return Mono.from(publisher);
+        }
+        if (returnType == Flux.class) {
+            return Flux.from(publisher);
+        }
+        return Publishers.convertPublisher(conversionService, publisher, returnType);
+    }
+
+    /**
+     * Converts a completion stage to the return type of the method.
+     *
+     * @param completionStage   the completion stage
+     * @param conversionService the conversion service
+     * @return the completion stage as the return type of the method
+     */
+    Object completionStageResult(CompletionStage<?> completionStage, ConversionService conversionService) {
+        if (returnType.isInstance(completionStage)) {
+            return completionStage;
+        }
+        if (returnType == CompletableFuture.class || returnType == Future.class) {
+            return completionStage.toCompletableFuture();
+        }
+        return conversionService.convertRequired(completionStage, returnType);
+    }
+
+    /**
+     * Adds the {@link SpanTag} arguments of the invocation as attributes of the given span.
+     * Numeric and boolean arguments are recorded as typed attributes.
+     *
+     * @param context the invocation context
+     * @param span    the span
+     */
+    @SuppressWarnings("unchecked")
+    void tagArguments(MethodInvocationContext<?, ?> context, Span span) {
+        if (spanTagIndexes.length == 0) {
+            return;
+        }
+        Object[] parameterValues = context.getParameterValues();
+        for (int i = 0; i < spanTagIndexes.length; i++) {
+            Object v = parameterValues[spanTagIndexes[i]];
+            if (v == null) {
+                continue;
+            }
+            AttributeKey<?> key = spanTagKeys[i];
+            AttributeType type = key.getType();
+            if (type == AttributeType.LONG && v instanceof Number n) {
+                span.setAttribute((AttributeKey<Long>) key, n.longValue());
+            } else if (type == AttributeType.DOUBLE && v instanceof Number n) {
+                span.setAttribute((AttributeKey<Double>) key, n.doubleValue());
+            } else if (type == AttributeType.BOOLEAN && v instanceof Boolean b) {
+                span.setAttribute((AttributeKey<Boolean>) key, b);
+            } else if (type == AttributeType.STRING) {
+                span.setAttribute((AttributeKey<String>) key, v.toString());
+            } else {
+                span.setAttribute(key.getKey(), v.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.interceptor;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.tracing.opentelemetry.instrument.util.ExceptionRecorder;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
+import io.opentelemetry.instrumentation.api.instrumenter.util.ClassAndMethod;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ends the span of a {@code NewSpan} method returning a {@link Publisher} exactly once, when the
+ * publisher completes, fails or is cancelled. Single result publishers end the span with the
+ * first element. The number of elements, the time to the first element and the total duration
+ * are recorded as span attributes.
+ *
+ * @param <T> the element type
+ * @since 6.9.0
+ */
+@Internal
+final class TracedPublisher<T> implements Publisher<T> {
+
+    static final AttributeKey<Long> ELEMENTS = AttributeKey.longKey("micronaut.publisher.elements");
+    static final AttributeKey<Long> FIRST_ELEMENT_MILLIS = AttributeKey.longKey("micronaut.publisher.first_element_ms");
+    static final AttributeKey<Long> DURATION_MILLIS = AttributeKey.longKey("micronaut.publisher.duration_ms");
+
+    private final Publisher<T> source;
+    private final Instrumenter<ClassAndMethod, Object> instrumenter;
+    private final ExceptionRecorder exceptionRecorder;
+    private final Context context;
+    private final ClassAndMethod classAndMethod;
+    private final boolean single;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean ended = new AtomicBoolean();
+
+    /**
+     * @param source         the publisher returned by the method
+     * @param instrumenter   the instrumenter that started the span
+     * @param exceptionRecorder the recorder of the error the span ends with
+     * @param context        the context of the span
+     * @param classAndMethod the span request
+     * @param single         whether the publisher emits at most one element
+     */
+    TracedPublisher(Publisher<T> source,
+                    Instrumenter<ClassAndMethod, Object> instrumenter,
+                    ExceptionRecorder exceptionRecorder,
+                    Context context,
+                    ClassAndMethod classAndMethod,
+                    boolean single) {
+        this.source = source;
+        this.instrumenter = instrumenter;
+        this.exceptionRecorder = exceptionRecorder;
+        this.context = context;
+        this.classAndMethod = classAndMethod;
+        this.single = single;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> actual) {
+        source.subscribe(new TracedSubscriber<>(actual, this));
+    }
+
+    private void end(@Nullable Object response, @Nullable Throwable error, long elements, long firstElementNanos, boolean cancelled) {
+        if (!ended.compareAndSet(false, true)) {
+            return;
+        }
+        Span span = Span.fromContext(context);
+        if (span.isRecording()) {
+            long now = System.nanoTime();
+            span.setAttribute(ELEMENTS, elements);
+            if (elements > 0) {
+                span.setAttribute(FIRST_ELEMENT_MILLIS, TimeUnit.NANOSECONDS.toMillis(firstElementNanos - startNanos));
+            }
+            span.setAttribute(DURATION_MILLIS, TimeUnit.NANOSECONDS.toMillis(now - startNanos));
+            if (cancelled) {
+                span.setAttribute(NewSpanOpenTelemetryTraceInterceptor.CANCELLED, true);
+            }
+        }
+        instrumenter.end(exceptionRecorder.onEnd(context, error), classAndMethod, response, error);
+    }
+
+    /**
+     * Forwards the Reactor context of the downstream subscriber, so that the operators of the
+     * source publisher see the context of the caller. The element count is only written by the
+     * signals, which are serialized, but can be read by a concurrent cancellation.
+     */
+    private static final class TracedSubscriber<T> implements CoreSubscriber<T>, Subscription {
+
+        private final Subscriber<? super T> actual;
+        private final TracedPublisher<T> parent;
+        private Subscription subscription;
+        private volatile long elements;
+        private volatile long firstElementNanos;
+
+        TracedSubscriber(Subscriber<? super T> actual, TracedPublisher<T> parent) {
+            this.actual = actual;
+            this.parent = parent;
+        }
+
+        @Override
+        public reactor.util.context.Context currentContext() {
+            if (actual instanceof CoreSubscriber<?> coreSubscriber) {
+                return coreSubscriber.currentContext();
+            }
+            return reactor.util.context.Context.empty();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            actual.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            long count = elements;
+            if (count == 0) {
+                long now = System.nanoTime();
+                firstElementNanos = now;
+                elements = 1;
+                if (parent.single) {
+                    parent.end(t, null, 1, now, false);
+                }
+            } else {
+                elements = count + 1;
+            }
+            actual.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            parent.end(null, t, elements, firstElementNanos, false);
+            actual.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            parent.end(null, null, elements, firstElementNanos, false);
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            subscription.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            subscription.cancel();
+            parent.end(null, null, elements, firstElementNanos, true);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.metrics;
+
+import io.micronaut.core.annotation.Internal;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+
+/**
+ * Records the spans that the delegate sampler drops, without sampling them, so that span
+ * processors see every span while exporters only receive the sampled ones.
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class RecordUnsampledSampler implements Sampler {
+
+    private static final SamplingResult RECORD_ONLY = SamplingResult.recordOnly();
+
+    private final Sampler delegate;
+
+    /**
+     * @param delegate the sampler taking the sampling decision
+     */
+    public RecordUnsampledSampler(Sampler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+        if (result.getDecision() == SamplingDecision.DROP) {
+            return RECORD_ONLY;
+        }
+        return result;
+    }
+
+    @Override
+    public String getDescription() {
+        return "RecordUnsampledSampler{" + delegate.getDescription() + '}';
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.metrics;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+
+import static io.micronaut.core.util.StringUtils.TRUE;
+
+/**
+ * Configuration of the metrics computed from ended spans.
+ *
+ * @since 6.9.0
+ */
+@ConfigurationProperties(SpanMetricsConfiguration.PREFIX)
+@Requires(property = SpanMetricsConfiguration.PREFIX + ".enabled", value = TRUE)
+public class SpanMetricsConfiguration {
+
+    public static final String PREFIX = "otel.span-metrics";
+
+    /**
+     * The default maximum number of span names.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_SPAN_NAMES = 1000;
+
+    /**
+     * The default record unsampled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_RECORD_UNSAMPLED = true;
+
+    /**
+     * The default percentile histogram value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_PERCENTILE_HISTOGRAM = false;
+
+    private boolean enabled;
+    private int maxSpanNames = DEFAULT_MAX_SPAN_NAMES;
+    private boolean recordUnsampled = DEFAULT_RECORD_UNSAMPLED;
+    private boolean percentileHistogram = DEFAULT_PERCENTILE_HISTOGRAM;
+
+    /**
+     * @return whether span metrics are enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether metrics are computed from ended spans. Requires a Micrometer {@code MeterRegistry}. Default value false.
+     *
+     * @param enabled true if span metrics are enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the maximum number of distinct span names
+     */
+    public int getMaxSpanNames() {
+        return maxSpanNames;
+    }
+
+    /**
+     * Sets the maximum number of distinct span names that get their own metrics. The spans of
+     * other names are aggregated under the {@code other} name. Default value ({@value #DEFAULT_MAX_SPAN_NAMES}).
+     *
+     * @param maxSpanNames the maximum number of span names
+     */
+    public void setMaxSpanNames(int maxSpanNames) {
+        this.maxSpanNames = maxSpanNames;
+    }
+
+    /**
+     * @return whether the spans that are not sampled are recorded
+     */
+    public boolean isRecordUnsampled() {
+        return recordUnsampled;
+    }
+
+    /**
+     * Sets whether the spans that are not sampled are recorded, without being exported, so that
+     * the metrics cover every span. Every span then pays the full recording cost. Set it to false to only
+     * measure the sampled spans. Default value ({@value #DEFAULT_RECORD_UNSAMPLED}).
+     *
+     * @param recordUnsampled true if unsampled spans are recorded
+     */
+    public void setRecordUnsampled(boolean recordUnsampled) {
+        this.recordUnsampled = recordUnsampled;
+    }
+
+    /**
+     * @return whether the span durations are published with a percentile histogram
+     */
+    public boolean isPercentileHistogram() {
+        return percentileHistogram;
+    }
+
+    /**
+     * Sets whether the span durations are published with a percentile histogram. Every span name,
+     * kind and status then gets its own histogram buckets. Default value ({@value #DEFAULT_PERCENTILE_HISTOGRAM}).
+     *
+     * @param percentileHistogram true if a percentile histogram is published
+     */
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+}
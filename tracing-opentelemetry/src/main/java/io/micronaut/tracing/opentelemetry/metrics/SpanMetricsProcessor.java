@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.metrics;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.tracing.opentelemetry.SamplerCustomizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import jakarta.inject.Singleton;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link SpanProcessor} that computes request rate, error rate and duration metrics from ended
+ * spans and publishes them to Micrometer. The metrics are tagged with the span name, kind and status.
+ * The number of span names is bounded by {@link SpanMetricsConfiguration#getMaxSpanNames()}.
+ * The meters are created once per dimension, and Micrometer counters and timers are lock-free.
+ *
+ * @since 6.9.0
+ */
+@Singleton
+@Requires(classes = MeterRegistry.class)
+@Requires(beans = {MeterRegistry.class, SpanMetricsConfiguration.class})
+public final class SpanMetricsProcessor implements SpanProcessor, SamplerCustomizer {
+
+    public static final String DURATION = "span.duration";
+    public static final String ERRORS = "span.errors";
+    public static final String TAG_NAME = "span.name";
+    public static final String TAG_KIND = "span.kind";
+    public static final String TAG_STATUS = "status.code";
+    public static final String OVERFLOW_SPAN_NAME = "other";
+
+    private static final AttributeKey<String> ERROR_TYPE = AttributeKey.stringKey("error.type");
+    private static final SpanKind[] KINDS = SpanKind.values();
+    private static final StatusCode[] STATUSES = StatusCode.values();
+
+    private final MeterRegistry meterRegistry;
+    private final int maxSpanNames;
+    private final boolean recordUnsampled;
+    private final boolean percentileHistogram;
+    private final Map<String, SpanNameMeters> meters = new ConcurrentHashMap<>();
+    private final AtomicInteger spanNames = new AtomicInteger();
+
+    /**
+     * @param meterRegistry the meter registry
+     * @param configuration the span metrics configuration
+     */
+    public SpanMetricsProcessor(MeterRegistry meterRegistry, SpanMetricsConfiguration configuration) {
+        this.meterRegistry = meterRegistry;
+        this.maxSpanNames = configuration.getMaxSpanNames();
+        this.recordUnsampled = configuration.isRecordUnsampled();
+        this.percentileHistogram = configuration.isPercentileHistogram();
+    }
+
+    /**
+     * @return whether the spans that are not sampled must be recorded for this processor
+     */
+    public boolean isRecordUnsampled() {
+        return recordUnsampled;
+    }
+
+    /**
+     * @param sampler the sampler taking the sampling decision
+     * @return a sampler recording the unsampled spans if {@link #isRecordUnsampled()}, otherwise the given sampler
+     */
+    @Override
+    public Sampler customize(Sampler sampler) {
+        return recordUnsampled ? new RecordUnsampledSampler(sampler) : sampler;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        meters(span.getName()).record(span.getKind(), statusCode(span), span.getLatencyNanos());
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /**
+     * Reads the status of an ended span. {@link ReadableSpan} doesn't expose the status, so it is read
+     * from the span data, which shares the attributes and events that the SDK froze when the span ended
+     * instead of copying them. Spans that recorded an {@code error.type} don't need the span data.
+     *
+     * @param span the ended span
+     * @return the status code
+     */
+    private static StatusCode statusCode(ReadableSpan span) {
+        if (span.getAttribute(ERROR_TYPE) != null) {
+            return StatusCode.ERROR;
+        }
+        return span.toSpanData().getStatus().getStatusCode();
+    }
+
+    private SpanNameMeters meters(String name) {
+        SpanNameMeters spanNameMeters = meters.get(name);
+        if (spanNameMeters != null) {
+            return spanNameMeters;
+        }
+        if (spanNames.get() >= maxSpanNames) {
+            name = OVERFLOW_SPAN_NAME;
+        }
+        return meters.computeIfAbsent(name, n -> {
+            spanNames.incrementAndGet();
+            return new SpanNameMeters(n);
+        });
+    }
+
+    /**
+     * The meters of a span name, created lazily for each kind and status.
+     */
+    private final class SpanNameMeters {
+
+        private final String name;
+        private final AtomicReferenceArray<Timer> timers = new AtomicReferenceArray<>(KINDS.length * STATUSES.length);
+        private final AtomicReferenceArray<Counter> errors = new AtomicReferenceArray<>(KINDS.length);
+
+        SpanNameMeters(String name) {
+            this.name = name;
+        }
+
+        void record(SpanKind kind, StatusCode status, long latencyNanos) {
+            int index = kind.ordinal() * STATUSES.length + status.ordinal();
+            Timer timer = timers.get(index);
+            if (timer == null) {
+                timer = Timer.builder(DURATION)
+                    .description("Duration of the spans")
+                    .tag(TAG_NAME, name)
+                    .tag(TAG_KIND, kind.name().toLowerCase(Locale.ENGLISH))
+                    .tag(TAG_STATUS, status.name().toLowerCase(Locale.ENGLISH))
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(meterRegistry);
+                timers.set(index, timer);
+            }
+            timer.record(latencyNanos, TimeUnit.NANOSECONDS);
+            if (status == StatusCode.ERROR) {
+                Counter counter = errors.get(kind.ordinal());
+                if (counter == null) {
+                    counter = Counter.builder(ERRORS)
+                        .description("Number of spans that ended with an error")
+                        .tag(TAG_NAME, name)
+                        .tag(TAG_KIND, kind.name().toLowerCase(Locale.ENGLISH))
+                        .register(meterRegistry);
+                    errors.set(kind.ordinal(), counter);
+                }
+                counter.increment();
+            }
+        }
+    }
+}
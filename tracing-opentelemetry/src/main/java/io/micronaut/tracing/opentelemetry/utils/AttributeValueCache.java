@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentelemetry.utils;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded cache of attribute values, so that the spans waiting to be exported share the
+ * instances of low-cardinality values such as routes, methods, schemes or topics. Values are stored in a
+ * fixed number of slots selected by their hash, and a value replaces the one in its slot when they
+ * differ. The cache must only be used for values that are known to have a low cardinality, since
+ * high-cardinality values would keep evicting the others. Lookups are lock-free and a hit does not
+ * allocate.
+ *
+ * @since 6.9.0
+ */
+@Internal
+public final class AttributeValueCache {
+
+    /**
+     * The default number of slots.
+     */
+    public static final int DEFAULT_SIZE = 1024;
+
+    /**
+     * The maximum length of the cached values.
+     */
+    public static final int MAX_VALUE_LENGTH = 256;
+
+    private final AtomicReferenceArray<String> values;
+    private final int mask;
+
+    /**
+     * Creates a cache with {@value #DEFAULT_SIZE} slots.
+     */
+    public AttributeValueCache() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size the number of slots, rounded up to a power of two
+     */
+    public AttributeValueCache(int size) {
+        int slots = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.values = new AtomicReferenceArray<>(slots);
+        this.mask = slots - 1;
+    }
+
+    /**
+     * @param value the value
+     * @return the cached instance equal to the value, or the value itself
+     */
+    @Nullable
+    public String get(@Nullable String value) {
+        if (value == null || value.length() > MAX_VALUE_LENGTH) {
+            return value;
+        }
+        int index = spread(value.hashCode()) & mask;
+        String cached = values.get(index);
+        if (value.equals(cached)) {
+            return cached;
+        }
+        values.set(index, value);
+        return value;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,139 @@
+package io.micronaut.tracing.opentelemetry.admission
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.micronaut.context.ApplicationContext
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.SpanContext
+import io.opentelemetry.api.trace.TraceFlags
+import io.opentelemetry.api.trace.TraceState
+import io.opentelemetry.api.trace.Tracer
+import io.opentelemetry.context.Context
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import static io.micronaut.tracing.opentelemetry.admission.SpanAdmissionController.Level.NORMAL
+import static io.micronaut.tracing.opentelemetry.admission.SpanAdmissionController.Level.SAMPLE
+import static io.micronaut.tracing.opentelemetry.admission.SpanAdmissionController.Level.STOP
+import static io.micronaut.tracing.opentelemetry.admission.SpanAdmissionController.Level.TRIM
+
+class SpanAdmissionControllerSpec extends Specification {
+
+    InMemorySpanExporter exporter = InMemorySpanExporter.create()
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext
+            .builder('otel.span-admission.enabled': true,
+                     'otel.span-admission.trimmed-max-attributes': 2,
+                     'otel.span-admission.sampling-ratio': 0)
+            .singletons(SimpleSpanProcessor.create(exporter))
+            .start()
+
+    SpanAdmissionController controller = context.getBean(SpanAdmissionController)
+    Tracer tracer = context.getBean(Tracer)
+
+    void setup() {
+        // stop listening to the garbage collections of the test JVM
+        controller.shutdown()
+    }
+
+    void 'the admission level is raised one step at a time and lowered at once'() {
+        when:
+        controller.update(0.99, 0)
+
+        then:
+        controller.level == TRIM
+
+        when:
+        controller.update(0.99, 0)
+        controller.update(0.99, 0)
+
+        then:
+        controller.level == STOP
+        controller.transitions == 3
+
+        when:
+        controller.update(0.5, 0)
+
+        then:
+        controller.level == NORMAL
+    }
+
+    void 'the time spent in garbage collection raises the admission level'() {
+        when:
+        controller.update(0.5, 0.5)
+
+        then:
+        controller.level == TRIM
+    }
+
+    void 'spans are degraded progressively'() {
+        when:
+        controller.update(0.8, 0)
+        span()
+
+        then:
+        controller.level == TRIM
+        exporter.finishedSpanItems.size() == 1
+        exporter.finishedSpanItems[0].attributes.size() == 2
+        exporter.finishedSpanItems[0].events.empty
+
+        when:
+        controller.update(0.9, 0)
+        Span unsampled = span()
+
+        then:
+        controller.level == SAMPLE
+        !unsampled.spanContext.sampled
+        exporter.finishedSpanItems.size() == 1
+
+        when:
+        controller.update(0.99, 0)
+        Span dropped = span()
+
+        then:
+        controller.level == STOP
+        !dropped.spanContext.sampled
+        exporter.finishedSpanItems.size() == 1
+
+        when:
+        SimpleMeterRegistry registry = new SimpleMeterRegistry()
+        new SpanAdmissionMeterBinder(controller).bindTo(registry)
+
+        then:
+        registry.get(SpanAdmissionMeterBinder.LEVEL).gauge().value() == STOP.ordinal()
+        registry.get(SpanAdmissionMeterBinder.SPANS).tag('action', 'trimmed').functionCounter().count() == 1
+        registry.get(SpanAdmissionMeterBinder.SPANS).tag('action', 'unsampled').functionCounter().count() == 1
+        registry.get(SpanAdmissionMeterBinder.SPANS).tag('action', 'dropped').functionCounter().count() == 1
+    }
+
+    void 'spans continuing a sampled remote trace are not dropped by the lowered sampling ratio'() {
+        given:
+        controller.update(0.8, 0)
+        controller.update(0.9, 0)
+        SpanContext remote = SpanContext.createFromRemoteParent(
+                '0af7651916cd43dd8448eb211c80319c', 'b7ad6b7169203331', TraceFlags.sampled, TraceState.default)
+
+        when:
+        Span span = tracer.spanBuilder('work').setParent(Context.root().with(Span.wrap(remote))).startSpan()
+        span.end()
+
+        then:
+        controller.level == SAMPLE
+        span.spanContext.sampled
+        exporter.finishedSpanItems.size() == 1
+        controller.unsampledSpans == 0
+    }
+
+    private Span span() {
+        Span span = tracer.spanBuilder('work')
+                .setAttribute('a', 'a')
+                .setAttribute('b', 'b')
+                .setAttribute('c', 'c')
+                .startSpan()
+        span.addEvent('event')
+        span.end()
+        span
+    }
+}
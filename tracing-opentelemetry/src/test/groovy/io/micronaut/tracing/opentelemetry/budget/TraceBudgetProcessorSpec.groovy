@@ -0,0 +1,73 @@
+package io.micronaut.tracing.opentelemetry.budget
+
+import io.micronaut.context.ApplicationContext
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.Tracer
+import io.opentelemetry.context.Context
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+class TraceBudgetProcessorSpec extends Specification {
+
+    InMemorySpanExporter exporter = InMemorySpanExporter.create()
+
+    @AutoCleanup
+    ApplicationContext context
+
+    void 'spans over the span budget are not recording'() {
+        given:
+        start('otel.trace-budget.max-spans': 3)
+        Tracer tracer = context.getBean(Tracer)
+        Span root = tracer.spanBuilder('root').startSpan()
+
+        when:
+        List<Boolean> recording = (1..5).collect {
+            Span child = tracer.spanBuilder('child').setParent(Context.root().with(root)).startSpan()
+            boolean childRecording = child.recording
+            child.end()
+            childRecording
+        }
+        root.end()
+
+        then:
+        recording == [true, true, false, false, false]
+        List<SpanData> spans = exporter.finishedSpanItems
+        spans.size() == 3
+        spans.find { it.name == 'root' }.attributes.get(TraceBudgetProcessor.TRUNCATED) == 3
+
+        when: 'the budget is released with the root span'
+        Span next = tracer.spanBuilder('child').setParent(Context.root().with(root)).startSpan()
+
+        then:
+        next.recording
+    }
+
+    void 'spans over the attribute budget are not recording'() {
+        given:
+        start('otel.trace-budget.max-attribute-bytes': 20)
+        Tracer tracer = context.getBean(Tracer)
+        Span root = tracer.spanBuilder('root').startSpan()
+
+        when:
+        Span small = tracer.spanBuilder('small').setParent(Context.root().with(root)).setAttribute('key', 'value').startSpan()
+        Span large = tracer.spanBuilder('large').setParent(Context.root().with(root)).setAttribute('key', 'x' * 20).startSpan()
+        boolean largeRecording = large.recording
+        small.end()
+        large.end()
+        root.end()
+
+        then:
+        exporter.finishedSpanItems*.name.sort() == ['root', 'small']
+        !largeRecording
+        exporter.finishedSpanItems.find { it.name == 'root' }.attributes.get(TraceBudgetProcessor.TRUNCATED) == 1
+    }
+
+    private void start(Map<String, Object> properties) {
+        context = ApplicationContext.builder(['otel.trace-budget.enabled': true] + properties)
+                .singletons(SimpleSpanProcessor.create(exporter))
+                .start()
+    }
+}
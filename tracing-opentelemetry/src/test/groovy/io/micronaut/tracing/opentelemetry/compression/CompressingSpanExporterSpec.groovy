@@ -0,0 +1,165 @@
+package io.micronaut.tracing.opentelemetry.compression
+
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.api.trace.StatusCode
+import io.opentelemetry.api.trace.Tracer
+import io.opentelemetry.context.Context
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+
+class CompressingSpanExporterSpec extends Specification {
+
+    InMemorySpanExporter recording = InMemorySpanExporter.create()
+    InMemorySpanExporter exported = InMemorySpanExporter.create()
+
+    SdkTracerProvider tracerProvider
+    Tracer tracer
+
+    void cleanup() {
+        tracerProvider?.close()
+    }
+
+    void 'consecutive sibling spans are exported as a composite span'() {
+        given:
+        CompressingSpanExporter exporter = exporter(3, Duration.ofSeconds(1))
+        Span parent = tracer.spanBuilder('parent').startSpan()
+
+        when:
+        5.times { query(parent, 'select') }
+        query(parent, 'insert')
+        2.times { query(parent, 'select') }
+        parent.end()
+        exporter.export(recording.finishedSpanItems)
+
+        then:
+        List<SpanData> spans = exported.finishedSpanItems
+        spans.size() == 5
+        SpanData composite = spans.find { it.attributes.get(CompressingSpanExporter.COUNT) }
+        composite.name == 'select'
+        composite.attributes.get(CompressingSpanExporter.COUNT) == 5
+        composite.attributes.get(CompressingSpanExporter.MIN_MS) <= composite.attributes.get(CompressingSpanExporter.MAX_MS)
+        composite.attributes.get(CompressingSpanExporter.SUM_MS) >= composite.attributes.get(CompressingSpanExporter.MAX_MS)
+        composite.endEpochNanos >= composite.startEpochNanos
+        spans.count { it.name == 'select' } == 3
+        spans.count { it.name == 'insert' } == 1
+        spans.count { it.name == 'parent' } == 1
+    }
+
+    void 'failed and long spans are not compressed'() {
+        given:
+        CompressingSpanExporter exporter = exporter(2, Duration.ZERO.plusNanos(1))
+        Span parent = tracer.spanBuilder('parent').startSpan()
+
+        when:
+        3.times {
+            Span span = tracer.spanBuilder('failed').setParent(Context.root().with(parent)).startSpan()
+            span.setStatus(StatusCode.ERROR)
+            span.end()
+        }
+        parent.end()
+        exporter.export(recording.finishedSpanItems)
+
+        then:
+        exported.finishedSpanItems.size() == 4
+        exported.finishedSpanItems.every { it.attributes.get(CompressingSpanExporter.COUNT) == null }
+    }
+
+    void 'spans whose children were exported in an earlier batch are not compressed'() {
+        given:
+        CompressingSpanExporter exporter = exporter(3, Duration.ofSeconds(1))
+        Span parent = tracer.spanBuilder('parent').startSpan()
+        List<Span> steps = (1..3).collect { tracer.spanBuilder('step').setParent(Context.root().with(parent)).startSpan() }
+
+        when:
+        steps.each { step -> query(step, 'select') }
+        exporter.export(recording.finishedSpanItems)
+        recording.reset()
+        steps*.end()
+        parent.end()
+        exporter.export(recording.finishedSpanItems)
+
+        then:
+        exported.finishedSpanItems.size() == 7
+        exported.finishedSpanItems.count { it.name == 'step' } == 3
+        exported.finishedSpanItems.every { it.attributes.get(CompressingSpanExporter.COUNT) == null }
+    }
+
+    void 'spans propagating the context to other services are not compressed'() {
+        given:
+        CompressingSpanExporter exporter = exporter(2, Duration.ofSeconds(1))
+        Span parent = tracer.spanBuilder('parent').startSpan()
+
+        when:
+        3.times { tracer.spanBuilder('GET').setParent(Context.root().with(parent)).setSpanKind(SpanKind.CLIENT).startSpan().end() }
+        3.times { tracer.spanBuilder('publish').setParent(Context.root().with(parent)).setSpanKind(SpanKind.PRODUCER).startSpan().end() }
+        parent.end()
+        exporter.export(recording.finishedSpanItems)
+
+        then:
+        exported.finishedSpanItems.size() == 7
+        exported.finishedSpanItems.every { it.attributes.get(CompressingSpanExporter.COUNT) == null }
+    }
+
+    void 'parents that are never exported are released'() {
+        given:
+        SpanCompressionProcessor processor = processor(1, Duration.ofMillis(1), 2, Duration.ZERO)
+
+        when:
+        2.times { query(tracer.spanBuilder('dropped').startSpan(), 'select') }
+        Thread.sleep(10)
+        Span parent = tracer.spanBuilder('parent').startSpan()
+        query(parent, 'select')
+
+        then:
+        processor.isTracking()
+        !processor.isLeaf(parent.spanContext.spanId)
+    }
+
+    void 'compression is suspended while parents that could not be tracked may be exported'() {
+        given:
+        SpanCompressionProcessor processor = processor(1, Duration.ofMillis(200), 1, Duration.ZERO)
+
+        when:
+        2.times { query(tracer.spanBuilder('parent').startSpan(), 'select') }
+
+        then:
+        !processor.isTracking()
+        new PollingConditions(timeout: 5).eventually {
+            assert processor.isTracking()
+        }
+    }
+
+    private CompressingSpanExporter exporter(int minSpans, Duration maxDuration) {
+        processor(minSpans, maxDuration, SpanCompressionProcessor.MAX_PARENTS, SpanCompressionProcessor.EXPORT_TIMEOUT)
+                .exporter(exported) as CompressingSpanExporter
+    }
+
+    private SpanCompressionProcessor processor(int minSpans, Duration maxDuration, int maxParents, Duration exportTimeout) {
+        SpanCompressionConfiguration configuration = new SpanCompressionConfiguration()
+        configuration.minSpans = minSpans
+        configuration.maxDuration = maxDuration
+        SpanCompressionProcessor processor = new SpanCompressionProcessor(configuration, maxParents, exportTimeout)
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .addSpanProcessor(SimpleSpanProcessor.create(recording))
+                .build()
+        tracer = tracerProvider.get('test')
+        processor
+    }
+
+    private void query(Span parent, String name) {
+        tracer.spanBuilder(name)
+                .setParent(Context.root().with(parent))
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute('db.system', 'h2')
+                .startSpan()
+                .end()
+    }
+}
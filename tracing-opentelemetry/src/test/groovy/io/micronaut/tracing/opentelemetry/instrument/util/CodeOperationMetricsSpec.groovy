@@ -0,0 +1,63 @@
+package io.micronaut.tracing.opentelemetry.instrument.util
+
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.metrics.MeterProvider
+import io.opentelemetry.context.Context
+import io.opentelemetry.instrumentation.api.instrumenter.util.ClassAndMethod
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.metrics.SdkMeterProvider
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.samplers.Sampler
+import spock.lang.Specification
+
+class CodeOperationMetricsSpec extends Specification {
+
+    void 'code operations are measured even when spans are not sampled'() {
+        given:
+        InMemoryMetricReader reader = InMemoryMetricReader.create()
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder().setSampler(Sampler.alwaysOff()).build())
+                .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(reader).build())
+                .build()
+        def instrumenter = new MicronautCodeTelemetryFactory().instrumenter(openTelemetry)
+        def classAndMethod = ClassAndMethod.create(CodeOperationMetricsSpec, "work")
+
+        when:
+        3.times {
+            Context context = instrumenter.start(Context.root(), classAndMethod)
+            instrumenter.end(context, classAndMethod, null, null)
+        }
+        Context failed = instrumenter.start(Context.root(), classAndMethod)
+        instrumenter.end(failed, classAndMethod, null, new IllegalStateException())
+        def metrics = reader.collectAllMetrics()
+        def duration = metrics.find { it.name == 'micronaut.code.duration' }
+        def errors = metrics.find { it.name == 'micronaut.code.errors' }
+
+        then:
+        duration.histogramData.points*.count.sum() == 4
+        duration.histogramData.points.every {
+            it.attributes.get(AttributeKey.stringKey('code.namespace')) == CodeOperationMetricsSpec.name &&
+                    it.attributes.get(AttributeKey.stringKey('code.function')) == 'work'
+        }
+        errors.longSumData.points.size() == 1
+        errors.longSumData.points[0].value == 1
+        errors.longSumData.points[0].attributes.get(AttributeKey.stringKey('error.type')) == IllegalStateException.name
+
+        cleanup:
+        openTelemetry?.close()
+    }
+
+    void 'no-op meters are detected so that the listener is skipped'() {
+        given:
+        SdkMeterProvider withReader = SdkMeterProvider.builder().registerMetricReader(InMemoryMetricReader.create()).build()
+
+        expect:
+        !CodeOperationMetrics.isRecorded(MeterProvider.noop().get('test'))
+        !CodeOperationMetrics.isRecorded(SdkMeterProvider.builder().build().get('test'))
+        CodeOperationMetrics.isRecorded(withReader.get('test'))
+
+        cleanup:
+        withReader.close()
+    }
+}
@@ -0,0 +1,129 @@
+package io.micronaut.tracing.opentelemetry.instrument.util
+
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.context.Context
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.EventData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Duration
+
+import static io.micronaut.tracing.opentelemetry.instrument.util.ExceptionRecorder.DEDUPLICATED
+import static io.micronaut.tracing.opentelemetry.instrument.util.ExceptionRecorder.EXCEPTION_MESSAGE
+import static io.micronaut.tracing.opentelemetry.instrument.util.ExceptionRecorder.EXCEPTION_STACKTRACE
+import static io.micronaut.tracing.opentelemetry.instrument.util.ExceptionRecorder.EXCEPTION_TYPE
+
+class ExceptionRecorderSpec extends Specification {
+
+    InMemorySpanExporter exporter = InMemorySpanExporter.create()
+
+    @AutoCleanup
+    SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build()
+
+    void 'the default recorder leaves the recording to the span'() {
+        given:
+        Context context = Context.root().with(startSpan())
+
+        expect:
+        ExceptionRecorder.DEFAULT.onEnd(context, new IllegalStateException()).is(context)
+        ExceptionRecorder.DEFAULT.onEnd(context, null).is(context)
+    }
+
+    void 'exceptions are not recorded when off'() {
+        when:
+        List<EventData> events = recordThroughInstrumenter(recorder(ExceptionRecordingConfiguration.Mode.OFF), new IllegalStateException('boom'))
+
+        then:
+        events.empty
+    }
+
+    void 'exceptions are recorded with their message only'() {
+        when:
+        List<EventData> events = recordThroughInstrumenter(recorder(ExceptionRecordingConfiguration.Mode.MESSAGE), new IllegalStateException('boom'))
+
+        then:
+        events.size() == 1
+        events[0].attributes.get(EXCEPTION_TYPE) == IllegalStateException.name
+        events[0].attributes.get(EXCEPTION_MESSAGE) == 'boom'
+        events[0].attributes.get(EXCEPTION_STACKTRACE) == null
+    }
+
+    void 'the stack depth is capped'() {
+        given:
+        ExceptionRecordingConfiguration configuration = new ExceptionRecordingConfiguration(maxStackDepth: 2)
+        Exception error = new IllegalStateException('boom', new IOException('io'))
+
+        when:
+        List<EventData> events = recordThroughInstrumenter(new ExceptionRecorder(configuration), error)
+        String stackTrace = events[0].attributes.get(EXCEPTION_STACKTRACE)
+
+        then:
+        events.size() == 1
+        stackTrace.startsWith('java.lang.IllegalStateException: boom')
+        stackTrace.contains('Caused by: java.io.IOException: io')
+        stackTrace.readLines().count { it.startsWith('\tat ') } == 4
+    }
+
+    void 'repeated exceptions are recorded with their stack trace once per window'() {
+        given:
+        ExceptionRecorder recorder = new ExceptionRecorder(new ExceptionRecordingConfiguration(deduplicationWindow: Duration.ofMinutes(1)))
+
+        when:
+        List<List<EventData>> events = (1..3).collect {
+            recordThroughInstrumenter(recorder, failure())
+        }
+
+        then:
+        events*.size() == [1, 1, 1]
+        events[0][0].attributes.get(EXCEPTION_STACKTRACE) != null
+        events[1][0].attributes.get(EXCEPTION_STACKTRACE) == null
+        events[1][0].attributes.get(DEDUPLICATED)
+        events[2][0].attributes.get(DEDUPLICATED)
+    }
+
+    void 'exceptions with different types or stack traces are not deduplicated together'() {
+        given:
+        ExceptionRecorder recorder = new ExceptionRecorder(new ExceptionRecordingConfiguration(deduplicationWindow: Duration.ofMinutes(1)))
+
+        when:
+        List<List<EventData>> events = [
+                recordThroughInstrumenter(recorder, failure()),
+                recordThroughInstrumenter(recorder, new IllegalArgumentException('boom')),
+                recordThroughInstrumenter(recorder, otherFailure())
+        ]
+
+        then:
+        events.every { it[0].attributes.get(EXCEPTION_STACKTRACE) != null }
+        events.every { it[0].attributes.get(DEDUPLICATED) == null }
+    }
+
+    private static Exception otherFailure() {
+        new IllegalStateException('boom')
+    }
+
+    private static Exception failure() {
+        new IllegalStateException('boom')
+    }
+
+    private List<EventData> recordThroughInstrumenter(ExceptionRecorder recorder, Throwable error) {
+        exporter.reset()
+        Span span = startSpan()
+        Span ending = Span.fromContext(recorder.onEnd(Context.root().with(span), error))
+        ending.recordException(error)
+        ending.end()
+        exporter.finishedSpanItems[0].events
+    }
+
+    private static ExceptionRecorder recorder(ExceptionRecordingConfiguration.Mode mode) {
+        new ExceptionRecorder(new ExceptionRecordingConfiguration(mode: mode))
+    }
+
+    private Span startSpan() {
+        tracerProvider.get('test').spanBuilder('span').startSpan()
+    }
+}
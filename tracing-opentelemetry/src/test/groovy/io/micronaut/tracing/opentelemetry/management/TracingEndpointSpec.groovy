@@ -0,0 +1,86 @@
+package io.micronaut.tracing.opentelemetry.management
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.http.exceptions.HttpStatusException
+import io.micronaut.tracing.management.TracingEndpoint
+import io.opentelemetry.api.trace.Tracer
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Duration
+
+class TracingEndpointSpec extends Specification {
+
+    @AutoCleanup
+    ApplicationContext context = ApplicationContext.run(
+            'otel.exclusions[0]': '/health',
+            'otel.bsp.max.queue.size': '4096',
+    )
+
+    TracingEndpoint endpoint = context.getBean(TracingEndpoint)
+
+    Tracer tracer = context.getBean(Tracer)
+
+    void 'test the endpoint describes the OpenTelemetry backend'() {
+        when:
+        Map backend = endpoint.tracing().backends[0]
+
+        then:
+        backend.name == 'opentelemetry'
+        backend.exclusions == ['/health']
+        backend.exporter['bsp.max.queue.size'] == '4096'
+        backend.sampler.adjustable
+        !backend.sampler.containsKey('probabilityOverride')
+    }
+
+    void 'test the sampling probability can be overridden and restored'() {
+        expect:
+        tracer.spanBuilder('before').startSpan().isRecording()
+
+        when:
+        Map backend = endpoint.updateSampling(0, null, null).backends[0]
+
+        then:
+        backend.sampler.probabilityOverride == 0d
+        !tracer.spanBuilder('overridden').startSpan().isRecording()
+
+        when:
+        backend = endpoint.resetSampling().backends[0]
+
+        then:
+        !backend.sampler.containsKey('probabilityOverride')
+        tracer.spanBuilder('restored').startSpan().isRecording()
+    }
+
+    void 'test the override is restored after the given duration'() {
+        when:
+        endpoint.updateSampling(0, 'opentelemetry', Duration.ofMillis(100))
+
+        then:
+        !tracer.spanBuilder('overridden').startSpan().isRecording()
+
+        when:
+        Thread.sleep(500)
+
+        then:
+        tracer.spanBuilder('restored').startSpan().isRecording()
+    }
+
+    void 'test a new override is not restored by the reset scheduled for the previous one'() {
+        when:
+        endpoint.updateSampling(0, 'opentelemetry', Duration.ofMillis(100))
+        endpoint.updateSampling(0.5, 'opentelemetry', null)
+        Thread.sleep(500)
+
+        then:
+        endpoint.tracing().backends[0].sampler.probabilityOverride == 0.5d
+    }
+
+    void 'test an invalid probability is rejected'() {
+        when:
+        endpoint.updateSampling(1.5, null, null)
+
+        then:
+        thrown(HttpStatusException)
+    }
+}
@@ -0,0 +1,87 @@
+package io.micronaut.tracing.opentelemetry.metrics
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.micronaut.context.ApplicationContext
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.api.trace.StatusCode
+import io.opentelemetry.api.trace.Tracer
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+class SpanMetricsProcessorSpec extends Specification {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry()
+
+    @AutoCleanup
+    ApplicationContext context
+
+    void 'metrics are computed from spans that are not sampled'() {
+        given:
+        start('otel.traces.sampler': 'always_off')
+        Tracer tracer = context.getBean(Tracer)
+
+        when:
+        3.times {
+            tracer.spanBuilder('work').setSpanKind(SpanKind.SERVER).startSpan().end()
+        }
+        def failed = tracer.spanBuilder('work').setSpanKind(SpanKind.SERVER).startSpan()
+        failed.setStatus(StatusCode.ERROR)
+        failed.end()
+
+        then:
+        !failed.spanContext.sampled
+        registry.get('span.duration').tags('span.name', 'work', 'span.kind', 'server', 'status.code', 'unset').timer().count() == 3
+        registry.get('span.duration').tags('span.name', 'work', 'span.kind', 'server', 'status.code', 'error').timer().count() == 1
+        registry.get('span.errors').tags('span.name', 'work', 'span.kind', 'server').counter().count() == 1
+    }
+
+    void 'the number of span names is bounded'() {
+        given:
+        start('otel.span-metrics.max-span-names': 2)
+        Tracer tracer = context.getBean(Tracer)
+
+        when:
+        ['a', 'b', 'c', 'd'].each {
+            tracer.spanBuilder(it).startSpan().end()
+        }
+
+        then:
+        registry.find('span.duration').tag('span.name', 'a').timer().count() == 1
+        registry.find('span.duration').tag('span.name', 'b').timer().count() == 1
+        registry.find('span.duration').tag('span.name', 'c').timer() == null
+        registry.find('span.duration').tag('span.name', 'other').timer().count() == 2
+    }
+
+    void 'unsampled spans are not recorded when record-unsampled is false'() {
+        given:
+        start('otel.traces.sampler': 'always_off', 'otel.span-metrics.record-unsampled': false)
+        Tracer tracer = context.getBean(Tracer)
+
+        when:
+        tracer.spanBuilder('work').startSpan().end()
+
+        then:
+        registry.find('span.duration').timer() == null
+    }
+
+    void 'durations are published with a percentile histogram only when enabled'() {
+        given:
+        start('otel.span-metrics.percentile-histogram': percentileHistogram)
+        Tracer tracer = context.getBean(Tracer)
+
+        when:
+        tracer.spanBuilder('work').startSpan().end()
+
+        then:
+        (registry.get('span.duration').timer().takeSnapshot().histogramCounts().length > 0) == percentileHistogram
+
+        where:
+        percentileHistogram << [false, true]
+    }
+
+    private void start(Map<String, Object> properties) {
+        context = ApplicationContext.builder(['otel.span-metrics.enabled': true] + properties)
+                .singletons(registry)
+                .start()
+    }
+}
@@ -0,0 +1,29 @@
+package io.micronaut.tracing.opentelemetry.utils
+
+import spock.lang.Specification
+
+class AttributeValueCacheSpec extends Specification {
+
+    AttributeValueCache cache = new AttributeValueCache(16)
+
+    void 'equal values share an instance'() {
+        given:
+        String first = new String('/books/{id}')
+        String second = new String('/books/{id}')
+
+        expect:
+        cache.get(first).is(first)
+        cache.get(second).is(first)
+        cache.get(new String('GET')).with { it.is(cache.get(new String('GET'))) }
+        cache.get((String) null) == null
+    }
+
+    void 'long values are not cached'() {
+        given:
+        String value = 'x' * (AttributeValueCache.MAX_VALUE_LENGTH + 1)
+
+        expect:
+        cache.get(value).is(value)
+        !cache.get(new String(value)).is(value)
+    }
+}
@@ -19,8 +19,10 @@ import io.opentelemetry.instrumentation.annotations.WithSpan
 import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
 import io.opentelemetry.sdk.trace.data.SpanData
 import jakarta.inject.Inject
+import jakarta.inject.Singleton
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
+import reactor.util.context.Context
 import reactor.util.function.Tuple2
 import reactor.util.function.Tuples
 import spock.lang.AutoCleanup
@@ -107,6 +109,75 @@ class AnnotationMappingSpec extends Specification {
         testExporter.reset()
     }
 
+    void 'repeated NewSpan invocations reuse method metadata'() {
+        def testExporter = embeddedServer.applicationContext.getBean(InMemorySpanExporter)
+        def service = embeddedServer.applicationContext.getBean(RepeatedService)
+
+        when:
+        service.work("first", 1)
+        service.work("second", 2)
+
+        then:
+        conditions.eventually {
+            testExporter.finishedSpanItems.size() == 2
+            testExporter.finishedSpanItems.name.every(x -> x == "RepeatedService.work#repeated")
+            testExporter.finishedSpanItems.collect { it.attributes.get(AttributeKey.stringKey("repeated.value")) } == ["first", "second"]
+            testExporter.finishedSpanItems.collect { it.attributes.get(AttributeKey.longKey("repeated.count")) } == [1L, 2L]
+        }
+
+        cleanup:
+        testExporter.reset()
+    }
+
+    void 'NewSpan publisher ends the span once'() {
+        def testExporter = embeddedServer.applicationContext.getBean(InMemorySpanExporter)
+        def service = embeddedServer.applicationContext.getBean(StreamingService)
+
+        when:
+        List<Integer> elements = service.stream(100).collectList().block()
+        Integer first = service.stream(Integer.MAX_VALUE).take(1).blockFirst()
+        Integer single = service.single(5).block()
+
+        then:
+        elements.size() == 100
+        first == 0
+        single == 5
+        conditions.eventually {
+            testExporter.finishedSpanItems.size() == 3
+            testExporter.finishedSpanItems.findAll { it.name == "StreamingService.stream" }.size() == 2
+            testExporter.finishedSpanItems.any {
+                it.attributes.get(AttributeKey.longKey("micronaut.publisher.elements")) == 100L &&
+                        !it.attributes.get(AttributeKey.booleanKey("micronaut.cancelled"))
+            }
+            testExporter.finishedSpanItems.any {
+                it.attributes.get(AttributeKey.booleanKey("micronaut.cancelled"))
+            }
+            testExporter.finishedSpanItems.find { it.name == "StreamingService.single" }
+                    .attributes.get(AttributeKey.longKey("micronaut.publisher.elements")) == 1L
+        }
+
+        cleanup:
+        testExporter.reset()
+    }
+
+    void 'NewSpan publisher keeps the Reactor context of the caller'() {
+        def testExporter = embeddedServer.applicationContext.getBean(InMemorySpanExporter)
+        def service = embeddedServer.applicationContext.getBean(StreamingService)
+
+        when:
+        String fromMono = service.contextValue().contextWrite(Context.of("key", "value")).block()
+        List<String> fromFlux = service.contextValues().contextWrite(Context.of("key", "value")).collectList().block()
+
+        then:
+        fromMono == "value"
+        fromFlux == ["value"]
+        conditions.eventually {
+            testExporter.finishedSpanItems.size() == 2
+        }
+
+        cleanup:
+        testExporter.reset()
+    }
 
     @Introspected
     static class SomeBody {
@@ -161,6 +232,41 @@ class AnnotationMappingSpec extends Specification {
         }
     }
 
+    @Requires(property = "spec.name", value = "AnnotationMappingSpec")
+    @Singleton
+    static class RepeatedService {
+
+        @NewSpan("repeated")
+        String work(@SpanTag("repeated.value") String value, @SpanTag("repeated.count") int count) {
+            return value
+        }
+    }
+
+    @Requires(property = "spec.name", value = "AnnotationMappingSpec")
+    @Singleton
+    static class StreamingService {
+
+        @NewSpan
+        Flux<Integer> stream(int count) {
+            return Flux.range(0, count)
+        }
+
+        @NewSpan
+        Mono<Integer> single(int value) {
+            return Mono.just(value)
+        }
+
+        @NewSpan
+        Mono<String> contextValue() {
+            return Mono.deferContextual(context -> Mono.just(context.getOrDefault("key", "none")))
+        }
+
+        @NewSpan
+        Flux<String> contextValues() {
+            return Flux.deferContextual(context -> Flux.just(context.getOrDefault("key", "none")))
+        }
+    }
+
     @Requires(property = "spec.name", value = "AnnotationMappingSpec")
     @Controller("/client")
     static class ClientController {
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.tracing.opentracing;
+
+import io.opentracing.Span;
+import io.opentracing.noop.NoopSpan;
+
+/**
+ * Determines whether an Open Tracing span records data. The Open Tracing API has no notion of
+ * sampling, so tracer implementations provide a bean of this type to let the interceptors skip
+ * tagging spans that are not sampled.
+ *
+ * @since 6.9.0
+ */
+@FunctionalInterface
+public interface SpanRecordingResolver {
+
+    /**
+     * Treats every span except the no-op span as recording.
+     */
+    SpanRecordingResolver DEFAULT = span -> !(span instanceof NoopSpan);
+
+    /**
+     * @param span the span
+     * @return whether data added to the span is recorded
+     */
+    boolean isRecording(Span span);
+}
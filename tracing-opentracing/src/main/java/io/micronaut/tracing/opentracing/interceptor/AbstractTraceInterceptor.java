@@ -21,14 +21,19 @@ import io.micronaut.aop.MethodInvocationContext;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.annotation.AnnotationMetadata;
 import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.convert.ConversionService;
 import io.micronaut.core.type.Argument;
 import io.micronaut.core.util.CollectionUtils;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.inject.ExecutableMethod;
 import io.micronaut.tracing.annotation.SpanTag;
+import io.micronaut.tracing.opentracing.SpanRecordingResolver;
 import io.opentracing.Span;
 import io.opentracing.Tracer;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static io.opentracing.log.Fields.ERROR_OBJECT;
 import static io.opentracing.log.Fields.MESSAGE;
@@ -52,6 +57,10 @@ public abstract sealed class AbstractTraceInterceptor implements MethodIntercept
 
     protected final ConversionService conversionService;
 
+    private final SpanRecordingResolver spanRecordingResolver;
+
+    private final Map<ExecutableMethod<?, ?>, String[]> spanTagNames = new ConcurrentHashMap<>();
+
     /**
      * Initialize the interceptor with tracer and conversion service.
      *
@@ -59,8 +68,23 @@ public abstract sealed class AbstractTraceInterceptor implements MethodIntercept
      * @param conversionService the {@code ConversionService} instance
      */
     protected AbstractTraceInterceptor(Tracer tracer, ConversionService conversionService) {
+        this(tracer, conversionService, null);
+    }
+
+    /**
+     * Initialize the interceptor with tracer, conversion service and span recording resolver.
+     *
+     * @param tracer                for span creation and propagation across arbitrary transports
+     * @param conversionService     the {@code ConversionService} instance
+     * @param spanRecordingResolver determines whether spans are recording, may be null
+     * @since 6.9.0
+     */
+    protected AbstractTraceInterceptor(Tracer tracer,
+                                       ConversionService conversionService,
+                                       @Nullable SpanRecordingResolver spanRecordingResolver) {
         this.tracer = tracer;
         this.conversionService = conversionService;
+        this.spanRecordingResolver = spanRecordingResolver == null ? SpanRecordingResolver.DEFAULT : spanRecordingResolver;
     }
 
     @Override
@@ -70,6 +94,9 @@ public abstract sealed class AbstractTraceInterceptor implements MethodIntercept
 
     protected final void populateTags(MethodInvocationContext<Object, Object> context,
                                       Span span) {
+        if (!spanRecordingResolver.isRecording(span)) {
+            return;
+        }
         span.setTag(CLASS_TAG, context.getDeclaringType().getSimpleName());
         span.setTag(METHOD_TAG, context.getMethodName());
         tagArguments(span, context);
@@ -92,18 +119,57 @@ public abstract sealed class AbstractTraceInterceptor implements MethodIntercept
     }
 
     protected final void tagArguments(Span span, MethodInvocationContext<Object, Object> context) {
-        Argument<?>[] arguments = context.getArguments();
+        if (!spanRecordingResolver.isRecording(span)) {
+            return;
+        }
+        String[] tagNames = spanTagNames(context);
+        if (tagNames.length == 0) {
+            return;
+        }
         Object[] parameterValues = context.getParameterValues();
-        for (int i = 0; i < arguments.length; i++) {
-            Argument<?> argument = arguments[i];
-            AnnotationMetadata annotationMetadata = argument.getAnnotationMetadata();
-            if (annotationMetadata.hasAnnotation(SpanTag.class)) {
-                Object v = parameterValues[i];
-                if (v != null) {
-                    String tagName = annotationMetadata.stringValue(SpanTag.class).orElse(argument.getName());
-                    span.setTag(tagName, v.toString());
-                }
+        for (int i = 0; i < tagNames.length; i++) {
+            String tagName = tagNames[i];
+            Object v = parameterValues[i];
+            if (tagName == null || v == null) {
+                continue;
+            }
+            if (v instanceof Number n) {
+                span.setTag(tagName, n);
+            } else if (v instanceof Boolean b) {
+                span.setTag(tagName, b);
+            } else {
+                span.setTag(tagName, v.toString());
             }
         }
     }
+
+    /**
+     * Resolves the {@link SpanTag} names of the method arguments once per method. The returned
+     * array is empty if no argument is tagged, otherwise it has one entry per argument that is
+     * {@code null} for arguments without {@link SpanTag}.
+     *
+     * @param context the invocation context
+     * @return the tag names by argument index
+     */
+    private String[] spanTagNames(MethodInvocationContext<Object, Object> context) {
+        ExecutableMethod<?, ?> executableMethod = context.getExecutableMethod();
+        String[] tagNames = spanTagNames.get(executableMethod);
+        if (tagNames == null) {
+            tagNames = spanTagNames.computeIfAbsent(executableMethod, m -> {
+                Argument<?>[] arguments = context.getArguments();
+                String[] names = new String[arguments.length];
+                boolean tagged = false;
+                for (int i = 0; i < arguments.length; i++) {
+                    Argument<?> argument = arguments[i];
+                    AnnotationMetadata annotationMetadata = argument.getAnnotationMetadata();
+                    if (annotationMetadata.hasAnnotation(SpanTag.class)) {
+                        names[i] = annotationMetadata.stringValue(SpanTag.class).orElse(argument.getName());
+                        tagged = true;
+                    }
+                }
+                return tagged ? names : StringUtils.EMPTY_STRING_ARRAY;
+            });
+        }
+        return tagNames;
+    }
 }
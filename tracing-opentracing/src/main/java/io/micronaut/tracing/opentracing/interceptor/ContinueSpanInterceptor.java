@@ -19,10 +19,13 @@ import io.micronaut.aop.InterceptorBean;
 import io.micronaut.aop.MethodInvocationContext;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.convert.ConversionService;
 import io.micronaut.tracing.annotation.ContinueSpan;
+import io.micronaut.tracing.opentracing.SpanRecordingResolver;
 import io.opentracing.Span;
 import io.opentracing.Tracer;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 /**
@@ -48,6 +51,19 @@ public final class ContinueSpanInterceptor extends AbstractTraceInterceptor {
         super(tracer, conversionService);
     }
 
+    /**
+     * Initialize the interceptor with tracer, conversion service and span recording resolver.
+     *
+     * @param tracer                for span creation and propagation across arbitrary transports
+     * @param conversionService     the {@code ConversionService} instance
+     * @param spanRecordingResolver determines whether spans are recording, may be null
+     * @since 6.9.0
+     */
+    @Inject
+    public ContinueSpanInterceptor(Tracer tracer, ConversionService conversionService, @Nullable SpanRecordingResolver spanRecordingResolver) {
+        super(tracer, conversionService, spanRecordingResolver);
+    }
+
     @Override
     public Object intercept(MethodInvocationContext<Object, Object> context) {
         Span currentSpan = tracer.activeSpan();
@@ -21,12 +21,15 @@ import io.micronaut.aop.MethodInvocationContext;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.annotation.AnnotationValue;
 import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.convert.ConversionService;
 import io.micronaut.core.propagation.PropagatedContext;
 import io.micronaut.tracing.annotation.NewSpan;
 import io.micronaut.tracing.opentracing.OpenTracingPropagationContext;
+import io.micronaut.tracing.opentracing.SpanRecordingResolver;
 import io.opentracing.Span;
 import io.opentracing.Tracer;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import reactor.core.publisher.Mono;
 
@@ -55,6 +58,19 @@ public final class NewSpanTraceInterceptor extends AbstractTraceInterceptor {
         super(tracer, conversionService);
     }
 
+    /**
+     * Initialize the interceptor with tracer, conversion service and span recording resolver.
+     *
+     * @param tracer                for span creation and propagation across arbitrary transports
+     * @param conversionService     the {@code ConversionService} instance
+     * @param spanRecordingResolver determines whether spans are recording, may be null
+     * @since 6.9.0
+     */
+    @Inject
+    public NewSpanTraceInterceptor(Tracer tracer, ConversionService conversionService, @Nullable SpanRecordingResolver spanRecordingResolver) {
+        super(tracer, conversionService, spanRecordingResolver);
+    }
+
     @Override
     public Object intercept(MethodInvocationContext<Object, Object> context) {
 
@@ -78,8 +94,6 @@ public final class NewSpanTraceInterceptor extends AbstractTraceInterceptor {
             .plus(new OpenTracingPropagationContext(tracer, span))
             .propagate()) {
 
-            populateTags(context, span);
-
             InterceptedMethod interceptedMethod = InterceptedMethod.of(context, conversionService);
             try {
                 switch (interceptedMethod.resultType()) {